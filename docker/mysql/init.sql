@@ -12,11 +12,12 @@ CREATE TABLE IF NOT EXISTS `ocr_recognition_record` (
   `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
   `recognition_id` varchar(64) NOT NULL COMMENT '识别ID',
   `recognition_type` int NOT NULL COMMENT '识别类型：1-身份证，2-营业执照，3-银行卡，4-通用文字识别',
+  `provider` varchar(32) DEFAULT NULL COMMENT 'OCR提供商',
   `image_url` varchar(500) DEFAULT NULL COMMENT '图片URL',
   `recognition_result` text COMMENT '识别结果',
   `confidence` decimal(5,4) DEFAULT NULL COMMENT '识别置信度',
   `duration` bigint DEFAULT NULL COMMENT '识别耗时（毫秒）',
-  `status` tinyint DEFAULT '1' COMMENT '状态：1-成功，0-失败',
+  `status` tinyint DEFAULT '1' COMMENT '状态：0-失败，1-成功，2-排队中，3-识别中',
   `error_message` varchar(500) DEFAULT NULL COMMENT '错误信息',
   `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `update_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -24,7 +25,8 @@ CREATE TABLE IF NOT EXISTS `ocr_recognition_record` (
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_recognition_id` (`recognition_id`),
   KEY `idx_recognition_type` (`recognition_type`),
-  KEY `idx_create_time` (`create_time`)
+  KEY `idx_create_time` (`create_time`),
+  KEY `idx_status_update_time` (`status`, `update_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='OCR识别记录表';
 
 -- 使用推送数据库
@@ -34,6 +36,7 @@ USE `yt_base_push`;
 CREATE TABLE IF NOT EXISTS `email_send_record` (
   `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
   `message_id` varchar(64) NOT NULL COMMENT '消息ID',
+  `batch_id` varchar(64) DEFAULT NULL COMMENT '批次ID',
   `to_emails` text NOT NULL COMMENT '收件人邮箱列表',
   `cc_emails` text COMMENT '抄送邮箱列表',
   `bcc_emails` text COMMENT '密送邮箱列表',
@@ -41,7 +44,10 @@ CREATE TABLE IF NOT EXISTS `email_send_record` (
   `content` longtext NOT NULL COMMENT '邮件内容',
   `is_html` tinyint DEFAULT '0' COMMENT '是否HTML格式',
   `template_id` varchar(64) DEFAULT NULL COMMENT '模板ID',
+  `attachments` longtext COMMENT '附件列表（JSON）',
   `send_status` tinyint DEFAULT '0' COMMENT '发送状态：0-待发送，1-发送成功，2-发送失败',
+  `retry_count` int DEFAULT '0' COMMENT '重试次数',
+  `next_retry_time` datetime DEFAULT NULL COMMENT '下次发送时间（发送中为租约到期时间）',
   `error_message` varchar(500) DEFAULT NULL COMMENT '错误信息',
   `send_time` datetime DEFAULT NULL COMMENT '发送时间',
   `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
@@ -50,17 +56,47 @@ CREATE TABLE IF NOT EXISTS `email_send_record` (
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_message_id` (`message_id`),
   KEY `idx_send_status` (`send_status`),
+  KEY `idx_status_next_retry` (`send_status`, `next_retry_time`),
+  KEY `idx_batch_id` (`batch_id`),
   KEY `idx_create_time` (`create_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='邮件发送记录表';
 
+-- 邮件批次内联附件表，批次没有待发送记录后删除存储服务中的附件文件
+CREATE TABLE IF NOT EXISTS `email_batch_attachment` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `batch_id` varchar(64) NOT NULL COMMENT '批次ID',
+  `file_id` varchar(64) NOT NULL COMMENT '存储服务文件ID',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_batch_id` (`batch_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='邮件批次内联附件表';
+
+-- 邮件模板表
+CREATE TABLE IF NOT EXISTS `email_template` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `template_id` varchar(64) NOT NULL COMMENT '模板ID',
+  `template_name` varchar(100) DEFAULT NULL COMMENT '模板名称',
+  `subject` varchar(200) DEFAULT NULL COMMENT '邮件主题模板',
+  `content` longtext NOT NULL COMMENT '邮件内容模板',
+  `is_html` tinyint DEFAULT '1' COMMENT '是否HTML格式',
+  `create_time` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `update_time` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  `deleted` tinyint DEFAULT '0' COMMENT '删除标记：0-未删除，1-已删除',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_template_id` (`template_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='邮件模板表';
+
 -- 短信发送记录表
 CREATE TABLE IF NOT EXISTS `sms_send_record` (
   `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
   `message_id` varchar(64) NOT NULL COMMENT '消息ID',
-  `phone_numbers` text NOT NULL COMMENT '手机号列表',
+  `batch_id` varchar(64) DEFAULT NULL COMMENT '批次ID',
+  `phone_numbers` text NOT NULL COMMENT '手机号',
   `content` varchar(500) NOT NULL COMMENT '短信内容',
   `template_id` varchar(64) DEFAULT NULL COMMENT '模板ID',
   `sms_type` tinyint DEFAULT '2' COMMENT '短信类型：1-验证码，2-通知，3-营销',
+  `provider` varchar(32) DEFAULT NULL COMMENT '短信服务提供商',
+  `biz_id` varchar(64) DEFAULT NULL COMMENT '服务商回执ID',
   `send_status` tinyint DEFAULT '0' COMMENT '发送状态：0-待发送，1-发送成功，2-发送失败',
   `success_count` int DEFAULT '0' COMMENT '成功数量',
   `fail_count` int DEFAULT '0' COMMENT '失败数量',
@@ -72,6 +108,7 @@ CREATE TABLE IF NOT EXISTS `sms_send_record` (
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_message_id` (`message_id`),
   KEY `idx_send_status` (`send_status`),
+  KEY `idx_batch_id` (`batch_id`),
   KEY `idx_sms_type` (`sms_type`),
   KEY `idx_create_time` (`create_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='短信发送记录表';
@@ -85,6 +122,7 @@ CREATE TABLE IF NOT EXISTS `file_info` (
   `file_id` varchar(64) NOT NULL COMMENT '文件ID',
   `file_name` varchar(255) NOT NULL COMMENT '文件名',
   `file_path` varchar(500) NOT NULL COMMENT '文件路径',
+  `object_name` varchar(500) DEFAULT NULL COMMENT '实际存储的对象名（内容去重时为共享对象）',
   `file_url` varchar(500) DEFAULT NULL COMMENT '文件URL',
   `file_size` bigint NOT NULL COMMENT '文件大小（字节）',
   `content_type` varchar(100) DEFAULT NULL COMMENT '文件类型',
@@ -99,7 +137,9 @@ CREATE TABLE IF NOT EXISTS `file_info` (
   `deleted` tinyint DEFAULT '0' COMMENT '删除标记：0-未删除，1-已删除',
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_file_id` (`file_id`),
-  KEY `idx_bucket_name` (`bucket_name`),
-  KEY `idx_content_type` (`content_type`),
-  KEY `idx_upload_time` (`upload_time`)
+  KEY `idx_bucket_upload_time` (`bucket_name`, `upload_time`),
+  KEY `idx_content_type_upload_time` (`content_type`, `upload_time`),
+  KEY `idx_upload_time` (`upload_time`),
+  KEY `idx_md5` (`md5`),
+  KEY `idx_file_path` (`file_path`(255))
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件信息表';
\ No newline at end of file
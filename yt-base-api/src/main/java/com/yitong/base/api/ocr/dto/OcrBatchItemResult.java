@@ -0,0 +1,39 @@
+package com.yitong.base.api.ocr.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * OCR批量识别单项结果DTO
+ */
+@Data
+public class OcrBatchItemResult implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 识别项在请求中的下标
+     */
+    private Integer index;
+    
+    /**
+     * 是否识别成功
+     */
+    private Boolean success;
+    
+    /**
+     * 识别结果，失败时为空
+     */
+    private OcrRecognitionResponse result;
+    
+    /**
+     * 错误码，成功时为空
+     */
+    private Integer errorCode;
+    
+    /**
+     * 错误信息，成功时为空
+     */
+    private String errorMessage;
+}
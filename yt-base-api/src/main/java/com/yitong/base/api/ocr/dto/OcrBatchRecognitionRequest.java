@@ -0,0 +1,24 @@
+package com.yitong.base.api.ocr.dto;
+
+import lombok.Data;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * OCR批量识别请求DTO
+ */
+@Data
+public class OcrBatchRecognitionRequest implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 识别项，每项独立指定图片和识别类型
+     */
+    @Valid
+    @NotEmpty(message = "识别项不能为空")
+    private List<OcrRecognitionRequest> items;
+}
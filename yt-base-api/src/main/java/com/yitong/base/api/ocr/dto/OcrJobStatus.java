@@ -0,0 +1,49 @@
+package com.yitong.base.api.ocr.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 异步OCR识别任务状态DTO
+ */
+@Data
+public class OcrJobStatus implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 识别ID
+     */
+    private String recognitionId;
+    
+    /**
+     * 识别类型：1-身份证，2-营业执照，3-银行卡，4-通用文字识别
+     */
+    private Integer recognitionType;
+    
+    /**
+     * 任务状态：0-失败，1-成功，2-排队中，3-识别中
+     */
+    private Integer status;
+    
+    /**
+     * 识别结果（成功时返回）
+     */
+    private OcrRecognitionResponse result;
+    
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+    
+    /**
+     * 提交时间（毫秒）
+     */
+    private Long createTime;
+    
+    /**
+     * 最后更新时间（毫秒）
+     */
+    private Long updateTime;
+}
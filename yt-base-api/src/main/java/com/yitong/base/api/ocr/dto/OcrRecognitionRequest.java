@@ -2,7 +2,6 @@ package com.yitong.base.api.ocr.dto;
 
 import lombok.Data;
 
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.io.Serializable;
 
@@ -15,11 +14,15 @@ public class OcrRecognitionRequest implements Serializable {
     private static final long serialVersionUID = 1L;
     
     /**
-     * 图片Base64编码
+     * 图片Base64编码，与fileId二选一
      */
-    @NotBlank(message = "图片内容不能为空")
     private String parse;
     
+    /**
+     * 存储服务中的文件ID，与parse二选一；指定时由OCR服务直接从存储服务读取图片
+     */
+    private String fileId;
+    
     /**
      * 识别类型：1-卡图
      */
@@ -35,4 +38,10 @@ public class OcrRecognitionRequest implements Serializable {
      * 识别语言：zh-中文，en-英文
      */
     private String language = "en";
+    
+    /**
+     * 异步识别完成后的回调地址（可选），识别结束时以POST方式推送任务状态；
+     * 只支持http/https，主机须在服务端配置的允许列表中
+     */
+    private String callbackUrl;
 }
\ No newline at end of file
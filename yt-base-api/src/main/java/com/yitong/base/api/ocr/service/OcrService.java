@@ -1,8 +1,13 @@
 package com.yitong.base.api.ocr.service;
 
+import com.yitong.base.api.ocr.dto.OcrBatchItemResult;
+import com.yitong.base.api.ocr.dto.OcrBatchRecognitionRequest;
+import com.yitong.base.api.ocr.dto.OcrJobStatus;
 import com.yitong.base.api.ocr.dto.OcrRecognitionRequest;
 import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
 
+import java.util.List;
+
 /**
  * OCR服务接口
  */
@@ -47,4 +52,28 @@ public interface OcrService {
      * @return 识别结果
      */
     OcrRecognitionResponse recognizeGeneral(String imageBase64);
-}
\ No newline at end of file
+    
+    /**
+     * 提交异步识别任务，立即返回识别ID；识别结果可通过getRecognitionResult查询或由callbackUrl接收
+     *
+     * @param request 识别请求
+     * @return 识别ID
+     */
+    String submitRecognition(OcrRecognitionRequest request);
+    
+    /**
+     * 查询异步识别任务状态及结果
+     *
+     * @param recognitionId 识别ID
+     * @return 任务状态
+     */
+    OcrJobStatus getRecognitionResult(String recognitionId);
+    
+    /**
+     * 批量识别，各识别项并发执行，单项失败不影响其他项
+     *
+     * @param request 批量识别请求
+     * @return 各项识别结果，顺序与请求一致
+     */
+    List<OcrBatchItemResult> batchRecognize(OcrBatchRecognitionRequest request);
+}
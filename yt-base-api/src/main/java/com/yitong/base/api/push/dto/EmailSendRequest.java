@@ -2,7 +2,6 @@ package com.yitong.base.api.push.dto;
 
 import lombok.Data;
 
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import java.io.Serializable;
 import java.util.List;
@@ -33,15 +32,13 @@ public class EmailSendRequest implements Serializable {
     private List<String> bccEmails;
     
     /**
-     * 邮件主题
+     * 邮件主题，使用模板且模板定义了主题时可为空
      */
-    @NotBlank(message = "邮件主题不能为空")
     private String subject;
     
     /**
-     * 邮件内容
+     * 邮件内容，使用模板时可为空
      */
-    @NotBlank(message = "邮件内容不能为空")
     private String content;
     
     /**
@@ -59,6 +56,11 @@ public class EmailSendRequest implements Serializable {
      */
     private Map<String, Object> templateParams;
     
+    /**
+     * 收件人个性化参数，key为收件人邮箱，批量发送时覆盖templateParams中的同名参数
+     */
+    private Map<String, Map<String, Object>> recipientParams;
+    
     /**
      * 模板ID
      */
@@ -70,12 +72,17 @@ public class EmailSendRequest implements Serializable {
         private static final long serialVersionUID = 1L;
         
         /**
-         * 附件名称
+         * 附件名称，使用fileId时可为空，默认取存储服务中的文件名
          */
         private String fileName;
         
         /**
-         * 附件内容（Base64编码）
+         * 存储服务文件ID，指定时从存储服务读取附件，同一附件在多封邮件间共享
+         */
+        private String fileId;
+        
+        /**
+         * 附件内容（Base64编码），未指定fileId时使用
          */
         private String fileContent;
         
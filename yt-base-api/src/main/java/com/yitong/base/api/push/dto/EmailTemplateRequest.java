@@ -0,0 +1,42 @@
+package com.yitong.base.api.push.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.NotBlank;
+import java.io.Serializable;
+
+/**
+ * 邮件模板保存请求DTO
+ */
+@Data
+public class EmailTemplateRequest implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 模板ID
+     */
+    @NotBlank(message = "模板ID不能为空")
+    private String templateId;
+    
+    /**
+     * 模板名称
+     */
+    private String templateName;
+    
+    /**
+     * 邮件主题模板（Thymeleaf TEXT模式，如：[[${name}]]，您好），为空时使用发送请求中的主题
+     */
+    private String subject;
+    
+    /**
+     * 邮件内容模板（Thymeleaf语法）
+     */
+    @NotBlank(message = "模板内容不能为空")
+    private String content;
+    
+    /**
+     * 是否HTML格式
+     */
+    private Boolean isHtml = true;
+}
@@ -42,6 +42,11 @@ public class PushResponse implements Serializable {
      */
     private Integer failCount;
     
+    /**
+     * 待发送数量（异步发送时已受理尚未完成的数量）
+     */
+    private Integer pendingCount;
+    
     public static PushResponse success(String messageId) {
         PushResponse response = new PushResponse();
         response.setSuccess(true);
@@ -39,6 +39,11 @@ public class SmsSendRequest implements Serializable {
      */
     private Map<String, Object> templateParams;
     
+    /**
+     * 手机号个性化模板参数，key为手机号，覆盖templateParams中的同名参数；指定时按服务商批量接口逐号发送不同参数
+     */
+    private Map<String, Map<String, Object>> phoneParams;
+    
     /**
      * 短信签名
      */
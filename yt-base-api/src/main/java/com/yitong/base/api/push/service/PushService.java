@@ -1,6 +1,7 @@
 package com.yitong.base.api.push.service;
 
 import com.yitong.base.api.push.dto.EmailSendRequest;
+import com.yitong.base.api.push.dto.EmailTemplateRequest;
 import com.yitong.base.api.push.dto.PushResponse;
 import com.yitong.base.api.push.dto.SmsSendRequest;
 
@@ -21,10 +22,18 @@ public interface PushService {
      * 发送短信
      *
      * @param request 短信发送请求
-     * @return 发送结果
+     * @return 发送结果，messageId为批次ID，等待超时仍未完成的手机号计为待发送
      */
     PushResponse sendSms(SmsSendRequest request);
     
+    /**
+     * 查询短信发送结果
+     *
+     * @param batchId 批次ID
+     * @return 发送结果，包含成功、失败及待发送数量
+     */
+    PushResponse getSmsBatchResult(String batchId);
+    
     /**
      * 发送验证码短信
      *
@@ -35,13 +44,29 @@ public interface PushService {
     PushResponse sendVerificationCode(String phoneNumber, String code);
     
     /**
-     * 批量发送邮件
+     * 批量发送邮件，每个收件人单独发送一封，可通过recipientParams为每个收件人渲染不同的内容
      *
      * @param request 邮件发送请求
-     * @return 发送结果
+     * @return 受理结果，messageId为批次ID
      */
     PushResponse batchSendEmail(EmailSendRequest request);
     
+    /**
+     * 查询批量邮件发送结果
+     *
+     * @param batchId 批次ID
+     * @return 发送结果，包含成功、失败及待发送数量
+     */
+    PushResponse getEmailBatchResult(String batchId);
+    
+    /**
+     * 新增或更新邮件模板，更新后立即生效
+     *
+     * @param request 模板保存请求
+     * @return 保存结果，messageId为模板ID
+     */
+    PushResponse saveEmailTemplate(EmailTemplateRequest request);
+    
     /**
      * 批量发送短信
      *
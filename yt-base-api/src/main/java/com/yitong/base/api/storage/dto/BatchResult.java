@@ -0,0 +1,71 @@
+package com.yitong.base.api.storage.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量操作结果DTO
+ */
+@Data
+public class BatchResult implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 总数量
+     */
+    private Integer totalCount;
+    
+    /**
+     * 成功数量
+     */
+    private Integer successCount;
+    
+    /**
+     * 失败数量
+     */
+    private Integer failCount;
+    
+    /**
+     * 耗时（毫秒）
+     */
+    private Long duration;
+    
+    /**
+     * 逐项结果，顺序与请求一致
+     */
+    private List<BatchItemResult> items;
+    
+    @Data
+    public static class BatchItemResult implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * 在请求列表中的下标
+         */
+        private Integer index;
+        
+        /**
+         * 文件ID
+         */
+        private String fileId;
+        
+        /**
+         * 是否成功
+         */
+        private Boolean success;
+        
+        /**
+         * 文件信息（上传、复制等返回文件的操作）
+         */
+        private FileInfo fileInfo;
+        
+        /**
+         * 错误信息
+         */
+        private String errorMessage;
+    }
+}
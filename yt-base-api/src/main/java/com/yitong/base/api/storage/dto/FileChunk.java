@@ -0,0 +1,45 @@
+package com.yitong.base.api.storage.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 文件分块DTO
+ * 用于通过Dubbo按块读取大文件，避免一次性传输整个文件
+ */
+@Data
+public class FileChunk implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 文件ID
+     */
+    private String fileId;
+    
+    /**
+     * 本块在文件中的起始偏移量
+     */
+    private Long offset;
+    
+    /**
+     * 本块实际长度（字节）
+     */
+    private Integer length;
+    
+    /**
+     * 文件总大小（字节）
+     */
+    private Long totalSize;
+    
+    /**
+     * 是否为最后一块
+     */
+    private Boolean last;
+    
+    /**
+     * 块内容
+     */
+    private byte[] data;
+}
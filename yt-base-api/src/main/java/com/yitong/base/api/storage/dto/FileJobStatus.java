@@ -0,0 +1,69 @@
+package com.yitong.base.api.storage.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 文件后台任务状态DTO
+ */
+@Data
+public class FileJobStatus implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 任务ID
+     */
+    private String jobId;
+    
+    /**
+     * 任务类型：COPY-复制，MOVE-移动
+     */
+    private String jobType;
+    
+    /**
+     * 任务状态：0-排队中，1-执行中，2-已完成，3-执行失败
+     */
+    private Integer status;
+    
+    /**
+     * 源路径前缀
+     */
+    private String sourcePrefix;
+    
+    /**
+     * 目标路径
+     */
+    private String targetPath;
+    
+    /**
+     * 已处理数量
+     */
+    private Long processedCount;
+    
+    /**
+     * 成功数量
+     */
+    private Long successCount;
+    
+    /**
+     * 失败数量
+     */
+    private Long failCount;
+    
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+    
+    /**
+     * 创建时间
+     */
+    private Long createTime;
+    
+    /**
+     * 完成时间
+     */
+    private Long finishTime;
+}
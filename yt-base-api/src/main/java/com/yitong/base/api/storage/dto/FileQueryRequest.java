@@ -0,0 +1,50 @@
+package com.yitong.base.api.storage.dto;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.io.Serializable;
+
+/**
+ * 文件查询请求DTO
+ * 查询条件均对应file_info表的索引列
+ */
+@Data
+public class FileQueryRequest implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 存储桶名称
+     */
+    private String bucketName;
+    
+    /**
+     * 文件类型
+     */
+    private String contentType;
+    
+    /**
+     * 上传时间起（毫秒时间戳，包含）
+     */
+    private Long uploadTimeStart;
+    
+    /**
+     * 上传时间止（毫秒时间戳，不包含）
+     */
+    private Long uploadTimeEnd;
+    
+    /**
+     * 页码，从1开始
+     */
+    @Min(value = 1, message = "页码最小为1")
+    private Long pageNum = 1L;
+    
+    /**
+     * 每页条数
+     */
+    @Min(value = 1, message = "每页条数最小为1")
+    @Max(value = 500, message = "每页条数最大为500")
+    private Long pageSize = 20L;
+}
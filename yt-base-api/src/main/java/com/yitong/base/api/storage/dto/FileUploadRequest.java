@@ -25,6 +25,11 @@ public class FileUploadRequest implements Serializable {
     @NotBlank(message = "文件内容不能为空")
     private String fileContent;
     
+    /**
+     * 文件MD5（可选），仅供客户端记录；内容去重以服务端根据实际内容计算的MD5为准
+     */
+    private String md5;
+    
     /**
      * 文件类型
      */
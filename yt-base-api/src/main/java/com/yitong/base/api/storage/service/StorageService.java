@@ -1,7 +1,12 @@
 package com.yitong.base.api.storage.service;
 
+import com.yitong.base.api.storage.dto.BatchResult;
+import com.yitong.base.api.storage.dto.FileChunk;
 import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileJobStatus;
+import com.yitong.base.api.storage.dto.FileQueryRequest;
 import com.yitong.base.api.storage.dto.FileUploadRequest;
+import com.yitong.base.common.result.PageResult;
 
 import java.util.List;
 
@@ -26,6 +31,16 @@ public interface StorageService {
      */
     String downloadFile(String fileId);
     
+    /**
+     * 分块下载文件，供内部调用方按块读取大文件
+     *
+     * @param fileId 文件ID
+     * @param offset 起始偏移量
+     * @param length 期望读取长度（字节），超过单块上限时按上限截断
+     * @return 文件分块
+     */
+    FileChunk downloadFileChunk(String fileId, Long offset, Integer length);
+    
     /**
      * 删除文件
      *
@@ -51,6 +66,14 @@ public interface StorageService {
      */
     String getFileUrl(String fileId, Long expireTime);
     
+    /**
+     * 分页查询文件列表（基于文件信息表，不扫描对象存储）
+     *
+     * @param request 查询请求
+     * @return 分页结果
+     */
+    PageResult<FileInfo> listFiles(FileQueryRequest request);
+    
     /**
      * 批量上传文件
      *
@@ -59,6 +82,14 @@ public interface StorageService {
      */
     List<FileInfo> batchUploadFiles(List<FileUploadRequest> requests);
     
+    /**
+     * 并发批量上传文件，返回逐项结果
+     *
+     * @param requests 上传请求列表
+     * @return 批量操作结果
+     */
+    BatchResult batchUploadFilesWithResult(List<FileUploadRequest> requests);
+    
     /**
      * 批量删除文件
      *
@@ -67,6 +98,14 @@ public interface StorageService {
      */
     Boolean batchDeleteFiles(List<String> fileIds);
     
+    /**
+     * 批量删除文件，返回逐项结果
+     *
+     * @param fileIds 文件ID列表
+     * @return 批量操作结果
+     */
+    BatchResult batchDeleteFilesWithResult(List<String> fileIds);
+    
     /**
      * 复制文件
      *
@@ -84,4 +123,48 @@ public interface StorageService {
      * @return 是否成功
      */
     Boolean moveFile(String fileId, String targetPath);
-}
\ No newline at end of file
+    
+    /**
+     * 并发批量复制文件（服务端复制）
+     *
+     * @param fileIds 文件ID列表
+     * @param targetPath 目标路径
+     * @return 批量操作结果，逐项包含新文件信息
+     */
+    BatchResult batchCopyFiles(List<String> fileIds, String targetPath);
+    
+    /**
+     * 并发批量移动文件，移动后文件ID不变
+     *
+     * @param fileIds 文件ID列表
+     * @param targetPath 目标路径
+     * @return 批量操作结果
+     */
+    BatchResult batchMoveFiles(List<String> fileIds, String targetPath);
+    
+    /**
+     * 提交后台任务，将指定路径前缀下的所有文件复制到目标路径（保留相对目录结构）
+     *
+     * @param sourcePrefix 源路径前缀
+     * @param targetPath 目标路径
+     * @return 任务ID
+     */
+    String submitCopyJob(String sourcePrefix, String targetPath);
+    
+    /**
+     * 提交后台任务，将指定路径前缀下的所有文件移动到目标路径（保留相对目录结构）
+     *
+     * @param sourcePrefix 源路径前缀
+     * @param targetPath 目标路径
+     * @return 任务ID
+     */
+    String submitMoveJob(String sourcePrefix, String targetPath);
+    
+    /**
+     * 查询后台任务状态
+     *
+     * @param jobId 任务ID
+     * @return 任务状态
+     */
+    FileJobStatus getJobStatus(String jobId);
+}
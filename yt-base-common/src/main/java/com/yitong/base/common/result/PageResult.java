@@ -0,0 +1,47 @@
+package com.yitong.base.common.result;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 分页结果
+ *
+ * @param <T> 数据类型
+ */
+@Data
+public class PageResult<T> implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * 当前页码
+     */
+    private Long pageNum;
+    
+    /**
+     * 每页条数
+     */
+    private Long pageSize;
+    
+    /**
+     * 总条数
+     */
+    private Long total;
+    
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+    
+    public PageResult() {
+    }
+    
+    public PageResult(Long pageNum, Long pageSize, Long total, List<T> records) {
+        this.pageNum = pageNum;
+        this.pageSize = pageSize;
+        this.total = total;
+        this.records = records;
+    }
+}
@@ -3,12 +3,14 @@ package com.yitong.base.ocr;
 import org.apache.dubbo.config.spring.context.annotation.EnableDubbo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * OCR服务启动类
  */
 @SpringBootApplication(scanBasePackages = "com.yitong.base")
 @EnableDubbo
+@EnableScheduling
 public class OcrApplication {
     
     public static void main(String[] args) {
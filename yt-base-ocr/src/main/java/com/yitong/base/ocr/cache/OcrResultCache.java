@@ -0,0 +1,197 @@
+package com.yitong.base.ocr.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * OCR识别结果缓存
+ * <p>
+ * 按 (图片内容SHA-256, 识别类型, 是否返回位置, 提供商) 缓存识别结果，
+ * 采用进程内Caffeine + Redis共享缓存两级结构。同一节点上相同图片的并发请求只调用一次提供商，
+ * 识别失败的结果不缓存。
+ */
+@Slf4j
+@Component
+public class OcrResultCache {
+    
+    private static final String KEY_PREFIX = "ocr:result:";
+    
+    @Value("${ocr.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ocr.cache.local-max-size:2000}")
+    private long localMaxSize;
+    
+    @Value("${ocr.cache.local-ttl-seconds:600}")
+    private long localTtlSeconds;
+    
+    @Value("${ocr.cache.redis-ttl-seconds:86400}")
+    private long redisTtlSeconds;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    private AsyncCache<String, OcrRecognitionResponse> localCache;
+    
+    /**
+     * 按识别类型统计的命中数据
+     */
+    private final Map<Integer, TypeStats> typeStats = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtlSeconds, TimeUnit.SECONDS)
+                .buildAsync();
+    }
+    
+    /**
+     * 获取识别结果，依次查询本地缓存、Redis，均未命中时调用loader识别并回填
+     *
+     * @param imageBytes 图片内容
+     * @param recognitionType 识别类型
+     * @param returnPosition 是否返回位置信息
+     * @param provider 提供商名称
+     * @param loader 调用提供商识别的函数
+     * @return 识别结果
+     */
+    public OcrRecognitionResponse get(byte[] imageBytes, int recognitionType, boolean returnPosition,
+                                      String provider, Supplier<OcrRecognitionResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String key = sha256(imageBytes) + ":" + recognitionType + ":" + (returnPosition ? 1 : 0) + ":" + provider;
+        TypeStats stats = typeStats.computeIfAbsent(recognitionType, type -> new TypeStats());
+        
+        CompletableFuture<OcrRecognitionResponse> future = new CompletableFuture<>();
+        CompletableFuture<OcrRecognitionResponse> existing = localCache.asMap().putIfAbsent(key, future);
+        if (existing != null) {
+            stats.localHits.increment();
+            return join(existing);
+        }
+        
+        // 在当前线程加载，失败时Caffeine会自动移除该条目，等待中的请求收到同样的异常
+        try {
+            OcrRecognitionResponse response = getFromRedis(key);
+            if (response != null) {
+                stats.redisHits.increment();
+            } else {
+                stats.misses.increment();
+                response = loader.get();
+                putToRedis(key, response);
+            }
+            future.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * 清空本地缓存
+     */
+    public void clearLocal() {
+        localCache.synchronous().invalidateAll();
+    }
+    
+    /**
+     * 获取按识别类型划分的缓存命中统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("localSize", localCache.synchronous().estimatedSize());
+        
+        Map<Integer, Object> byType = new TreeMap<>();
+        for (Map.Entry<Integer, TypeStats> entry : typeStats.entrySet()) {
+            long localHits = entry.getValue().localHits.sum();
+            long redisHits = entry.getValue().redisHits.sum();
+            long misses = entry.getValue().misses.sum();
+            long total = localHits + redisHits + misses;
+            
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("localHitCount", localHits);
+            item.put("redisHitCount", redisHits);
+            item.put("missCount", misses);
+            item.put("hitRate", total == 0 ? 0.0 : (double) (localHits + redisHits) / total);
+            byType.put(entry.getKey(), item);
+        }
+        stats.put("recognitionTypes", byType);
+        return stats;
+    }
+    
+    private OcrRecognitionResponse join(CompletableFuture<OcrRecognitionResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private OcrRecognitionResponse getFromRedis(String key) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (json != null) {
+                return JSON.parseObject(json, OcrRecognitionResponse.class);
+            }
+        } catch (Exception e) {
+            log.warn("读取Redis识别结果缓存失败: {}", e.getMessage());
+        }
+        return null;
+    }
+    
+    private void putToRedis(String key, OcrRecognitionResponse response) {
+        if (response == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, JSON.toJSONString(response),
+                    redisTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入Redis识别结果缓存失败: {}", e.getMessage());
+        }
+    }
+    
+    private String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    }
+    
+    private static class TypeStats {
+        
+        private final LongAdder localHits = new LongAdder();
+        
+        private final LongAdder redisHits = new LongAdder();
+        
+        private final LongAdder misses = new LongAdder();
+    }
+}
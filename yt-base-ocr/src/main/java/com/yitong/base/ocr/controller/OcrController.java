@@ -1,16 +1,30 @@
 package com.yitong.base.ocr.controller;
 
+import com.alibaba.fastjson2.JSON;
+import com.yitong.base.api.ocr.dto.OcrBatchItemResult;
+import com.yitong.base.api.ocr.dto.OcrBatchRecognitionRequest;
+import com.yitong.base.api.ocr.dto.OcrJobStatus;
 import com.yitong.base.api.ocr.dto.OcrRecognitionRequest;
 import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
 import com.yitong.base.api.ocr.service.OcrService;
 import com.yitong.base.common.result.Result;
+import com.yitong.base.ocr.job.OcrBatchExecutor;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * OCR控制器
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/ocr")
 @RequiredArgsConstructor
@@ -18,6 +32,11 @@ public class OcrController {
     
     private final OcrService ocrService;
     
+    private final OcrBatchExecutor ocrBatchExecutor;
+    
+    @Value("${ocr.batch.stream-timeout-ms:300000}")
+    private long streamTimeoutMs;
+    
     /**
      * 文字识别
      */
@@ -62,4 +81,69 @@ public class OcrController {
         OcrRecognitionResponse response = ocrService.recognizeGeneral(imageBase64);
         return Result.success(response);
     }
-}
\ No newline at end of file
+    
+    /**
+     * 提交异步识别任务，立即返回识别ID
+     */
+    @PostMapping("/jobs")
+    public Result<String> submitRecognition(@RequestBody @Validated OcrRecognitionRequest request) {
+        return Result.success(ocrService.submitRecognition(request));
+    }
+    
+    /**
+     * 查询异步识别任务状态及结果
+     */
+    @GetMapping("/jobs/{recognitionId}")
+    public Result<OcrJobStatus> getRecognitionResult(@PathVariable String recognitionId) {
+        return Result.success(ocrService.getRecognitionResult(recognitionId));
+    }
+    
+    /**
+     * 批量识别，全部完成后一次性返回
+     */
+    @PostMapping("/batch")
+    public Result<List<OcrBatchItemResult>> batchRecognize(@RequestBody @Validated OcrBatchRecognitionRequest request) {
+        return Result.success(ocrService.batchRecognize(request));
+    }
+    
+    /**
+     * 批量识别，以NDJSON逐行推送完成的识别项（Accept: application/x-ndjson）
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter batchRecognizeNdjson(@RequestBody @Validated OcrBatchRecognitionRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeoutMs);
+        stream(request, emitter, result -> emitter.send(JSON.toJSONString(result) + "\n", MediaType.APPLICATION_NDJSON));
+        return emitter;
+    }
+    
+    /**
+     * 批量识别，以SSE事件推送完成的识别项（Accept: text/event-stream）
+     */
+    @PostMapping(value = "/batch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter batchRecognizeSse(@RequestBody @Validated OcrBatchRecognitionRequest request) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        stream(request, emitter, result -> emitter.send(SseEmitter.event()
+                .id(String.valueOf(result.getIndex()))
+                .name("result")
+                .data(JSON.toJSONString(result))));
+        return emitter;
+    }
+    
+    private void stream(OcrBatchRecognitionRequest request, ResponseBodyEmitter emitter, ItemWriter writer) {
+        ocrBatchExecutor.execute(request.getItems(), ocrService::recognize, result -> {
+            // 多个识别线程并发完成，逐项串行写出避免输出交错
+            synchronized (emitter) {
+                try {
+                    writer.write(result);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("批量识别结果推送失败，客户端可能已断开: {}", e.getMessage());
+                }
+            }
+        }).whenComplete((ignored, e) -> emitter.complete());
+    }
+    
+    @FunctionalInterface
+    private interface ItemWriter {
+        void write(OcrBatchItemResult result) throws IOException;
+    }
+}
@@ -1,12 +1,20 @@
 package com.yitong.base.ocr.controller;
 
 import com.yitong.base.common.result.Result;
+import com.yitong.base.ocr.cache.OcrResultCache;
 import com.yitong.base.ocr.factory.OcrStrategyFactory;
+import com.yitong.base.ocr.job.OcrBatchExecutor;
+import com.yitong.base.ocr.job.OcrJobExecutor;
+import com.yitong.base.ocr.limit.OcrProviderLimiter;
+import com.yitong.base.ocr.preprocess.ImagePreprocessor;
+import com.yitong.base.ocr.recorder.OcrRecognitionRecorder;
+import com.yitong.base.ocr.routing.OcrRouter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -22,6 +30,27 @@ public class OcrManagementController {
     @Autowired
     private OcrStrategyFactory ocrStrategyFactory;
     
+    @Autowired
+    private OcrResultCache ocrResultCache;
+    
+    @Autowired
+    private OcrJobExecutor ocrJobExecutor;
+    
+    @Autowired
+    private OcrBatchExecutor ocrBatchExecutor;
+    
+    @Autowired
+    private OcrProviderLimiter ocrProviderLimiter;
+    
+    @Autowired
+    private OcrRouter ocrRouter;
+    
+    @Autowired
+    private ImagePreprocessor imagePreprocessor;
+    
+    @Autowired
+    private OcrRecognitionRecorder ocrRecognitionRecorder;
+    
     /**
      * 获取OCR服务状态信息
      * @return 服务状态
@@ -84,4 +113,61 @@ public class OcrManagementController {
         log.info("获取可用OCR提供商列表: {}", providers);
         return Result.success(providers);
     }
-}
\ No newline at end of file
+    
+    /**
+     * 获取识别结果缓存的命中统计（按识别类型）
+     * @return 缓存统计
+     */
+    @GetMapping("/cache/stats")
+    public Result<Map<String, Object>> getCacheStats() {
+        return Result.success(ocrResultCache.getStats());
+    }
+    
+    /**
+     * 获取异步识别队列运行状态
+     * @return 队列状态
+     */
+    @GetMapping("/jobs/stats")
+    public Result<Map<String, Object>> getJobStats() {
+        return Result.success(ocrJobExecutor.getStats());
+    }
+    
+    /**
+     * 获取批量识别线程池及各提供商并发使用情况
+     * @return 并发状态
+     */
+    @GetMapping("/concurrency/stats")
+    public Result<Map<String, Object>> getConcurrencyStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batch", ocrBatchExecutor.getStats());
+        stats.put("providers", ocrProviderLimiter.getStats());
+        return Result.success(stats);
+    }
+    
+    /**
+     * 获取各提供商的耗时分位、错误率及路由得分
+     * @return 路由统计
+     */
+    @GetMapping("/routing/stats")
+    public Result<Map<String, Object>> getRoutingStats() {
+        return Result.success(ocrRouter.getStats());
+    }
+    
+    /**
+     * 获取图片预处理统计，包括处理前后字节数
+     * @return 预处理统计
+     */
+    @GetMapping("/preprocess/stats")
+    public Result<Map<String, Object>> getPreprocessStats() {
+        return Result.success(imagePreprocessor.getStats());
+    }
+    
+    /**
+     * 获取识别记录异步写入统计
+     * @return 写入统计
+     */
+    @GetMapping("/records/stats")
+    public Result<Map<String, Object>> getRecordStats() {
+        return Result.success(ocrRecognitionRecorder.getStats());
+    }
+}
@@ -0,0 +1,105 @@
+package com.yitong.base.ocr.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * OCR识别记录实体，对应ocr_recognition_record表
+ */
+@Data
+@TableName("ocr_recognition_record")
+public class OcrRecognitionRecord {
+    
+    /**
+     * 失败
+     */
+    public static final int STATUS_FAILED = 0;
+    
+    /**
+     * 成功
+     */
+    public static final int STATUS_SUCCESS = 1;
+    
+    /**
+     * 排队中
+     */
+    public static final int STATUS_QUEUED = 2;
+    
+    /**
+     * 识别中
+     */
+    public static final int STATUS_RUNNING = 3;
+    
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * 识别ID
+     */
+    private String recognitionId;
+    
+    /**
+     * 识别类型：1-身份证，2-营业执照，3-银行卡，4-通用文字识别
+     */
+    private Integer recognitionType;
+    
+    /**
+     * OCR提供商
+     */
+    private String provider;
+    
+    /**
+     * 图片URL
+     */
+    private String imageUrl;
+    
+    /**
+     * 识别结果（JSON）
+     */
+    private String recognitionResult;
+    
+    /**
+     * 识别置信度
+     */
+    private BigDecimal confidence;
+    
+    /**
+     * 识别耗时（毫秒）
+     */
+    private Long duration;
+    
+    /**
+     * 状态：0-失败，1-成功，2-排队中，3-识别中
+     */
+    private Integer status;
+    
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+    
+    /**
+     * 删除标记：0-未删除，1-已删除
+     */
+    @TableLogic
+    private Integer deleted;
+}
@@ -2,6 +2,7 @@ package com.yitong.base.ocr.factory;
 
 import com.yitong.base.common.exception.BusinessException;
 import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.ocr.limit.OcrProviderLimiter;
 import com.yitong.base.ocr.strategy.OcrStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -27,6 +29,9 @@ public class OcrStrategyFactory {
     @Autowired
     private List<OcrStrategy> ocrStrategies;
     
+    @Autowired
+    private OcrProviderLimiter ocrProviderLimiter;
+    
     private final Map<String, OcrStrategy> strategyMap = new ConcurrentHashMap<>();
     
     @PostConstruct
@@ -73,12 +78,12 @@ public class OcrStrategyFactory {
                     "不支持的OCR提供商: " + providerName);
         }
         
-        if (!strategy.isAvailable()) {
+        if (!isUsable(strategy)) {
             log.warn("OCR提供商 '{}' 当前不可用，尝试使用其他可用提供商", providerName);
             
             // 尝试找到一个可用的策略
             for (OcrStrategy availableStrategy : strategyMap.values()) {
-                if (availableStrategy.isAvailable()) {
+                if (isUsable(availableStrategy)) {
                     log.info("使用备用OCR提供商: {}", availableStrategy.getStrategyName());
                     return availableStrategy;
                 }
@@ -91,6 +96,24 @@ public class OcrStrategyFactory {
         return strategy;
     }
     
+    /**
+     * 获取当前可用的OCR策略，默认提供商排在首位
+     * @return 可用策略列表
+     */
+    public List<OcrStrategy> getAvailableStrategies() {
+        List<OcrStrategy> strategies = new ArrayList<>();
+        OcrStrategy defaultStrategy = strategyMap.get(defaultProvider);
+        if (defaultStrategy != null && isUsable(defaultStrategy)) {
+            strategies.add(defaultStrategy);
+        }
+        for (OcrStrategy strategy : strategyMap.values()) {
+            if (strategy != defaultStrategy && isUsable(strategy)) {
+                strategies.add(strategy);
+            }
+        }
+        return strategies;
+    }
+    
     /**
      * 获取所有可用的OCR策略名称
      * @return 策略名称列表
@@ -106,7 +129,7 @@ public class OcrStrategyFactory {
      */
     public boolean isProviderAvailable(String providerName) {
         OcrStrategy strategy = strategyMap.get(providerName);
-        return strategy != null && strategy.isAvailable();
+        return strategy != null && isUsable(strategy);
     }
     
     /**
@@ -116,4 +139,11 @@ public class OcrStrategyFactory {
     public String getDefaultProviderName() {
         return defaultProvider;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 客户端已初始化且熔断器未打开
+     */
+    private boolean isUsable(OcrStrategy strategy) {
+        return strategy.isAvailable() && ocrProviderLimiter.isCallPermitted(strategy.getStrategyName());
+    }
+}
@@ -0,0 +1,143 @@
+package com.yitong.base.ocr.job;
+
+import com.yitong.base.api.ocr.dto.OcrBatchItemResult;
+import com.yitong.base.api.ocr.dto.OcrRecognitionRequest;
+import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.ocr.limit.OcrProviderLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * OCR批量识别执行器
+ * <p>
+ * 将批量请求拆分为单项任务并发执行，每项完成后立即回调，单项失败转换为错误结果而不中断整批。
+ * 对提供商的实际并发由OcrProviderLimiter按提供商控制，本线程池只限制同时处理的识别项数量；
+ * 识别项不占用Dubbo线程，超出提供商并发上限的项按后台等待时间排队，不会因快速失败而返回繁忙。
+ */
+@Slf4j
+@Component
+public class OcrBatchExecutor {
+    
+    @Value("${ocr.batch.workers:32}")
+    private int workers;
+    
+    @Value("${ocr.batch.queue-capacity:2000}")
+    private int queueCapacity;
+    
+    @Value("${ocr.batch.max-items:100}")
+    private int maxItems;
+    
+    @Autowired
+    private OcrProviderLimiter ocrProviderLimiter;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ocr-batch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+    
+    /**
+     * 并发执行批量识别
+     *
+     * @param items 识别项
+     * @param recognizer 单项识别逻辑
+     * @param listener 单项完成回调，可能在多个线程中并发调用
+     * @return 全部识别项完成时结束的Future
+     */
+    public CompletableFuture<Void> execute(List<OcrRecognitionRequest> items,
+                                           Function<OcrRecognitionRequest, OcrRecognitionResponse> recognizer,
+                                           Consumer<OcrBatchItemResult> listener) {
+        if (items.size() > maxItems) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "单次批量识别最多" + maxItems + "项");
+        }
+        
+        List<CompletableFuture<Void>> futures = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            OcrRecognitionRequest item = items.get(i);
+            CompletableFuture<Void> future;
+            try {
+                future = CompletableFuture.runAsync(() -> listener.accept(recognize(index, item, recognizer)), executor);
+            } catch (RejectedExecutionException e) {
+                listener.accept(failure(index, ResultCode.SERVICE_UNAVAILABLE.getCode(), "识别队列已满，请稍后重试"));
+                continue;
+            }
+            futures.add(future.exceptionally(e -> {
+                log.warn("批量识别结果回调失败, 下标: {}, {}", index, e.getMessage());
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+    
+    /**
+     * 获取线程池运行状态
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", workers);
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completedCount", executor.getCompletedTaskCount());
+        return stats;
+    }
+    
+    private OcrBatchItemResult recognize(int index, OcrRecognitionRequest item,
+                                         Function<OcrRecognitionRequest, OcrRecognitionResponse> recognizer) {
+        try {
+            OcrBatchItemResult result = new OcrBatchItemResult();
+            result.setIndex(index);
+            result.setSuccess(true);
+            result.setResult(ocrProviderLimiter.runInBackground(() -> recognizer.apply(item)));
+            return result;
+        } catch (BusinessException e) {
+            return failure(index, e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("批量识别单项失败, 下标: {}", index, e);
+            return failure(index, ResultCode.OCR_RECOGNITION_FAILED.getCode(), ResultCode.OCR_RECOGNITION_FAILED.getMessage());
+        }
+    }
+    
+    private OcrBatchItemResult failure(int index, Integer errorCode, String errorMessage) {
+        OcrBatchItemResult result = new OcrBatchItemResult();
+        result.setIndex(index);
+        result.setSuccess(false);
+        result.setErrorCode(errorCode);
+        result.setErrorMessage(errorMessage);
+        return result;
+    }
+}
@@ -0,0 +1,299 @@
+package com.yitong.base.ocr.job;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.yitong.base.api.ocr.dto.OcrJobStatus;
+import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.ocr.entity.OcrRecognitionRecord;
+import com.yitong.base.ocr.limit.OcrProviderLimiter;
+import com.yitong.base.ocr.mapper.OcrRecognitionRecordMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 异步OCR识别任务执行器
+ * <p>
+ * 提交时写入一条排队中的识别记录并放入有界队列，由固定数量的工作线程调用OCR提供商，
+ * 结果回写ocr_recognition_record表，调用方轮询或通过回调地址接收结果。
+ * 队列已满时直接拒绝提交，突发流量不会占满请求线程。
+ * 回调地址只允许http/https及ocr.async.callback-allowed-hosts中配置的主机，避免服务被用于访问内部地址。
+ */
+@Slf4j
+@Component
+public class OcrJobExecutor {
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    @Value("${ocr.async.workers:8}")
+    private int workers;
+    
+    @Value("${ocr.async.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${ocr.async.stale-minutes:30}")
+    private long staleMinutes;
+    
+    @Value("${ocr.async.callback-timeout-ms:5000}")
+    private long callbackTimeoutMs;
+    
+    /**
+     * 允许回调的主机名，未配置时不接受回调地址
+     */
+    @Value("${ocr.async.callback-allowed-hosts:}")
+    private List<String> callbackAllowedHosts;
+    
+    /**
+     * 独立运行配置未启用数据源，此时异步识别不可用
+     */
+    @Autowired(required = false)
+    private OcrRecognitionRecordMapper recordMapper;
+    
+    @Autowired
+    private OcrProviderLimiter ocrProviderLimiter;
+    
+    private ThreadPoolExecutor executor;
+    
+    private HttpClient httpClient;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ocr-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(callbackTimeoutMs))
+                .build();
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+    
+    /**
+     * 提交识别任务
+     *
+     * @param recognitionType 识别类型
+     * @param callbackUrl 回调地址，可为null
+     * @param task 识别逻辑
+     * @return 识别ID
+     */
+    public String submit(int recognitionType, String callbackUrl, Supplier<OcrRecognitionResponse> task) {
+        checkAvailable();
+        if (StringUtils.hasText(callbackUrl)) {
+            checkCallbackUrl(callbackUrl);
+        }
+        String recognitionId = UUID.randomUUID().toString();
+        
+        OcrRecognitionRecord record = new OcrRecognitionRecord();
+        record.setRecognitionId(recognitionId);
+        record.setRecognitionType(recognitionType);
+        record.setStatus(OcrRecognitionRecord.STATUS_QUEUED);
+        recordMapper.insert(record);
+        
+        try {
+            executor.execute(() -> run(recognitionId, callbackUrl, task));
+        } catch (RejectedExecutionException e) {
+            finish(recognitionId, null, "识别任务队列已满");
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "识别任务队列已满，请稍后重试");
+        }
+        
+        log.info("提交异步识别任务: {}, 类型: {}, 排队数: {}", recognitionId, recognitionType, executor.getQueue().size());
+        return recognitionId;
+    }
+    
+    /**
+     * 查询任务状态
+     *
+     * @param recognitionId 识别ID
+     * @return 任务状态，不存在返回null
+     */
+    public OcrJobStatus getStatus(String recognitionId) {
+        checkAvailable();
+        OcrRecognitionRecord record = recordMapper.selectOne(new LambdaQueryWrapper<OcrRecognitionRecord>()
+                .eq(OcrRecognitionRecord::getRecognitionId, recognitionId));
+        return record != null ? toStatus(record) : null;
+    }
+    
+    /**
+     * 获取队列运行状态
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", workers);
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completedCount", executor.getCompletedTaskCount());
+        return stats;
+    }
+    
+    /**
+     * 将长时间停留在排队中或识别中的记录标记为失败；队列只在内存中，服务重启时未执行的任务会丢失
+     */
+    @Scheduled(fixedDelayString = "${ocr.async.stale-check-interval-ms:60000}")
+    public void failStaleJobs() {
+        if (recordMapper == null) {
+            return;
+        }
+        try {
+            int count = recordMapper.update(null, new LambdaUpdateWrapper<OcrRecognitionRecord>()
+                    .set(OcrRecognitionRecord::getStatus, OcrRecognitionRecord.STATUS_FAILED)
+                    .set(OcrRecognitionRecord::getErrorMessage, "识别任务超时或服务已重启")
+                    .in(OcrRecognitionRecord::getStatus,
+                            List.of(OcrRecognitionRecord.STATUS_QUEUED, OcrRecognitionRecord.STATUS_RUNNING))
+                    .lt(OcrRecognitionRecord::getUpdateTime, LocalDateTime.now().minusMinutes(staleMinutes)));
+            if (count > 0) {
+                log.warn("标记超时识别任务为失败: {}", count);
+            }
+        } catch (Exception e) {
+            log.warn("检查超时识别任务失败: {}", e.getMessage());
+        }
+    }
+    
+    private void checkAvailable() {
+        if (recordMapper == null) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "未配置数据源，异步识别不可用");
+        }
+    }
+    
+    /**
+     * 校验回调地址的协议和主机
+     */
+    private void checkCallbackUrl(String callbackUrl) {
+        URI uri;
+        try {
+            uri = URI.create(callbackUrl);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "回调地址格式不正确");
+        }
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : null;
+        if (!"http".equals(scheme) && !"https".equals(scheme)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "回调地址只支持http或https");
+        }
+        String host = uri.getHost();
+        if (host == null || uri.getUserInfo() != null || callbackAllowedHosts.stream()
+                .map(String::trim)
+                .noneMatch(allowed -> allowed.equalsIgnoreCase(host))) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "回调地址的主机不在允许范围内");
+        }
+    }
+    
+    private void run(String recognitionId, String callbackUrl, Supplier<OcrRecognitionResponse> task) {
+        recordMapper.update(null, new LambdaUpdateWrapper<OcrRecognitionRecord>()
+                .set(OcrRecognitionRecord::getStatus, OcrRecognitionRecord.STATUS_RUNNING)
+                .eq(OcrRecognitionRecord::getRecognitionId, recognitionId));
+        
+        OcrRecognitionResponse response = null;
+        String errorMessage = null;
+        try {
+            response = ocrProviderLimiter.runInBackground(task);
+        } catch (Exception e) {
+            log.error("异步识别任务失败: {}", recognitionId, e);
+            errorMessage = StringUtils.hasText(e.getMessage()) ? e.getMessage() : e.getClass().getSimpleName();
+        }
+        
+        try {
+            finish(recognitionId, response, errorMessage);
+        } catch (Exception e) {
+            log.error("保存识别结果失败: {}", recognitionId, e);
+            return;
+        }
+        if (StringUtils.hasText(callbackUrl)) {
+            notifyCallback(recognitionId, callbackUrl);
+        }
+    }
+    
+    private void finish(String recognitionId, OcrRecognitionResponse response, String errorMessage) {
+        LambdaUpdateWrapper<OcrRecognitionRecord> update = new LambdaUpdateWrapper<OcrRecognitionRecord>()
+                .eq(OcrRecognitionRecord::getRecognitionId, recognitionId);
+        if (response != null) {
+            update.set(OcrRecognitionRecord::getStatus, OcrRecognitionRecord.STATUS_SUCCESS)
+                    .set(OcrRecognitionRecord::getRecognitionResult, JSON.toJSONString(response))
+                    .set(OcrRecognitionRecord::getConfidence,
+                            response.getConfidence() != null ? BigDecimal.valueOf(response.getConfidence()) : null)
+                    .set(OcrRecognitionRecord::getDuration, response.getDuration());
+        } else {
+            String message = errorMessage != null ? errorMessage : "识别失败";
+            update.set(OcrRecognitionRecord::getStatus, OcrRecognitionRecord.STATUS_FAILED)
+                    .set(OcrRecognitionRecord::getErrorMessage,
+                            message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        }
+        recordMapper.update(null, update);
+    }
+    
+    private void notifyCallback(String recognitionId, String callbackUrl) {
+        OcrJobStatus status = getStatus(recognitionId);
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(callbackUrl))
+                    .timeout(Duration.ofMillis(callbackTimeoutMs))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(JSON.toJSONString(status)))
+                    .build();
+            // 回调异步发送，不占用识别工作线程
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        if (e != null) {
+                            log.warn("识别结果回调失败: {}, {}", recognitionId, e.getMessage());
+                        } else if (response.statusCode() >= 300) {
+                            log.warn("识别结果回调返回异常状态: {}, {}", recognitionId, response.statusCode());
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("识别结果回调失败: {}, {}", recognitionId, e.getMessage());
+        }
+    }
+    
+    private OcrJobStatus toStatus(OcrRecognitionRecord record) {
+        OcrJobStatus status = new OcrJobStatus();
+        status.setRecognitionId(record.getRecognitionId());
+        status.setRecognitionType(record.getRecognitionType());
+        status.setStatus(record.getStatus());
+        status.setErrorMessage(record.getErrorMessage());
+        if (record.getRecognitionResult() != null) {
+            status.setResult(JSON.parseObject(record.getRecognitionResult(), OcrRecognitionResponse.class));
+        }
+        status.setCreateTime(toMillis(record.getCreateTime()));
+        status.setUpdateTime(toMillis(record.getUpdateTime()));
+        return status;
+    }
+    
+    private Long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+}
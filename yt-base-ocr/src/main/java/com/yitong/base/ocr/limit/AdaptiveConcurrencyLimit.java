@@ -0,0 +1,74 @@
+package com.yitong.base.ocr.limit;
+
+/**
+ * AIMD自适应并发上限
+ * <p>
+ * 调用成功且未超时时上限缓慢增加（每个上限周期加1），失败或慢调用时上限按比例收缩，
+ * 提供商变慢时同时进行的请求数随之减少，恢复后逐步放开。
+ */
+public class AdaptiveConcurrencyLimit {
+    
+    private final int minLimit;
+    
+    private final int maxLimit;
+    
+    private final double backoffRatio;
+    
+    private final long slowCallMs;
+    
+    private double limit;
+    
+    private int inFlight;
+    
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long slowCallMs) {
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.backoffRatio = backoffRatio;
+        this.slowCallMs = slowCallMs;
+        this.limit = Math.min(Math.max(initialLimit, this.minLimit), this.maxLimit);
+    }
+    
+    /**
+     * 申请并发名额，达到上限时最多等待timeoutMs
+     *
+     * @return 是否获得名额
+     */
+    public synchronized boolean acquire(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (inFlight >= getLimit()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        inFlight++;
+        return true;
+    }
+    
+    /**
+     * 释放名额并按调用结果调整上限
+     *
+     * @param latencyMs 耗时（毫秒）
+     * @param failed 是否失败
+     */
+    public synchronized void release(long latencyMs, boolean failed) {
+        // 只在并发接近上限时增加，避免低负载期间上限无意义地增长
+        boolean saturated = inFlight * 2 >= getLimit();
+        inFlight--;
+        if (failed || latencyMs >= slowCallMs) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1D / limit);
+        }
+        notifyAll();
+    }
+    
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+    
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
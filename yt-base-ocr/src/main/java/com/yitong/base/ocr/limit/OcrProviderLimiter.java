@@ -0,0 +1,194 @@
+package com.yitong.base.ocr.limit;
+
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.ocr.strategy.OcrProviderException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * OCR提供商调用保护
+ * <p>
+ * 每个提供商独立维护熔断器和自适应并发上限：熔断打开时直接拒绝，不再等待提供商超时；
+ * 未熔断时同时进行的调用数受AIMD上限控制，超过上限的调用最多等待acquire-timeout后拒绝，快速返回繁忙而不占用Dubbo线程；
+ * 批量和异步识别在各自线程池中执行，通过{@link #runInBackground}改为最多等待background-acquire-timeout，排队使用并发名额。
+ * 熔断器和并发上限只按提供商故障（{@link OcrProviderException}）判断失败，图片无效、参数错误等请求本身的错误不计入。
+ * 初始并发上限取ocr.limit.max-concurrency，可通过ocr.limit.providers.{提供商名称}单独覆盖。
+ */
+@Slf4j
+@Component
+public class OcrProviderLimiter {
+    
+    @Value("${ocr.limit.max-concurrency:8}")
+    private int defaultMaxConcurrency;
+    
+    @Value("${ocr.limit.min-concurrency:1}")
+    private int minConcurrency;
+    
+    @Value("${ocr.limit.max-concurrency-ceiling:64}")
+    private int maxConcurrencyCeiling;
+    
+    @Value("${ocr.limit.backoff-ratio:0.75}")
+    private double backoffRatio;
+    
+    @Value("${ocr.limit.acquire-timeout-ms:200}")
+    private long acquireTimeoutMs;
+    
+    @Value("${ocr.limit.background-acquire-timeout-ms:60000}")
+    private long backgroundAcquireTimeoutMs;
+    
+    @Value("${ocr.breaker.enabled:true}")
+    private boolean breakerEnabled;
+    
+    @Value("${ocr.breaker.window-size:50}")
+    private int breakerWindowSize;
+    
+    @Value("${ocr.breaker.min-calls:20}")
+    private int breakerMinCalls;
+    
+    @Value("${ocr.breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+    
+    @Value("${ocr.breaker.slow-call-rate-threshold:0.8}")
+    private double slowCallRateThreshold;
+    
+    @Value("${ocr.breaker.slow-call-ms:10000}")
+    private long slowCallMs;
+    
+    @Value("${ocr.breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+    
+    @Value("${ocr.breaker.half-open-calls:5}")
+    private int halfOpenCalls;
+    
+    @Autowired
+    private Environment environment;
+    
+    private final Map<String, ProviderGuard> guards = new ConcurrentHashMap<>();
+    
+    private final ThreadLocal<Boolean> background = new ThreadLocal<>();
+    
+    /**
+     * 在提供商熔断及并发限制内执行调用
+     *
+     * @param provider 提供商名称
+     * @param call 调用逻辑
+     * @return 调用结果
+     */
+    public <T> T execute(String provider, Supplier<T> call) {
+        ProviderGuard guard = guard(provider);
+        if (breakerEnabled && !guard.breaker.tryAcquire()) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "OCR提供商暂不可用: " + provider);
+        }
+        
+        boolean acquired;
+        try {
+            acquired = guard.limit.acquire(Boolean.TRUE.equals(background.get()) ?
+                    backgroundAcquireTimeoutMs : acquireTimeoutMs);
+        } catch (InterruptedException e) {
+            guard.breaker.cancel();
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "OCR识别被中断");
+        }
+        if (!acquired) {
+            guard.breaker.cancel();
+            log.warn("OCR提供商并发已满: {}, 当前上限: {}", provider, guard.limit.getLimit());
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "OCR服务繁忙，请稍后重试");
+        }
+        
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            failed = OcrProviderException.isProviderFailure(e);
+            throw e;
+        } finally {
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            guard.limit.release(latencyMs, failed);
+            ProviderCircuitBreaker.State before = guard.breaker.currentState();
+            guard.breaker.record(latencyMs, failed);
+            ProviderCircuitBreaker.State after = guard.breaker.currentState();
+            if (before != after) {
+                log.warn("OCR提供商熔断状态变化: {}, {} -> {}", provider, before, after);
+            }
+        }
+    }
+    
+    /**
+     * 以后台调用的等待时间执行识别，用于批量和异步识别的工作线程
+     *
+     * @param work 识别逻辑
+     * @return 识别结果
+     */
+    public <T> T runInBackground(Supplier<T> work) {
+        if (Boolean.TRUE.equals(background.get())) {
+            return work.get();
+        }
+        background.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            background.remove();
+        }
+    }
+    
+    /**
+     * 提供商当前是否接受调用，熔断打开时返回false，半开状态视为可用以便探测恢复
+     *
+     * @param provider 提供商名称
+     * @return 是否接受调用
+     */
+    public boolean isCallPermitted(String provider) {
+        return !breakerEnabled || guard(provider).breaker.currentState() != ProviderCircuitBreaker.State.OPEN;
+    }
+    
+    /**
+     * 获取各提供商熔断及并发状态
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        guards.forEach((provider, guard) -> {
+            Map<String, Object> providerStats = new LinkedHashMap<>();
+            providerStats.put("breakerState", guard.breaker.currentState());
+            providerStats.put("failureRate", guard.breaker.getFailureRate());
+            providerStats.put("slowCallRate", guard.breaker.getSlowCallRate());
+            providerStats.put("concurrencyLimit", guard.limit.getLimit());
+            providerStats.put("inFlight", guard.limit.getInFlight());
+            stats.put(provider, providerStats);
+        });
+        return stats;
+    }
+    
+    private ProviderGuard guard(String provider) {
+        return guards.computeIfAbsent(provider, name -> {
+            int initialLimit = environment.getProperty("ocr.limit.providers." + name, Integer.class, defaultMaxConcurrency);
+            return new ProviderGuard(
+                    new ProviderCircuitBreaker(breakerWindowSize, breakerMinCalls, failureRateThreshold,
+                            slowCallRateThreshold, slowCallMs, openDurationMs, halfOpenCalls),
+                    new AdaptiveConcurrencyLimit(initialLimit, minConcurrency, maxConcurrencyCeiling,
+                            backoffRatio, slowCallMs));
+        });
+    }
+    
+    private static class ProviderGuard {
+        
+        private final ProviderCircuitBreaker breaker;
+        
+        private final AdaptiveConcurrencyLimit limit;
+        
+        private ProviderGuard(ProviderCircuitBreaker breaker, AdaptiveConcurrencyLimit limit) {
+            this.breaker = breaker;
+            this.limit = limit;
+        }
+    }
+}
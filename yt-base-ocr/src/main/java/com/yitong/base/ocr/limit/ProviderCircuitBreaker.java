@@ -0,0 +1,159 @@
+package com.yitong.base.ocr.limit;
+
+/**
+ * 单个OCR提供商的熔断器
+ * <p>
+ * 关闭状态下统计最近window-size次调用，失败率或慢调用率超过阈值时打开；
+ * 打开状态持续open-duration后进入半开，放行少量探测调用，全部成功则关闭，任一失败重新打开。
+ */
+public class ProviderCircuitBreaker {
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    private final int windowSize;
+    
+    private final int minCalls;
+    
+    private final double failureRateThreshold;
+    
+    private final double slowCallRateThreshold;
+    
+    private final long slowCallMs;
+    
+    private final long openDurationMs;
+    
+    private final int halfOpenCalls;
+    
+    private final boolean[] failures;
+    
+    private final boolean[] slowCalls;
+    
+    private int next;
+    
+    private int count;
+    
+    private int failureCount;
+    
+    private int slowCount;
+    
+    private State state = State.CLOSED;
+    
+    private long openedAt;
+    
+    private int halfOpenPermits;
+    
+    private int halfOpenSuccesses;
+    
+    public ProviderCircuitBreaker(int windowSize, int minCalls, double failureRateThreshold,
+                                  double slowCallRateThreshold, long slowCallMs, long openDurationMs, int halfOpenCalls) {
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallMs = slowCallMs;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = halfOpenCalls;
+        this.failures = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+    
+    /**
+     * 申请一次调用，打开状态或半开状态探测名额用尽时返回false
+     */
+    public synchronized boolean tryAcquire() {
+        switch (currentState()) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (halfOpenPermits > 0) {
+                    halfOpenPermits--;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * 归还未实际发出调用的名额，避免半开状态的探测名额丢失
+     */
+    public synchronized void cancel() {
+        if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+            halfOpenPermits++;
+        }
+    }
+    
+    /**
+     * 记录调用结果
+     *
+     * @param latencyMs 耗时（毫秒）
+     * @param failed 是否失败
+     */
+    public synchronized void record(long latencyMs, boolean failed) {
+        boolean slow = latencyMs >= slowCallMs;
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                open();
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                reset();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // 打开前已放行的调用，结果不再计入
+            return;
+        }
+        
+        if (count == windowSize) {
+            failureCount -= failures[next] ? 1 : 0;
+            slowCount -= slowCalls[next] ? 1 : 0;
+        } else {
+            count++;
+        }
+        failures[next] = failed;
+        slowCalls[next] = slow;
+        failureCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        next = (next + 1) % windowSize;
+        
+        if (count >= minCalls && (getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+    
+    /**
+     * 当前状态，打开时间已到时转为半开
+     */
+    public synchronized State currentState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        return state;
+    }
+    
+    public synchronized double getFailureRate() {
+        return count > 0 ? (double) failureCount / count : 0D;
+    }
+    
+    public synchronized double getSlowCallRate() {
+        return count > 0 ? (double) slowCount / count : 0D;
+    }
+    
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+    
+    private void reset() {
+        state = State.CLOSED;
+        next = 0;
+        count = 0;
+        failureCount = 0;
+        slowCount = 0;
+    }
+}
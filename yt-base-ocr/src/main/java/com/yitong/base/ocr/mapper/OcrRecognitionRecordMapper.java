@@ -0,0 +1,32 @@
+package com.yitong.base.ocr.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yitong.base.ocr.entity.OcrRecognitionRecord;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * OCR识别记录Mapper
+ */
+@Mapper
+public interface OcrRecognitionRecordMapper extends BaseMapper<OcrRecognitionRecord> {
+    
+    /**
+     * 多行批量插入识别记录
+     *
+     * @param records 识别记录
+     * @return 插入行数
+     */
+    @Insert({"<script>",
+            "INSERT INTO ocr_recognition_record (recognition_id, recognition_type, provider, confidence, duration,",
+            " status, error_message, create_time, update_time) VALUES",
+            "<foreach collection='records' item='r' separator=','>",
+            "(#{r.recognitionId}, #{r.recognitionType}, #{r.provider}, #{r.confidence}, #{r.duration},",
+            " #{r.status}, #{r.errorMessage}, #{r.createTime}, #{r.createTime})",
+            "</foreach>",
+            "</script>"})
+    int insertBatch(@Param("records") List<OcrRecognitionRecord> records);
+}
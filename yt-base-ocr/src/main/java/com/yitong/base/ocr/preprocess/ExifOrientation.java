@@ -0,0 +1,115 @@
+package com.yitong.base.ocr.preprocess;
+
+import java.awt.geom.AffineTransform;
+
+/**
+ * JPEG EXIF方向解析
+ * <p>
+ * 只读取APP1段中IFD0的Orientation标签，不解析其他元数据，避免引入额外依赖。
+ */
+final class ExifOrientation {
+    
+    static final int NORMAL = 1;
+    
+    private static final int TAG_ORIENTATION = 0x0112;
+    
+    private ExifOrientation() {
+    }
+    
+    /**
+     * 读取EXIF方向，无EXIF或解析失败时返回NORMAL
+     *
+     * @param jpeg JPEG内容
+     * @return 方向值1-8
+     */
+    static int read(byte[] jpeg) {
+        try {
+            if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) {
+                return NORMAL;
+            }
+            int pos = 2;
+            while (pos + 4 <= jpeg.length && (jpeg[pos] & 0xFF) == 0xFF) {
+                int marker = jpeg[pos + 1] & 0xFF;
+                int length = ((jpeg[pos + 2] & 0xFF) << 8) | (jpeg[pos + 3] & 0xFF);
+                // SOS之后是图像数据，不会再有APP1
+                if (marker == 0xDA) {
+                    return NORMAL;
+                }
+                if (marker == 0xE1 && isExifHeader(jpeg, pos + 4)) {
+                    return readOrientation(jpeg, pos + 10, Math.min(jpeg.length, pos + 2 + length));
+                }
+                pos += 2 + length;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // 数据损坏时按正常方向处理
+        }
+        return NORMAL;
+    }
+    
+    /**
+     * 将方向变换应用于宽为width、高为height的图像，返回的变换把原图坐标映射到摆正后的坐标
+     */
+    static AffineTransform transform(int orientation, double width, double height) {
+        switch (orientation) {
+            case 2:
+                return new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3:
+                return new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4:
+                return new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5:
+                return new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6:
+                return new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7:
+                return new AffineTransform(0, -1, -1, 0, height, width);
+            case 8:
+                return new AffineTransform(0, -1, 1, 0, 0, width);
+            default:
+                return new AffineTransform();
+        }
+    }
+    
+    /**
+     * 方向5-8需要交换宽高
+     */
+    static boolean swapsDimensions(int orientation) {
+        return orientation >= 5 && orientation <= 8;
+    }
+    
+    private static boolean isExifHeader(byte[] data, int offset) {
+        return offset + 6 <= data.length
+                && data[offset] == 'E' && data[offset + 1] == 'x' && data[offset + 2] == 'i' && data[offset + 3] == 'f'
+                && data[offset + 4] == 0 && data[offset + 5] == 0;
+    }
+    
+    private static int readOrientation(byte[] data, int tiffStart, int end) {
+        boolean littleEndian = data[tiffStart] == 'I' && data[tiffStart + 1] == 'I';
+        int ifdOffset = readInt(data, tiffStart + 4, littleEndian);
+        int ifdStart = tiffStart + ifdOffset;
+        int entries = readShort(data, ifdStart, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifdStart + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readShort(data, entry, littleEndian) == TAG_ORIENTATION) {
+                int orientation = readShort(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : NORMAL;
+            }
+        }
+        return NORMAL;
+    }
+    
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+    
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
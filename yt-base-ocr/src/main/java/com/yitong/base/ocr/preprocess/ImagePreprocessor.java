@@ -0,0 +1,277 @@
+package com.yitong.base.ocr.preprocess;
+
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OCR图片预处理
+ * <p>
+ * 在调用提供商前将图片按EXIF方向摆正、缩小到max-long-edge以内并重新编码为JPEG，减少上传字节数和提供商耗时。
+ * 解码时按缩小倍数直接降采样，并以解码所需内存为单位限制同时处理的图片，避免并发大图占满堆内存。
+ * 无法解码的格式（如PDF）原样透传，由提供商自行处理。
+ */
+@Slf4j
+@Component
+public class ImagePreprocessor {
+    
+    private static final long MB = 1024L * 1024L;
+    
+    @Value("${ocr.preprocess.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ocr.preprocess.max-input-bytes:10485760}")
+    private long maxInputBytes;
+    
+    @Value("${ocr.preprocess.max-pixels:50000000}")
+    private long maxPixels;
+    
+    @Value("${ocr.preprocess.max-long-edge:2048}")
+    private int maxLongEdge;
+    
+    @Value("${ocr.preprocess.jpeg-quality:0.85}")
+    private float jpegQuality;
+    
+    @Value("${ocr.preprocess.reencode-threshold-bytes:524288}")
+    private long reencodeThresholdBytes;
+    
+    @Value("${ocr.preprocess.max-memory-mb:256}")
+    private int maxMemoryMb;
+    
+    @Value("${ocr.preprocess.acquire-timeout-ms:10000}")
+    private long acquireTimeoutMs;
+    
+    private Semaphore memoryPermits;
+    
+    private final LongAdder processed = new LongAdder();
+    
+    private final LongAdder skipped = new LongAdder();
+    
+    private final LongAdder passthrough = new LongAdder();
+    
+    private final LongAdder rejected = new LongAdder();
+    
+    private final LongAdder bytesIn = new LongAdder();
+    
+    private final LongAdder bytesOut = new LongAdder();
+    
+    private final LongAdder processNanos = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        memoryPermits = new Semaphore(Math.max(maxMemoryMb, 1), true);
+    }
+    
+    /**
+     * 检查图片大小，超限时直接拒绝，在解码及计算缓存键之前调用
+     *
+     * @param imageBytes 图片内容
+     */
+    public void checkSize(byte[] imageBytes) {
+        if (imageBytes.length == 0) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "图片内容不能为空");
+        }
+        if (enabled && imageBytes.length > maxInputBytes) {
+            rejected.increment();
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(),
+                    "图片大小超过限制: " + maxInputBytes / MB + "MB");
+        }
+    }
+    
+    /**
+     * 预处理图片
+     *
+     * @param imageBytes 原始图片
+     * @return 发送给提供商的图片，无需处理时返回原数组
+     */
+    public byte[] process(byte[] imageBytes) {
+        if (!enabled) {
+            return imageBytes;
+        }
+        checkSize(imageBytes);
+        long start = System.nanoTime();
+        bytesIn.add(imageBytes.length);
+        byte[] result = imageBytes;
+        try {
+            result = doProcess(imageBytes);
+            return result;
+        } finally {
+            bytesOut.add(result.length);
+            processNanos.add(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * 获取预处理统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long total = processed.sum() + skipped.sum() + passthrough.sum();
+        stats.put("enabled", enabled);
+        stats.put("processed", processed.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("passthrough", passthrough.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("bytesIn", bytesIn.sum());
+        stats.put("bytesOut", bytesOut.sum());
+        stats.put("avgProcessMs", total > 0 ? TimeUnit.NANOSECONDS.toMillis(processNanos.sum()) / (double) total : 0D);
+        stats.put("availableMemoryMb", memoryPermits.availablePermits());
+        return stats;
+    }
+    
+    private byte[] doProcess(byte[] imageBytes) {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                passthrough.increment();
+                return imageBytes;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return transform(reader, imageBytes);
+            } finally {
+                reader.dispose();
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            // 解码失败时交给提供商判断，不在此处拒绝
+            log.debug("图片预处理失败，使用原图: {}", e.getMessage());
+            passthrough.increment();
+            return imageBytes;
+        }
+    }
+    
+    private byte[] transform(ImageReader reader, byte[] imageBytes) throws IOException {
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if ((long) width * height > maxPixels) {
+            rejected.increment();
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "图片分辨率超过限制: " + width + "x" + height);
+        }
+        
+        boolean jpeg = "jpeg".equalsIgnoreCase(reader.getFormatName());
+        int orientation = jpeg ? ExifOrientation.read(imageBytes) : ExifOrientation.NORMAL;
+        int longEdge = Math.max(width, height);
+        boolean resize = longEdge > maxLongEdge;
+        if (!resize && orientation == ExifOrientation.NORMAL && imageBytes.length <= reencodeThresholdBytes) {
+            skipped.increment();
+            return imageBytes;
+        }
+        
+        // 解码时按整数倍降采样，解码后的图片最长边不小于目标尺寸，再平滑缩放到目标尺寸
+        int subsampling = Math.max(1, longEdge / maxLongEdge);
+        int decodedWidth = (width + subsampling - 1) / subsampling;
+        int decodedHeight = (height + subsampling - 1) / subsampling;
+        double scale = Math.min(1D, (double) maxLongEdge / Math.max(decodedWidth, decodedHeight));
+        int targetWidth = Math.max(1, (int) Math.round(decodedWidth * scale));
+        int targetHeight = Math.max(1, (int) Math.round(decodedHeight * scale));
+        
+        int permits = memoryPermits(decodedWidth, decodedHeight, targetWidth, targetHeight);
+        acquire(permits);
+        try {
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            BufferedImage decoded = reader.read(0, param);
+            BufferedImage target = render(decoded, orientation, targetWidth, targetHeight);
+            decoded.flush();
+            byte[] encoded = encodeJpeg(target);
+            target.flush();
+            
+            // 无需缩放和旋转时，重新编码反而变大则保留原图
+            if (!resize && orientation == ExifOrientation.NORMAL && encoded.length >= imageBytes.length) {
+                skipped.increment();
+                return imageBytes;
+            }
+            processed.increment();
+            log.debug("图片预处理: {}x{} {}B -> {}x{} {}B, 方向: {}", width, height, imageBytes.length,
+                    target.getWidth(), target.getHeight(), encoded.length, orientation);
+            return encoded;
+        } finally {
+            memoryPermits.release(permits);
+        }
+    }
+    
+    private BufferedImage render(BufferedImage source, int orientation, int targetWidth, int targetHeight) {
+        boolean swap = ExifOrientation.swapsDimensions(orientation);
+        BufferedImage target = new BufferedImage(swap ? targetHeight : targetWidth, swap ? targetWidth : targetHeight,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            // 透明背景按白色处理，JPEG不支持透明通道
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, target.getWidth(), target.getHeight());
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            AffineTransform transform = ExifOrientation.transform(orientation, targetWidth, targetHeight);
+            transform.scale((double) targetWidth / source.getWidth(), (double) targetHeight / source.getHeight());
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+    
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4);
+        try (MemoryCacheImageOutputStream stream = new MemoryCacheImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+    
+    /**
+     * 解码图片和目标图片按每像素4字节估算内存，单张图片超过总额度时按总额度计
+     */
+    private int memoryPermits(int decodedWidth, int decodedHeight, int targetWidth, int targetHeight) {
+        long bytes = ((long) decodedWidth * decodedHeight + (long) targetWidth * targetHeight) * 4L;
+        long permits = (bytes + MB - 1) / MB;
+        return (int) Math.max(1, Math.min(permits, Math.max(maxMemoryMb, 1)));
+    }
+    
+    private void acquire(int permits) {
+        try {
+            if (!memoryPermits.tryAcquire(permits, acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "图片处理繁忙，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "图片处理被中断");
+        }
+    }
+}
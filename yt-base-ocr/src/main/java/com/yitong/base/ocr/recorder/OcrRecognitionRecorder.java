@@ -0,0 +1,209 @@
+package com.yitong.base.ocr.recorder;
+
+import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
+import com.yitong.base.ocr.entity.OcrRecognitionRecord;
+import com.yitong.base.ocr.mapper.OcrRecognitionRecordMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OCR识别记录异步写入器
+ * <p>
+ * 每次提供商调用的结果放入有界内存队列后立即返回，由后台线程按批量大小或时间间隔多行插入数据库。
+ * 队列满时丢弃新记录并计数，数据库变慢或不可用时不影响识别耗时。
+ */
+@Slf4j
+@Component
+public class OcrRecognitionRecorder {
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    @Value("${ocr.record.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ocr.record.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${ocr.record.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${ocr.record.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+    
+    /**
+     * 独立运行配置未启用数据源，此时不写入记录
+     */
+    @Autowired(required = false)
+    private OcrRecognitionRecordMapper recordMapper;
+    
+    private BlockingQueue<OcrRecognitionRecord> queue;
+    
+    private Thread flushThread;
+    
+    private volatile boolean running;
+    
+    private final LongAdder accepted = new LongAdder();
+    
+    private final LongAdder dropped = new LongAdder();
+    
+    private final LongAdder written = new LongAdder();
+    
+    private final LongAdder failed = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        if (!enabled || recordMapper == null) {
+            enabled = false;
+            log.info("OCR识别记录未启用");
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        flushThread = new Thread(this::flushLoop, "ocr-record-writer");
+        flushThread.setDaemon(true);
+        flushThread.start();
+    }
+    
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (flushThread == null) {
+            return;
+        }
+        running = false;
+        flushThread.interrupt();
+        flushThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    
+    /**
+     * 记录识别成功
+     */
+    public void recordSuccess(int recognitionType, String provider, OcrRecognitionResponse response, long duration) {
+        OcrRecognitionRecord record = newRecord(recognitionType, provider, duration, OcrRecognitionRecord.STATUS_SUCCESS);
+        if (response.getConfidence() != null) {
+            record.setConfidence(BigDecimal.valueOf(response.getConfidence()));
+        }
+        enqueue(record);
+    }
+    
+    /**
+     * 记录识别失败
+     */
+    public void recordFailure(int recognitionType, String provider, Throwable error, long duration) {
+        OcrRecognitionRecord record = newRecord(recognitionType, provider, duration, OcrRecognitionRecord.STATUS_FAILED);
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        record.setErrorMessage(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+        enqueue(record);
+    }
+    
+    /**
+     * 获取写入统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queueSize", queue != null ? queue.size() : 0);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("accepted", accepted.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+    
+    private OcrRecognitionRecord newRecord(int recognitionType, String provider, long duration, int status) {
+        OcrRecognitionRecord record = new OcrRecognitionRecord();
+        record.setRecognitionId(UUID.randomUUID().toString());
+        record.setRecognitionType(recognitionType);
+        record.setProvider(provider);
+        record.setDuration(duration);
+        record.setStatus(status);
+        record.setCreateTime(LocalDateTime.now());
+        return record;
+    }
+    
+    private void enqueue(OcrRecognitionRecord record) {
+        if (!enabled) {
+            return;
+        }
+        if (queue.offer(record)) {
+            accepted.increment();
+            return;
+        }
+        dropped.increment();
+        // 队列持续满时避免刷屏，每丢弃1000条输出一次
+        if (dropped.sum() % 1000 == 1) {
+            log.warn("OCR识别记录队列已满，丢弃记录，累计丢弃: {}", dropped.sum());
+        }
+    }
+    
+    private void flushLoop() {
+        List<OcrRecognitionRecord> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                OcrRecognitionRecord first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                // 攒够一批或到达刷新间隔后写入
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    OcrRecognitionRecord next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            }
+        }
+        
+        // 停止时写入剩余记录
+        List<OcrRecognitionRecord> remaining = new ArrayList<>(batch);
+        queue.drainTo(remaining);
+        for (int i = 0; i < remaining.size(); i += batchSize) {
+            flush(new ArrayList<>(remaining.subList(i, Math.min(i + batchSize, remaining.size()))));
+        }
+    }
+    
+    private void flush(List<OcrRecognitionRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            recordMapper.insertBatch(batch);
+            written.add(batch.size());
+        } catch (Exception e) {
+            // 写入失败的批次直接丢弃，不重试，避免积压
+            failed.add(batch.size());
+            log.warn("OCR识别记录写入失败，丢弃{}条: {}", batch.size(), e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+}
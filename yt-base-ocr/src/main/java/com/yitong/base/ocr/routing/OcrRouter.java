@@ -0,0 +1,351 @@
+package com.yitong.base.ocr.routing;
+
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.ocr.factory.OcrStrategyFactory;
+import com.yitong.base.ocr.strategy.OcrProviderException;
+import com.yitong.base.ocr.strategy.OcrStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * OCR提供商路由
+ * <p>
+ * 按各提供商最近的耗时中位数和错误率打分，优先选择得分最低（最快且稳定）的提供商，
+ * 得分可通过ocr.routing.weights.{提供商}按权重调整。少量请求随机探测其他提供商以保持统计新鲜。
+ * 首选提供商超过其p95耗时仍未返回时，向次选提供商发出对冲请求，取先成功的结果；
+ * 首选提供商因自身故障快速失败或被熔断、并发限制拒绝时直接切换到次选提供商；
+ * 图片无效、参数错误等请求本身的错误直接抛出，不再重复请求次选提供商。
+ * 错误率只统计提供商故障（{@link OcrProviderException}），图片无效、参数错误、限流拒绝等不计入。
+ */
+@Slf4j
+@Component
+public class OcrRouter {
+    
+    /**
+     * 启用路由时缓存键使用的提供商标识，结果与具体提供商无关
+     */
+    public static final String ROUTED_PROVIDER = "auto";
+    
+    @Value("${ocr.routing.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${ocr.routing.window-size:200}")
+    private int windowSize;
+    
+    @Value("${ocr.routing.window-seconds:300}")
+    private long windowSeconds;
+    
+    @Value("${ocr.routing.min-samples:20}")
+    private int minSamples;
+    
+    @Value("${ocr.routing.error-penalty:10}")
+    private double errorPenalty;
+    
+    @Value("${ocr.routing.explore-ratio:0.05}")
+    private double exploreRatio;
+    
+    @Value("${ocr.routing.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+    
+    @Value("${ocr.routing.hedge.default-delay-ms:3000}")
+    private long hedgeDefaultDelayMs;
+    
+    @Value("${ocr.routing.hedge.min-delay-ms:200}")
+    private long hedgeMinDelayMs;
+    
+    @Value("${ocr.routing.hedge.max-ratio:0.1}")
+    private double hedgeMaxRatio;
+    
+    @Value("${ocr.routing.hedge.workers:64}")
+    private int hedgeWorkers;
+    
+    @Autowired
+    private OcrStrategyFactory ocrStrategyFactory;
+    
+    @Autowired
+    private Environment environment;
+    
+    private final Map<String, ProviderLatencyStats> providerStats = new ConcurrentHashMap<>();
+    
+    private final LongAdder requests = new LongAdder();
+    
+    private final LongAdder hedges = new LongAdder();
+    
+    private final LongAdder hedgeWins = new LongAdder();
+    
+    private final LongAdder failovers = new LongAdder();
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 无排队：线程用尽时由调用线程直接执行，此时该请求不再对冲
+        executor = new ThreadPoolExecutor(hedgeWorkers, hedgeWorkers, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ocr-route-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        log.info("OCR路由{}，对冲请求{}", enabled ? "已启用" : "未启用", hedgeEnabled ? "已启用" : "未启用");
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+    
+    /**
+     * 缓存键中的提供商标识
+     */
+    public String getCacheProvider() {
+        return enabled ? ROUTED_PROVIDER : ocrStrategyFactory.getDefaultStrategy().getStrategyName();
+    }
+    
+    /**
+     * 选择提供商执行调用
+     *
+     * @param call 对指定提供商的调用
+     * @return 调用结果
+     */
+    public <T> T execute(Function<OcrStrategy, T> call) {
+        if (!enabled) {
+            return invoke(ocrStrategyFactory.getDefaultStrategy(), call);
+        }
+        List<OcrStrategy> ranked = rank();
+        if (ranked.isEmpty()) {
+            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED.getCode(), "所有OCR服务提供商都不可用");
+        }
+        requests.increment();
+        OcrStrategy primary = ranked.get(0);
+        if (ranked.size() < 2) {
+            return invoke(primary, call);
+        }
+        OcrStrategy secondary = ranked.get(1);
+        if (!hedgeEnabled) {
+            try {
+                return invoke(primary, call);
+            } catch (RuntimeException e) {
+                return failover(primary, secondary, call, e);
+            }
+        }
+        
+        CompletableFuture<T> first = CompletableFuture.supplyAsync(() -> invoke(primary, call), executor);
+        try {
+            return first.get(hedgeDelay(primary.getStrategyName()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 首选提供商超过p95仍未返回，进入对冲
+        } catch (ExecutionException e) {
+            return failover(primary, secondary, call, unwrap(e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED.getCode(), "OCR识别被中断");
+        }
+        
+        if (!tryHedge()) {
+            return join(first);
+        }
+        log.debug("OCR对冲请求: {} 超时，同时请求 {}", primary.getStrategyName(), secondary.getStrategyName());
+        CompletableFuture<T> second = CompletableFuture.supplyAsync(() -> invoke(secondary, call), executor);
+        
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        BiConsumer<T, Throwable> primaryHandler = (result, e) -> {
+            if (e == null) {
+                winner.complete(result);
+            } else if (!shouldFailover(unwrap(e))) {
+                winner.completeExceptionally(e);
+            } else if (failed.incrementAndGet() == 2) {
+                winner.completeExceptionally(e);
+            }
+        };
+        first.whenComplete(primaryHandler);
+        second.whenComplete((result, e) -> {
+            if (e == null) {
+                if (winner.complete(result)) {
+                    hedgeWins.increment();
+                }
+            } else if (failed.incrementAndGet() == 2) {
+                winner.completeExceptionally(e);
+            }
+        });
+        return join(winner);
+    }
+    
+    /**
+     * 获取各提供商路由统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hedgeEnabled", hedgeEnabled);
+        stats.put("requests", requests.sum());
+        stats.put("hedges", hedges.sum());
+        stats.put("hedgeWins", hedgeWins.sum());
+        stats.put("failovers", failovers.sum());
+        
+        Map<String, Object> providers = new LinkedHashMap<>();
+        for (Map.Entry<String, ProviderLatencyStats> entry : providerStats.entrySet()) {
+            ProviderLatencyStats.Snapshot snapshot = entry.getValue().snapshot(windowSeconds * 1000);
+            Map<String, Object> providerStat = new LinkedHashMap<>();
+            providerStat.put("samples", snapshot.getSamples());
+            providerStat.put("errorRate", snapshot.getErrorRate());
+            providerStat.put("p50", snapshot.getP50());
+            providerStat.put("p95", snapshot.getP95());
+            providerStat.put("p99", snapshot.getP99());
+            providerStat.put("weight", weight(entry.getKey()));
+            providerStat.put("score", snapshot.getSamples() >= minSamples ? score(entry.getKey(), snapshot) : null);
+            providers.put(entry.getKey(), providerStat);
+        }
+        stats.put("providers", providers);
+        return stats;
+    }
+    
+    /**
+     * 按得分排序可用提供商，样本不足的提供商取已有得分的中位数，同分时默认提供商优先
+     */
+    private List<OcrStrategy> rank() {
+        List<OcrStrategy> strategies = ocrStrategyFactory.getAvailableStrategies();
+        if (strategies.size() < 2) {
+            return strategies;
+        }
+        
+        Map<String, Double> scores = new HashMap<>();
+        List<Double> known = new ArrayList<>();
+        for (OcrStrategy strategy : strategies) {
+            ProviderLatencyStats.Snapshot snapshot = stats(strategy.getStrategyName()).snapshot(windowSeconds * 1000);
+            if (snapshot.getSamples() >= minSamples) {
+                double score = score(strategy.getStrategyName(), snapshot);
+                scores.put(strategy.getStrategyName(), score);
+                known.add(score);
+            }
+        }
+        double neutral = 0D;
+        if (!known.isEmpty()) {
+            Collections.sort(known);
+            neutral = known.get(known.size() / 2);
+        }
+        
+        List<OcrStrategy> ranked = new ArrayList<>(strategies);
+        double fallbackScore = neutral;
+        // getAvailableStrategies已将默认提供商排在首位，稳定排序保证同分时默认提供商优先
+        ranked.sort(Comparator.comparingDouble(s -> scores.getOrDefault(s.getStrategyName(), fallbackScore)));
+        
+        if (ThreadLocalRandom.current().nextDouble() < exploreRatio) {
+            Collections.swap(ranked, 0, 1 + ThreadLocalRandom.current().nextInt(ranked.size() - 1));
+        }
+        return ranked;
+    }
+    
+    private double score(String provider, ProviderLatencyStats.Snapshot snapshot) {
+        double latency = Math.max(snapshot.getP50(), 1L);
+        return latency * (1 + errorPenalty * snapshot.getErrorRate()) / weight(provider);
+    }
+    
+    private double weight(String provider) {
+        double weight = environment.getProperty("ocr.routing.weights." + provider, Double.class, 1D);
+        return weight > 0 ? weight : 1D;
+    }
+    
+    private long hedgeDelay(String provider) {
+        ProviderLatencyStats.Snapshot snapshot = stats(provider).snapshot(windowSeconds * 1000);
+        long delay = snapshot.getSamples() >= minSamples && snapshot.getP95() > 0 ? snapshot.getP95() : hedgeDefaultDelayMs;
+        return Math.max(delay, hedgeMinDelayMs);
+    }
+    
+    /**
+     * 对冲请求数不超过总请求数的max-ratio，避免提供商整体变慢时请求量翻倍
+     */
+    private boolean tryHedge() {
+        if (hedges.sum() >= requests.sum() * hedgeMaxRatio) {
+            return false;
+        }
+        hedges.increment();
+        return true;
+    }
+    
+    /**
+     * 只有提供商故障或被熔断、并发限制拒绝时才切换提供商
+     */
+    private boolean shouldFailover(RuntimeException e) {
+        return OcrProviderException.isProviderFailure(e) || (e instanceof BusinessException
+                && ResultCode.SERVICE_UNAVAILABLE.getCode().equals(((BusinessException) e).getCode()));
+    }
+    
+    private <T> T failover(OcrStrategy primary, OcrStrategy secondary, Function<OcrStrategy, T> call,
+                           RuntimeException cause) {
+        if (!shouldFailover(cause)) {
+            throw cause;
+        }
+        log.warn("OCR提供商 {} 调用失败，切换到 {}: {}", primary.getStrategyName(), secondary.getStrategyName(),
+                cause.getMessage());
+        failovers.increment();
+        return invoke(secondary, call);
+    }
+    
+    private <T> T invoke(OcrStrategy strategy, Function<OcrStrategy, T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.apply(strategy);
+            stats(strategy.getStrategyName()).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), false);
+            return result;
+        } catch (RuntimeException e) {
+            if (OcrProviderException.isProviderFailure(e)) {
+                stats(strategy.getStrategyName()).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), true);
+            }
+            throw e;
+        }
+    }
+    
+    private ProviderLatencyStats stats(String provider) {
+        return providerStats.computeIfAbsent(provider, name -> new ProviderLatencyStats(windowSize));
+    }
+    
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+    
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new BusinessException(ResultCode.OCR_RECOGNITION_FAILED.getCode(), cause.getMessage());
+    }
+}
@@ -0,0 +1,115 @@
+package com.yitong.base.ocr.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Arrays;
+
+/**
+ * 单个OCR提供商的滚动调用统计
+ * <p>
+ * 以环形缓冲区保存最近的调用耗时及成败，计算时只统计时间窗口内的样本，
+ * 提供商恢复或变慢后统计能较快反映当前状态。
+ */
+public class ProviderLatencyStats {
+    
+    private final long[] latencies;
+    
+    private final boolean[] failures;
+    
+    private final long[] timestamps;
+    
+    private int next;
+    
+    private int count;
+    
+    public ProviderLatencyStats(int windowSize) {
+        this.latencies = new long[windowSize];
+        this.failures = new boolean[windowSize];
+        this.timestamps = new long[windowSize];
+    }
+    
+    /**
+     * 记录一次调用
+     *
+     * @param latencyMs 耗时（毫秒）
+     * @param failed 是否失败
+     */
+    public synchronized void record(long latencyMs, boolean failed) {
+        latencies[next] = latencyMs;
+        failures[next] = failed;
+        timestamps[next] = System.currentTimeMillis();
+        next = (next + 1) % latencies.length;
+        if (count < latencies.length) {
+            count++;
+        }
+    }
+    
+    /**
+     * 计算时间窗口内的统计快照
+     *
+     * @param windowMillis 时间窗口（毫秒）
+     * @return 统计快照
+     */
+    public Snapshot snapshot(long windowMillis) {
+        long[] successLatencies;
+        int samples = 0;
+        int failureCount = 0;
+        int successCount = 0;
+        long since = System.currentTimeMillis() - windowMillis;
+        synchronized (this) {
+            successLatencies = new long[count];
+            for (int i = 0; i < count; i++) {
+                if (timestamps[i] < since) {
+                    continue;
+                }
+                samples++;
+                if (failures[i]) {
+                    failureCount++;
+                } else {
+                    successLatencies[successCount++] = latencies[i];
+                }
+            }
+        }
+        
+        // 只用成功调用计算耗时分位，失败调用通常很快返回，会拉低延迟
+        Arrays.sort(successLatencies, 0, successCount);
+        return new Snapshot(samples,
+                samples > 0 ? (double) failureCount / samples : 0D,
+                percentile(successLatencies, successCount, 0.50),
+                percentile(successLatencies, successCount, 0.95),
+                percentile(successLatencies, successCount, 0.99));
+    }
+    
+    private static long percentile(long[] sorted, int size, double quantile) {
+        if (size == 0) {
+            return 0L;
+        }
+        int index = (int) Math.ceil(quantile * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))];
+    }
+    
+    /**
+     * 统计快照
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Snapshot {
+        
+        /**
+         * 窗口内样本数
+         */
+        private int samples;
+        
+        /**
+         * 错误率
+         */
+        private double errorRate;
+        
+        private long p50;
+        
+        private long p95;
+        
+        private long p99;
+    }
+}
@@ -1,18 +1,32 @@
 package com.yitong.base.ocr.service.impl;
 
+import com.yitong.base.api.ocr.dto.OcrBatchItemResult;
+import com.yitong.base.api.ocr.dto.OcrBatchRecognitionRequest;
+import com.yitong.base.api.ocr.dto.OcrJobStatus;
 import com.yitong.base.api.ocr.dto.OcrRecognitionRequest;
 import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
 import com.yitong.base.api.ocr.service.OcrService;
 import com.yitong.base.common.exception.BusinessException;
 import com.yitong.base.common.result.ResultCode;
-import com.yitong.base.ocr.factory.OcrStrategyFactory;
+import com.yitong.base.ocr.cache.OcrResultCache;
+import com.yitong.base.ocr.job.OcrBatchExecutor;
+import com.yitong.base.ocr.job.OcrJobExecutor;
+import com.yitong.base.ocr.limit.OcrProviderLimiter;
+import com.yitong.base.ocr.preprocess.ImagePreprocessor;
+import com.yitong.base.ocr.recorder.OcrRecognitionRecorder;
+import com.yitong.base.ocr.routing.OcrRouter;
+import com.yitong.base.ocr.source.StorageImageLoader;
 import com.yitong.base.ocr.strategy.OcrStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * OCR服务实现类
@@ -23,31 +37,48 @@ import java.util.Base64;
 @DubboService
 public class OcrServiceImpl implements OcrService {
     
+    /**
+     * 识别类型：1-身份证，2-营业执照，3-银行卡，4-通用文字识别
+     */
+    private static final int TYPE_ID_CARD = 1;
+    
+    private static final int TYPE_BUSINESS_LICENSE = 2;
+    
+    private static final int TYPE_BANK_CARD = 3;
+    
+    private static final int TYPE_GENERAL = 4;
+    
     @Autowired
-    private OcrStrategyFactory ocrStrategyFactory;
+    private OcrRouter ocrRouter;
+    
+    @Autowired
+    private ImagePreprocessor imagePreprocessor;
+    
+    @Autowired
+    private StorageImageLoader storageImageLoader;
+    
+    @Autowired
+    private OcrRecognitionRecorder ocrRecognitionRecorder;
+    
+    @Autowired
+    private OcrResultCache ocrResultCache;
+    
+    @Autowired
+    private OcrJobExecutor ocrJobExecutor;
+    
+    @Autowired
+    private OcrBatchExecutor ocrBatchExecutor;
+    
+    @Autowired
+    private OcrProviderLimiter ocrProviderLimiter;
     
     @Override
     public OcrRecognitionResponse recognize(OcrRecognitionRequest request) {
         try {
-            byte[] imageBytes = Base64.getDecoder().decode(request.getImageBase64());
-            OcrStrategy strategy = ocrStrategyFactory.getDefaultStrategy();
-            
-            log.info("使用OCR提供商: {} 进行识别，类型: {}", 
-                    strategy.getStrategyName(), request.getRecognitionType());
-            
-            switch (request.getRecognitionType()) {
-                case 1:
-                    return strategy.recognizeIdCard(imageBytes);
-                case 2:
-                    return strategy.recognizeBusinessLicense(imageBytes);
-                case 3:
-                    return strategy.recognizeBankCard(imageBytes);
-                case 4:
-                    return strategy.recognizeGeneral(imageBytes, request.getReturnPosition());
-                default:
-                    throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "不支持的识别类型");
-            }
-            
+            byte[] imageBytes = loadImage(request);
+            return recognize(imageBytes, request.getRecognitionType(), Boolean.TRUE.equals(request.getReturnPosition()));
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("OCR识别失败", e);
             throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
@@ -57,9 +88,9 @@ public class OcrServiceImpl implements OcrService {
     @Override
     public OcrRecognitionResponse recognizeIdCard(String imageBase64) {
         try {
-            byte[] imageBytes = Base64.getDecoder().decode(imageBase64);
-            OcrStrategy strategy = ocrStrategyFactory.getDefaultStrategy();
-            return strategy.recognizeIdCard(imageBytes);
+            return recognize(decodeImage(imageBase64), TYPE_ID_CARD, false);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("身份证识别失败", e);
             throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
@@ -69,9 +100,9 @@ public class OcrServiceImpl implements OcrService {
     @Override
     public OcrRecognitionResponse recognizeBusinessLicense(String imageBase64) {
         try {
-            byte[] imageBytes = Base64.getDecoder().decode(imageBase64);
-            OcrStrategy strategy = ocrStrategyFactory.getDefaultStrategy();
-            return strategy.recognizeBusinessLicense(imageBytes);
+            return recognize(decodeImage(imageBase64), TYPE_BUSINESS_LICENSE, false);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("营业执照识别失败", e);
             throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
@@ -81,9 +112,9 @@ public class OcrServiceImpl implements OcrService {
     @Override
     public OcrRecognitionResponse recognizeBankCard(String imageBase64) {
         try {
-            byte[] imageBytes = Base64.getDecoder().decode(imageBase64);
-            OcrStrategy strategy = ocrStrategyFactory.getDefaultStrategy();
-            return strategy.recognizeBankCard(imageBytes);
+            return recognize(decodeImage(imageBase64), TYPE_BANK_CARD, false);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("银行卡识别失败", e);
             throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
@@ -93,12 +124,122 @@ public class OcrServiceImpl implements OcrService {
     @Override
     public OcrRecognitionResponse recognizeGeneral(String imageBase64) {
         try {
-            byte[] imageBytes = Base64.getDecoder().decode(imageBase64);
-            OcrStrategy strategy = ocrStrategyFactory.getDefaultStrategy();
-            return strategy.recognizeGeneral(imageBytes, false);
+            return recognize(decodeImage(imageBase64), TYPE_GENERAL, false);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("通用文字识别失败", e);
             throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
         }
     }
-}
\ No newline at end of file
+    
+    @Override
+    public String submitRecognition(OcrRecognitionRequest request) {
+        Integer recognitionType = request.getRecognitionType();
+        if (recognitionType == null || recognitionType < TYPE_ID_CARD || recognitionType > TYPE_GENERAL) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "不支持的识别类型");
+        }
+        boolean returnPosition = Boolean.TRUE.equals(request.getReturnPosition());
+        if (StringUtils.hasText(request.getFileId())) {
+            // 存储文件在执行时再读取，排队期间不占用内存
+            String fileId = request.getFileId();
+            return ocrJobExecutor.submit(recognitionType, request.getCallbackUrl(),
+                    () -> recognize(storageImageLoader.load(fileId), recognitionType, returnPosition));
+        }
+        byte[] imageBytes = loadImage(request);
+        return ocrJobExecutor.submit(recognitionType, request.getCallbackUrl(),
+                () -> recognize(imageBytes, recognitionType, returnPosition));
+    }
+    
+    @Override
+    public OcrJobStatus getRecognitionResult(String recognitionId) {
+        OcrJobStatus status = ocrJobExecutor.getStatus(recognitionId);
+        if (status == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "识别任务不存在");
+        }
+        return status;
+    }
+    
+    @Override
+    public List<OcrBatchItemResult> batchRecognize(OcrBatchRecognitionRequest request) {
+        List<OcrRecognitionRequest> items = request.getItems();
+        OcrBatchItemResult[] results = new OcrBatchItemResult[items.size()];
+        try {
+            ocrBatchExecutor.execute(items, this::recognize, result -> results[result.getIndex()] = result).join();
+        } catch (CompletionException e) {
+            log.error("批量识别失败", e.getCause());
+            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
+        }
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * 读取请求中的图片，优先使用存储文件ID，其次为Base64内容
+     */
+    private byte[] loadImage(OcrRecognitionRequest request) {
+        if (StringUtils.hasText(request.getFileId())) {
+            return storageImageLoader.load(request.getFileId());
+        }
+        if (!StringUtils.hasText(request.getParse())) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "图片内容和文件ID不能同时为空");
+        }
+        return decodeImage(request.getParse());
+    }
+    
+    private byte[] decodeImage(String imageBase64) {
+        if (!StringUtils.hasText(imageBase64)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "图片内容不能为空");
+        }
+        try {
+            return Base64.getDecoder().decode(imageBase64);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "图片内容不是有效的Base64编码");
+        }
+    }
+    
+    /**
+     * 按识别类型调用OCR提供商，相同图片的重复识别直接返回缓存结果
+     */
+    private OcrRecognitionResponse recognize(byte[] imageBytes, Integer recognitionType, boolean returnPosition) {
+        if (recognitionType == null || recognitionType < TYPE_ID_CARD || recognitionType > TYPE_GENERAL) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "不支持的识别类型");
+        }
+        // 位置信息只对通用文字识别有效，其他类型不区分，避免重复缓存
+        boolean position = recognitionType == TYPE_GENERAL && returnPosition;
+        
+        imagePreprocessor.checkSize(imageBytes);
+        
+        // 缓存键按原图计算，只有未命中缓存时才预处理
+        return ocrResultCache.get(imageBytes, recognitionType, position, ocrRouter.getCacheProvider(), () -> {
+            byte[] prepared = imagePreprocessor.process(imageBytes);
+            return ocrRouter.execute(strategy -> recognize(strategy, prepared, recognitionType, position));
+        });
+    }
+    
+    private OcrRecognitionResponse recognize(OcrStrategy strategy, byte[] imageBytes, int recognitionType,
+                                             boolean position) {
+        String provider = strategy.getStrategyName();
+        log.info("使用OCR提供商: {} 进行识别，类型: {}", provider, recognitionType);
+        long startTime = System.currentTimeMillis();
+        try {
+            OcrRecognitionResponse response = ocrProviderLimiter.execute(provider, () -> {
+                switch (recognitionType) {
+                    case TYPE_ID_CARD:
+                        return strategy.recognizeIdCard(imageBytes);
+                    case TYPE_BUSINESS_LICENSE:
+                        return strategy.recognizeBusinessLicense(imageBytes);
+                    case TYPE_BANK_CARD:
+                        return strategy.recognizeBankCard(imageBytes);
+                    default:
+                        return strategy.recognizeGeneral(imageBytes, position);
+                }
+            });
+            ocrRecognitionRecorder.recordSuccess(recognitionType, provider, response,
+                    System.currentTimeMillis() - startTime);
+            return response;
+        } catch (RuntimeException e) {
+            ocrRecognitionRecorder.recordFailure(recognitionType, provider, e, System.currentTimeMillis() - startTime);
+            throw e;
+        }
+    }
+}
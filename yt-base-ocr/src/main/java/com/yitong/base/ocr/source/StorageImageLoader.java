@@ -0,0 +1,71 @@
+package com.yitong.base.ocr.source;
+
+import com.yitong.base.api.storage.dto.FileChunk;
+import com.yitong.base.api.storage.service.StorageService;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.dubbo.config.annotation.DubboReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 从存储服务读取待识别图片
+ * <p>
+ * 通过StorageService.downloadFileChunk按块读取原始字节，不经过Base64编码；
+ * 首块返回文件总大小后一次性分配目标数组，超过大小限制的文件在读取后续分块前即被拒绝。
+ */
+@Slf4j
+@Component
+public class StorageImageLoader {
+    
+    @DubboReference(check = false, timeout = 10000)
+    private StorageService storageService;
+    
+    @Value("${ocr.storage.chunk-size:4194304}")
+    private int chunkSize;
+    
+    @Value("${ocr.preprocess.max-input-bytes:10485760}")
+    private long maxInputBytes;
+    
+    /**
+     * 读取文件内容
+     *
+     * @param fileId 存储服务文件ID
+     * @return 文件内容
+     */
+    public byte[] load(String fileId) {
+        long startTime = System.currentTimeMillis();
+        FileChunk first = storageService.downloadFileChunk(fileId, 0L, chunkSize);
+        long totalSize = first.getTotalSize() != null ? first.getTotalSize() : first.getLength();
+        if (totalSize > maxInputBytes) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(),
+                    "图片大小超过限制: " + maxInputBytes / 1024 / 1024 + "MB");
+        }
+        if (Boolean.TRUE.equals(first.getLast()) && first.getData().length == totalSize) {
+            return first.getData();
+        }
+        
+        byte[] data = new byte[(int) totalSize];
+        int position = 0;
+        FileChunk chunk = first;
+        while (true) {
+            byte[] chunkData = chunk.getData();
+            if (chunkData.length == 0 || position + chunkData.length > totalSize) {
+                break;
+            }
+            System.arraycopy(chunkData, 0, data, position, chunkData.length);
+            position += chunkData.length;
+            if (Boolean.TRUE.equals(chunk.getLast()) || position >= totalSize) {
+                break;
+            }
+            chunk = storageService.downloadFileChunk(fileId, (long) position, chunkSize);
+        }
+        if (position != totalSize) {
+            log.warn("读取存储文件不完整: {}, 期望: {}, 实际: {}", fileId, totalSize, position);
+            throw new BusinessException(ResultCode.FILE_DOWNLOAD_FAILED.getCode(), "读取图片文件不完整");
+        }
+        log.debug("从存储服务读取图片: {}, 大小: {}, 耗时: {}ms", fileId, totalSize, System.currentTimeMillis() - startTime);
+        return data;
+    }
+}
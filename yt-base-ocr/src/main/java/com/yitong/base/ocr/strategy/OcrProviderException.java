@@ -0,0 +1,27 @@
+package com.yitong.base.ocr.strategy;
+
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+
+/**
+ * OCR提供商故障异常
+ * <p>
+ * 仅用于提供商自身或网络传输导致的失败（超时、IO错误、5xx、限流），
+ * 路由统计、熔断器和自适应并发限制只按此类失败判断提供商是否健康；
+ * 图片无效、参数错误等由请求本身导致的失败仍抛出普通的BusinessException。
+ */
+public class OcrProviderException extends BusinessException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public OcrProviderException(String message) {
+        super(ResultCode.OCR_RECOGNITION_FAILED.getCode(), message);
+    }
+    
+    /**
+     * 判断异常是否为提供商故障
+     */
+    public static boolean isProviderFailure(Throwable e) {
+        return e instanceof OcrProviderException;
+    }
+}
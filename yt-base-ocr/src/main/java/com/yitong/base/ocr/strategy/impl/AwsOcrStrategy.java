@@ -1,34 +1,107 @@
 package com.yitong.base.ocr.strategy.impl;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
 import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
 import com.yitong.base.common.exception.BusinessException;
 import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.ocr.strategy.OcrProviderException;
 import com.yitong.base.ocr.strategy.OcrStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * AWS OCR策略实现
  * 使用AWS Textract服务进行OCR识别
+ * <p>
+ * 通过JDK HttpClient异步调用Textract JSON接口，所有请求共用同一个客户端及其连接池。
+ * 单页图片使用DetectDocumentText同步识别；PDF、TIFF等多页文档在配置了S3桶时先上传到S3，
+ * 再通过StartDocumentTextDetection异步识别并分页获取结果。
+ * 可通过ocr.aws.endpoint、ocr.aws.s3-endpoint指向本地HTTP桩进行测试。
  */
 @Slf4j
 @Component
 public class AwsOcrStrategy implements OcrStrategy {
     
+    private static final String JSON_CONTENT_TYPE = "application/x-amz-json-1.1";
+    
     @Value("${ocr.aws.access-key:}")
     private String accessKey;
     
     @Value("${ocr.aws.secret-key:}")
     private String secretKey;
     
+    @Value("${ocr.aws.session-token:}")
+    private String sessionToken;
+    
     @Value("${ocr.aws.region:us-east-1}")
     private String region;
     
+    @Value("${ocr.aws.endpoint:}")
+    private String endpoint;
+    
+    @Value("${ocr.aws.s3-endpoint:}")
+    private String s3Endpoint;
+    
+    @Value("${ocr.aws.s3-bucket:}")
+    private String s3Bucket;
+    
+    @Value("${ocr.aws.s3-prefix:ocr-tmp/}")
+    private String s3Prefix;
+    
+    @Value("${ocr.aws.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+    
+    @Value("${ocr.aws.request-timeout-ms:20000}")
+    private long requestTimeoutMs;
+    
+    @Value("${ocr.aws.io-threads:4}")
+    private int ioThreads;
+    
+    @Value("${ocr.aws.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+    
+    @Value("${ocr.aws.max-wait-ms:120000}")
+    private long maxWaitMs;
+    
+    private HttpClient httpClient;
+    
+    private ExecutorService httpExecutor;
+    
+    private AwsV4Signer signer;
+    
+    private URI textractUri;
+    
     private boolean initialized = false;
     
     @Override
@@ -39,16 +112,42 @@ public class AwsOcrStrategy implements OcrStrategy {
     @PostConstruct
     @Override
     public void initialize() {
-        if (accessKey != null && !accessKey.isEmpty() && secretKey != null && !secretKey.isEmpty()) {
-            // 这里应该初始化AWS Textract客户端
-            // 由于需要AWS SDK依赖，这里先做模拟实现
+        if (isConfigured(accessKey) && isConfigured(secretKey)) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            httpExecutor = Executors.newFixedThreadPool(ioThreads, runnable -> {
+                Thread thread = new Thread(runnable, "ocr-aws-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            // HttpClient自带连接池，复用到Textract的连接，支持时使用HTTP/2多路复用
+            httpClient = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .executor(httpExecutor)
+                    .build();
+            signer = new AwsV4Signer(accessKey, secretKey, sessionToken, region);
+            textractUri = URI.create(StringUtils.hasText(endpoint) ? endpoint
+                    : "https://textract." + region + ".amazonaws.com/");
             initialized = true;
-            log.info("AWS OCR客户端初始化成功，区域: {}", region);
+            log.info("AWS OCR客户端初始化成功，区域: {}, 地址: {}", region, textractUri);
         } else {
             log.warn("AWS OCR配置不完整，将使用模拟数据");
         }
     }
     
+    /**
+     * 配置文件中的示例值（your-xxx）视为未配置，避免无效凭证的提供商被路由选中
+     */
+    private static boolean isConfigured(String value) {
+        return StringUtils.hasText(value) && !value.startsWith("your-");
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        if (httpExecutor != null) {
+            httpExecutor.shutdown();
+        }
+    }
+    
     @Override
     public boolean isAvailable() {
         return initialized;
@@ -56,84 +155,281 @@ public class AwsOcrStrategy implements OcrStrategy {
     
     @Override
     public OcrRecognitionResponse recognizeIdCard(byte[] imageBytes) {
-        long startTime = System.currentTimeMillis();
-        
-        try {
-            // 模拟AWS Textract身份证识别
-            OcrRecognitionResponse response = createMockResponse(
-                "AWS身份证识别结果\n姓名: 张三\n身份证号: 123456789012345678",
-                System.currentTimeMillis() - startTime
-            );
-            
-            log.info("AWS OCR身份证识别完成，耗时: {}ms", response.getDuration());
-            return response;
-            
-        } catch (Exception e) {
-            log.error("AWS OCR身份证识别失败", e);
-            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
-        }
+        return recognize(imageBytes, true, "身份证", "AWS身份证识别结果\n姓名: 张三\n身份证号: 123456789012345678");
     }
     
     @Override
     public OcrRecognitionResponse recognizeBusinessLicense(byte[] imageBytes) {
+        return recognize(imageBytes, true, "营业执照",
+                "AWS营业执照识别结果\n公司名称: 示例科技有限公司\n统一社会信用代码: 91110000000000000X");
+    }
+    
+    @Override
+    public OcrRecognitionResponse recognizeBankCard(byte[] imageBytes) {
+        return recognize(imageBytes, true, "银行卡", "AWS银行卡识别结果\n卡号: 6222 **** **** 1234\n银行: 中国工商银行");
+    }
+    
+    @Override
+    public OcrRecognitionResponse recognizeGeneral(byte[] imageBytes, Boolean returnPosition) {
+        return recognize(imageBytes, Boolean.TRUE.equals(returnPosition), "通用文字",
+                "AWS通用文字识别结果\n这是一段示例文本\n用于演示AWS OCR功能");
+    }
+    
+    /**
+     * Textract没有针对国内证照的专用接口，各识别类型均按文档文字检测处理
+     */
+    private OcrRecognitionResponse recognize(byte[] imageBytes, boolean includePosition, String typeName, String mockText) {
         long startTime = System.currentTimeMillis();
         
         try {
-            // 模拟AWS Textract营业执照识别
-            OcrRecognitionResponse response = createMockResponse(
-                "AWS营业执照识别结果\n公司名称: 示例科技有限公司\n统一社会信用代码: 91110000000000000X",
-                System.currentTimeMillis() - startTime
-            );
+            OcrRecognitionResponse response;
+            if (!initialized) {
+                response = createMockResponse(mockText, System.currentTimeMillis() - startTime);
+            } else {
+                List<JSONObject> blocks = isMultiPageDocument(imageBytes) && StringUtils.hasText(s3Bucket)
+                        ? detectDocument(imageBytes).join()
+                        : detectImage(imageBytes).join();
+                response = parseBlocks(blocks, includePosition ? imageSize(imageBytes) : null,
+                        System.currentTimeMillis() - startTime);
+            }
             
-            log.info("AWS OCR营业执照识别完成，耗时: {}ms", response.getDuration());
+            log.info("AWS OCR{}识别完成，耗时: {}ms", typeName, response.getDuration());
             return response;
             
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("AWS OCR{}识别失败", typeName, cause);
+            if (cause instanceof BusinessException) {
+                throw (BusinessException) cause;
+            }
+            throw new OcrProviderException("AWS Textract调用失败：" + cause.getMessage());
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("AWS OCR营业执照识别失败", e);
+            log.error("AWS OCR{}识别失败", typeName, e);
             throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
         }
     }
     
-    @Override
-    public OcrRecognitionResponse recognizeBankCard(byte[] imageBytes) {
-        long startTime = System.currentTimeMillis();
+    /**
+     * DetectDocumentText同步识别单页图片
+     */
+    private CompletableFuture<List<JSONObject>> detectImage(byte[] imageBytes) {
+        JSONObject request = new JSONObject();
+        request.put("Document", Map.of("Bytes", Base64.getEncoder().encodeToString(imageBytes)));
+        return callTextract("DetectDocumentText", request).thenApply(AwsOcrStrategy::lineBlocks);
+    }
+    
+    /**
+     * 多页文档：上传到S3后启动异步识别，轮询直到完成，最后删除临时对象
+     */
+    private CompletableFuture<List<JSONObject>> detectDocument(byte[] documentBytes) {
+        String objectKey = s3Prefix + UUID.randomUUID() + (isPdf(documentBytes) ? ".pdf" : ".tiff");
+        URI objectUri = s3ObjectUri(objectKey);
+        String contentType = isPdf(documentBytes) ? "application/pdf" : "image/tiff";
         
+        long deadline = System.currentTimeMillis() + maxWaitMs;
+        return send(signer.sign("PUT", objectUri, "s3", Map.of("content-type", contentType), documentBytes))
+                .thenCompose(ignored -> {
+                    JSONObject request = new JSONObject();
+                    request.put("DocumentLocation", Map.of("S3Object", Map.of("Bucket", s3Bucket, "Name", objectKey)));
+                    return callTextract("StartDocumentTextDetection", request);
+                })
+                .thenCompose(started -> pollDocument(started.getString("JobId"), null, new ArrayList<>(), deadline))
+                .whenComplete((blocks, e) -> send(signer.sign("DELETE", objectUri, "s3", Map.of(), new byte[0]))
+                        .exceptionally(deleteError -> {
+                            log.warn("删除Textract临时对象失败: {}, {}", objectKey, deleteError.getMessage());
+                            return null;
+                        }));
+    }
+    
+    /**
+     * 轮询GetDocumentTextDetection，任务完成后按NextToken取完所有分页；等待通过延迟执行器实现，不占用线程
+     */
+    private CompletableFuture<List<JSONObject>> pollDocument(String jobId, String nextToken, List<JSONObject> blocks,
+                                                            long deadline) {
+        JSONObject request = new JSONObject();
+        request.put("JobId", jobId);
+        request.put("MaxResults", 1000);
+        if (nextToken != null) {
+            request.put("NextToken", nextToken);
+        }
+        return callTextract("GetDocumentTextDetection", request).thenCompose(result -> {
+            String status = result.getString("JobStatus");
+            if ("IN_PROGRESS".equals(status)) {
+                if (System.currentTimeMillis() >= deadline) {
+                    return CompletableFuture.failedFuture(new OcrProviderException("AWS Textract识别超时"));
+                }
+                return CompletableFuture.supplyAsync(() -> null,
+                                CompletableFuture.delayedExecutor(pollIntervalMs, TimeUnit.MILLISECONDS, httpExecutor))
+                        .thenCompose(ignored -> pollDocument(jobId, null, blocks, deadline));
+            }
+            if ("FAILED".equals(status)) {
+                return CompletableFuture.failedFuture(new BusinessException(ResultCode.OCR_RECOGNITION_FAILED.getCode(),
+                        "AWS Textract识别失败：" + result.getString("StatusMessage")));
+            }
+            blocks.addAll(lineBlocks(result));
+            String token = result.getString("NextToken");
+            return token != null ? pollDocument(jobId, token, blocks, deadline) : CompletableFuture.completedFuture(blocks);
+        });
+    }
+    
+    private CompletableFuture<JSONObject> callTextract(String operation, JSONObject request) {
+        byte[] body = request.toJSONString().getBytes(StandardCharsets.UTF_8);
+        HttpRequest.Builder builder = signer.sign("POST", textractUri, "textract",
+                Map.of("content-type", JSON_CONTENT_TYPE, "x-amz-target", "Textract." + operation), body);
+        return send(builder).thenApply(JSON::parseObject);
+    }
+    
+    private CompletableFuture<String> send(HttpRequest.Builder builder) {
+        HttpRequest request = builder.timeout(Duration.ofMillis(requestTimeoutMs)).build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> {
+                    if (response.statusCode() >= 300) {
+                        String message = "AWS Textract识别失败：" + errorMessage(response);
+                        if (isProviderError(response.statusCode(), message)) {
+                            throw new OcrProviderException(message);
+                        }
+                        throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED.getCode(), message);
+                    }
+                    return response.body();
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof BusinessException) {
+                        throw (BusinessException) cause;
+                    }
+                    String message = cause instanceof HttpTimeoutException
+                            ? "请求超时" : cause.getMessage();
+                    throw new OcrProviderException("AWS Textract调用失败：" + message);
+                });
+    }
+    
+    /**
+     * 5xx及限流错误属于提供商故障，其余4xx（文档无效、参数错误、凭证错误等）由请求或配置导致
+     */
+    private static boolean isProviderError(int statusCode, String message) {
+        return statusCode >= 500 || statusCode == 429
+                || message.contains("ThrottlingException") || message.contains("ProvisionedThroughputExceededException")
+                || message.contains("LimitExceededException") || message.contains("SlowDown");
+    }
+    
+    private static String errorMessage(HttpResponse<String> response) {
         try {
-            // 模拟AWS Textract银行卡识别
-            OcrRecognitionResponse response = createMockResponse(
-                "AWS银行卡识别结果\n卡号: 6222 **** **** 1234\n银行: 中国工商银行",
-                System.currentTimeMillis() - startTime
-            );
-            
-            log.info("AWS OCR银行卡识别完成，耗时: {}ms", response.getDuration());
-            return response;
-            
+            JSONObject error = JSON.parseObject(response.body());
+            if (error != null) {
+                String type = error.getString("__type");
+                String message = error.containsKey("message") ? error.getString("message") : error.getString("Message");
+                return response.statusCode() + " " + (type != null ? type : "") + " " + (message != null ? message : "");
+            }
         } catch (Exception e) {
-            log.error("AWS OCR银行卡识别失败", e);
-            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
+            // S3错误为XML，直接返回状态码
         }
+        return String.valueOf(response.statusCode());
     }
     
-    @Override
-    public OcrRecognitionResponse recognizeGeneral(byte[] imageBytes, Boolean returnPosition) {
-        long startTime = System.currentTimeMillis();
+    private static List<JSONObject> lineBlocks(JSONObject result) {
+        JSONArray blocks = result.getJSONArray("Blocks");
+        List<JSONObject> lines = new ArrayList<>(blocks != null ? blocks.size() : 0);
+        if (blocks != null) {
+            for (int i = 0; i < blocks.size(); i++) {
+                JSONObject block = blocks.getJSONObject(i);
+                if ("LINE".equals(block.getString("BlockType"))) {
+                    lines.add(block);
+                }
+            }
+        }
+        return lines;
+    }
+    
+    /**
+     * Textract的位置为相对图片宽高的比例，需要图片像素尺寸换算；无法读取尺寸（如PDF）时不返回位置
+     */
+    private OcrRecognitionResponse parseBlocks(List<JSONObject> lines, int[] imageSize, long duration) {
+        StringBuilder textBuilder = new StringBuilder(lines.size() * 16);
+        List<OcrRecognitionResponse.OcrTextBlock> textBlocks = new ArrayList<>(lines.size());
+        double confidenceSum = 0D;
         
-        try {
-            // 模拟AWS Textract通用文字识别
-            OcrRecognitionResponse response = createMockResponse(
-                "AWS通用文字识别结果\n这是一段示例文本\n用于演示AWS OCR功能",
-                System.currentTimeMillis() - startTime
-            );
+        for (JSONObject line : lines) {
+            String text = line.getString("Text");
+            if (text == null) {
+                continue;
+            }
+            if (textBuilder.length() > 0) {
+                textBuilder.append('\n');
+            }
+            textBuilder.append(text);
             
-            log.info("AWS OCR通用文字识别完成，耗时: {}ms", response.getDuration());
-            return response;
+            double confidence = line.getDoubleValue("Confidence") / 100D;
+            confidenceSum += confidence;
+            OcrRecognitionResponse.OcrTextBlock textBlock = new OcrRecognitionResponse.OcrTextBlock();
+            textBlock.setText(text);
+            textBlock.setConfidence(confidence);
             
+            JSONObject geometry = line.getJSONObject("Geometry");
+            JSONObject box = geometry != null ? geometry.getJSONObject("BoundingBox") : null;
+            if (imageSize != null && box != null) {
+                OcrRecognitionResponse.OcrTextBlock.Position position =
+                        new OcrRecognitionResponse.OcrTextBlock.Position();
+                position.setX((int) Math.round(box.getDoubleValue("Left") * imageSize[0]));
+                position.setY((int) Math.round(box.getDoubleValue("Top") * imageSize[1]));
+                position.setWidth((int) Math.round(box.getDoubleValue("Width") * imageSize[0]));
+                position.setHeight((int) Math.round(box.getDoubleValue("Height") * imageSize[1]));
+                textBlock.setPosition(position);
+            }
+            textBlocks.add(textBlock);
+        }
+        
+        OcrRecognitionResponse response = new OcrRecognitionResponse();
+        response.setText(textBuilder.toString());
+        response.setTextBlocks(textBlocks);
+        response.setDuration(duration);
+        response.setConfidence(textBlocks.isEmpty() ? 0D : confidenceSum / textBlocks.size());
+        return response;
+    }
+    
+    /**
+     * 只读取图片头获取宽高，不解码像素
+     */
+    private static int[] imageSize(byte[] imageBytes) {
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
         } catch (Exception e) {
-            log.error("AWS OCR通用文字识别失败", e);
-            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
+            return null;
         }
     }
     
+    private URI s3ObjectUri(String objectKey) {
+        if (StringUtils.hasText(s3Endpoint)) {
+            String base = s3Endpoint.endsWith("/") ? s3Endpoint : s3Endpoint + "/";
+            return URI.create(base + s3Bucket + "/" + objectKey);
+        }
+        return URI.create("https://" + s3Bucket + ".s3." + region + ".amazonaws.com/" + objectKey);
+    }
+    
+    private static boolean isMultiPageDocument(byte[] data) {
+        return isPdf(data) || isTiff(data);
+    }
+    
+    private static boolean isPdf(byte[] data) {
+        return data.length > 4 && data[0] == '%' && data[1] == 'P' && data[2] == 'D' && data[3] == 'F';
+    }
+    
+    private static boolean isTiff(byte[] data) {
+        return data.length > 4 && ((data[0] == 'I' && data[1] == 'I' && data[2] == 42 && data[3] == 0)
+                || (data[0] == 'M' && data[1] == 'M' && data[2] == 0 && data[3] == 42));
+    }
+    
     private OcrRecognitionResponse createMockResponse(String text, long duration) {
         OcrRecognitionResponse response = new OcrRecognitionResponse();
         response.setText(text);
@@ -164,4 +460,4 @@ public class AwsOcrStrategy implements OcrStrategy {
         response.setTextBlocks(textBlocks);
         return response;
     }
-}
\ No newline at end of file
+}
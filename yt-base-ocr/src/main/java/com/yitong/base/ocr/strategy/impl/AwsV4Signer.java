@@ -0,0 +1,136 @@
+package com.yitong.base.ocr.strategy.impl;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * AWS Signature Version 4签名
+ * <p>
+ * 只覆盖本模块用到的场景：无查询参数、路径不含需要转义的字符、请求体一次性给出。
+ */
+final class AwsV4Signer {
+    
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private final String accessKey;
+    
+    private final String secretKey;
+    
+    private final String sessionToken;
+    
+    private final String region;
+    
+    AwsV4Signer(String accessKey, String secretKey, String sessionToken, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.sessionToken = sessionToken;
+        this.region = region;
+    }
+    
+    /**
+     * 构建已签名的请求
+     *
+     * @param method HTTP方法
+     * @param uri 请求地址
+     * @param service 服务名，如textract、s3
+     * @param headers 需要签名的额外请求头
+     * @param body 请求体
+     * @return 请求构建器，调用方可继续设置超时等参数
+     */
+    HttpRequest.Builder sign(String method, URI uri, String service, Map<String, String> headers, byte[] body) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String amzDate = AMZ_DATE.format(now);
+        String dateStamp = amzDate.substring(0, 8);
+        String payloadHash = hex(sha256(body));
+        
+        Map<String, String> signedHeaders = new TreeMap<>();
+        headers.forEach((name, value) -> signedHeaders.put(name.toLowerCase(), value.trim()));
+        signedHeaders.put("host", hostHeader(uri));
+        signedHeaders.put("x-amz-content-sha256", payloadHash);
+        signedHeaders.put("x-amz-date", amzDate);
+        if (sessionToken != null && !sessionToken.isEmpty()) {
+            signedHeaders.put("x-amz-security-token", sessionToken);
+        }
+        
+        StringBuilder canonicalHeaders = new StringBuilder();
+        for (Map.Entry<String, String> entry : signedHeaders.entrySet()) {
+            canonicalHeaders.append(entry.getKey()).append(':').append(entry.getValue()).append('\n');
+        }
+        String signedHeaderNames = String.join(";", signedHeaders.keySet());
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        String canonicalRequest = method + "\n" + path + "\n\n" + canonicalHeaders + "\n" + signedHeaderNames + "\n"
+                + payloadHash;
+        
+        String scope = dateStamp + "/" + region + "/" + service + "/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n"
+                + hex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+        
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), dateStamp);
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, service);
+        signingKey = hmac(signingKey, "aws4_request");
+        String signature = hex(hmac(signingKey, stringToSign));
+        
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .method(method, body.length > 0 ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        // host由HttpClient根据地址自动设置，不能手动添加
+        signedHeaders.forEach((name, value) -> {
+            if (!"host".equals(name)) {
+                builder.header(name, value);
+            }
+        });
+        builder.header("Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaderNames + ", Signature=" + signature);
+        return builder;
+    }
+    
+    /**
+     * 与HttpClient发送的Host一致：默认端口不带端口号
+     */
+    private static String hostHeader(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1 || ("https".equalsIgnoreCase(uri.getScheme()) && port == 443)
+                || ("http".equalsIgnoreCase(uri.getScheme()) && port == 80);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+    
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256算法不可用", e);
+        }
+    }
+    
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256算法不可用", e);
+        }
+    }
+    
+    private static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -1,9 +1,11 @@
 package com.yitong.base.ocr.strategy.impl;
 
+import com.baidu.aip.error.AipError;
 import com.baidu.aip.ocr.AipOcr;
 import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
 import com.yitong.base.common.exception.BusinessException;
 import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.ocr.strategy.OcrProviderException;
 import com.yitong.base.ocr.strategy.OcrStrategy;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
@@ -15,6 +17,7 @@ import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 百度OCR策略实现
@@ -23,6 +26,18 @@ import java.util.List;
 @Component
 public class BaiduOcrStrategy implements OcrStrategy {
     
+    /**
+     * 结果中没有置信度时使用的默认值
+     */
+    private static final double DEFAULT_CONFIDENCE = 0.95;
+    
+    /**
+     * 由百度服务端或网络导致的错误码：未知错误、服务暂不可用、各类调用量限制、服务内部错误、SDK网络超时；
+     * 其余错误码（如216200-216202图片为空/格式错误/尺寸错误）由请求本身导致，不计入提供商故障
+     */
+    private static final Set<String> PROVIDER_ERROR_CODES = Set.of("1", "2", "4", "17", "18", "19", "282000",
+            AipError.NET_TIMEOUT_ERROR.getErrorCode(), AipError.ASYNC_TIMEOUT_ERROR.getErrorCode());
+    
     @Value("${ocr.baidu.app-id:}")
     private String appId;
     
@@ -32,6 +47,12 @@ public class BaiduOcrStrategy implements OcrStrategy {
     @Value("${ocr.baidu.secret-key:}")
     private String secretKey;
     
+    @Value("${ocr.baidu.connection-timeout-ms:2000}")
+    private int connectionTimeoutMs;
+    
+    @Value("${ocr.baidu.socket-timeout-ms:60000}")
+    private int socketTimeoutMs;
+    
     private AipOcr client;
     
     @Override
@@ -45,8 +66,8 @@ public class BaiduOcrStrategy implements OcrStrategy {
         if (appId != null && !appId.isEmpty() && apiKey != null && !apiKey.isEmpty()) {
             client = new AipOcr(appId, apiKey, secretKey);
             // 设置网络连接参数
-            client.setConnectionTimeoutInMillis(2000);
-            client.setSocketTimeoutInMillis(60000);
+            client.setConnectionTimeoutInMillis(connectionTimeoutMs);
+            client.setSocketTimeoutInMillis(socketTimeoutMs);
             log.info("百度OCR客户端初始化成功");
         } else {
             log.warn("百度OCR配置不完整，将使用模拟数据");
@@ -73,10 +94,12 @@ public class BaiduOcrStrategy implements OcrStrategy {
                 result = mockOcrResult("身份证识别结果");
             }
             
-            return parseOcrResult(result, System.currentTimeMillis() - startTime);
+            return parseOcrResult(result, System.currentTimeMillis() - startTime, true);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("百度OCR身份证识别失败", e);
-            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
+            throw new OcrProviderException("百度OCR调用失败：" + e.getMessage());
         }
     }
     
@@ -92,10 +115,12 @@ public class BaiduOcrStrategy implements OcrStrategy {
                 result = mockOcrResult("营业执照识别结果");
             }
             
-            return parseOcrResult(result, System.currentTimeMillis() - startTime);
+            return parseOcrResult(result, System.currentTimeMillis() - startTime, true);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("百度OCR营业执照识别失败", e);
-            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
+            throw new OcrProviderException("百度OCR调用失败：" + e.getMessage());
         }
     }
     
@@ -111,10 +136,12 @@ public class BaiduOcrStrategy implements OcrStrategy {
                 result = mockOcrResult("银行卡识别结果");
             }
             
-            return parseOcrResult(result, System.currentTimeMillis() - startTime);
+            return parseOcrResult(result, System.currentTimeMillis() - startTime, true);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("百度OCR银行卡识别失败", e);
-            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
+            throw new OcrProviderException("百度OCR调用失败：" + e.getMessage());
         }
     }
     
@@ -130,16 +157,19 @@ public class BaiduOcrStrategy implements OcrStrategy {
                 options.put("language_type", "CHN_ENG");
                 options.put("detect_direction", "true");
                 options.put("detect_language", "true");
-                options.put("vertexes_location", returnPosition ? "true" : "false");
+                options.put("vertexes_location", Boolean.TRUE.equals(returnPosition) ? "true" : "false");
                 result = client.basicGeneral(imageBytes, options);
             } else {
                 result = mockOcrResult("通用文字识别结果");
             }
             
-            return parseOcrResult(result, System.currentTimeMillis() - startTime);
+            return parseOcrResult(result, System.currentTimeMillis() - startTime,
+                    Boolean.TRUE.equals(returnPosition));
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("百度OCR通用文字识别失败", e);
-            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED);
+            throw new OcrProviderException("百度OCR调用失败：" + e.getMessage());
         }
     }
     
@@ -164,48 +194,108 @@ public class BaiduOcrStrategy implements OcrStrategy {
         return result;
     }
     
-    private OcrRecognitionResponse parseOcrResult(JSONObject result, long duration) {
-        OcrRecognitionResponse response = new OcrRecognitionResponse();
-        response.setDuration(duration);
-        
+    /**
+     * 一次遍历百度返回结果构建识别响应
+     * <p>
+     * words_result为数组（通用文字）或以字段名为键的对象（身份证、营业执照），银行卡结果位于result对象中。
+     * 不需要位置信息时不创建Position对象。
+     */
+    private OcrRecognitionResponse parseOcrResult(JSONObject result, long duration, boolean includePosition) {
         if (result.has("error_code")) {
-            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED.getCode(), 
-                    "百度OCR识别失败：" + result.optString("error_msg"));
+            String errorCode = String.valueOf(result.opt("error_code"));
+            String message = "百度OCR识别失败：" + errorCode + " " + result.optString("error_msg");
+            if (PROVIDER_ERROR_CODES.contains(errorCode)) {
+                throw new OcrProviderException(message);
+            }
+            throw new BusinessException(ResultCode.OCR_RECOGNITION_FAILED.getCode(), message);
         }
         
-        StringBuilder textBuilder = new StringBuilder();
-        List<OcrRecognitionResponse.OcrTextBlock> textBlocks = new ArrayList<>();
+        Object wordsResult = result.opt("words_result");
+        int count = wordsResult instanceof JSONArray ? ((JSONArray) wordsResult).length()
+                : wordsResult instanceof JSONObject ? ((JSONObject) wordsResult).length() : 0;
+        StringBuilder textBuilder = new StringBuilder(count * 16);
+        List<OcrRecognitionResponse.OcrTextBlock> textBlocks = new ArrayList<>(count);
         
-        if (result.has("words_result")) {
-            JSONArray wordsResult = result.getJSONArray("words_result");
-            for (int i = 0; i < wordsResult.length(); i++) {
-                JSONObject wordItem = wordsResult.getJSONObject(i);
-                String words = wordItem.optString("words");
-                textBuilder.append(words).append("\n");
-                
-                OcrRecognitionResponse.OcrTextBlock textBlock = new OcrRecognitionResponse.OcrTextBlock();
-                textBlock.setText(words);
-                textBlock.setConfidence(wordItem.optDouble("probability", 0.95));
-                
-                if (wordItem.has("location")) {
-                    JSONObject location = wordItem.getJSONObject("location");
-                    OcrRecognitionResponse.OcrTextBlock.Position position = 
-                            new OcrRecognitionResponse.OcrTextBlock.Position();
-                    position.setX(location.optInt("left"));
-                    position.setY(location.optInt("top"));
-                    position.setWidth(location.optInt("width"));
-                    position.setHeight(location.optInt("height"));
-                    textBlock.setPosition(position);
+        if (wordsResult instanceof JSONArray) {
+            JSONArray items = (JSONArray) wordsResult;
+            for (int i = 0; i < count; i++) {
+                addTextBlock(items.optJSONObject(i), includePosition, textBuilder, textBlocks);
+            }
+        } else if (wordsResult instanceof JSONObject) {
+            JSONObject items = (JSONObject) wordsResult;
+            for (String key : items.keySet()) {
+                addTextBlock(items.optJSONObject(key), includePosition, textBuilder, textBlocks);
+            }
+        } else {
+            JSONObject cardResult = result.optJSONObject("result");
+            if (cardResult != null) {
+                for (String key : cardResult.keySet()) {
+                    Object value = cardResult.opt(key);
+                    if (value instanceof String && !((String) value).isEmpty()) {
+                        appendText(textBuilder, textBlocks, (String) value, DEFAULT_CONFIDENCE);
+                    }
                 }
-                
-                textBlocks.add(textBlock);
             }
         }
         
-        response.setText(textBuilder.toString().trim());
+        OcrRecognitionResponse response = new OcrRecognitionResponse();
+        response.setDuration(duration);
+        response.setText(textBuilder.toString());
         response.setTextBlocks(textBlocks);
-        response.setConfidence(0.95);
-        
+        response.setConfidence(DEFAULT_CONFIDENCE);
         return response;
     }
-}
\ No newline at end of file
+    
+    private void addTextBlock(JSONObject item, boolean includePosition, StringBuilder textBuilder,
+                              List<OcrRecognitionResponse.OcrTextBlock> textBlocks) {
+        if (item == null) {
+            return;
+        }
+        Object words = item.opt("words");
+        if (!(words instanceof String)) {
+            return;
+        }
+        OcrRecognitionResponse.OcrTextBlock textBlock = appendText(textBuilder, textBlocks, (String) words,
+                probability(item.opt("probability")));
+        
+        if (includePosition) {
+            JSONObject location = item.optJSONObject("location");
+            if (location != null) {
+                OcrRecognitionResponse.OcrTextBlock.Position position = 
+                        new OcrRecognitionResponse.OcrTextBlock.Position();
+                position.setX(location.optInt("left"));
+                position.setY(location.optInt("top"));
+                position.setWidth(location.optInt("width"));
+                position.setHeight(location.optInt("height"));
+                textBlock.setPosition(position);
+            }
+        }
+    }
+    
+    private OcrRecognitionResponse.OcrTextBlock appendText(StringBuilder textBuilder,
+                                                           List<OcrRecognitionResponse.OcrTextBlock> textBlocks,
+                                                           String text, double confidence) {
+        if (textBuilder.length() > 0) {
+            textBuilder.append('\n');
+        }
+        textBuilder.append(text);
+        OcrRecognitionResponse.OcrTextBlock textBlock = new OcrRecognitionResponse.OcrTextBlock();
+        textBlock.setText(text);
+        textBlock.setConfidence(confidence);
+        textBlocks.add(textBlock);
+        return textBlock;
+    }
+    
+    /**
+     * probability为数值，或开启probability选项时为包含average的对象
+     */
+    private double probability(Object probability) {
+        if (probability instanceof Number) {
+            return ((Number) probability).doubleValue();
+        }
+        if (probability instanceof JSONObject) {
+            return ((JSONObject) probability).optDouble("average", DEFAULT_CONFIDENCE);
+        }
+        return DEFAULT_CONFIDENCE;
+    }
+}
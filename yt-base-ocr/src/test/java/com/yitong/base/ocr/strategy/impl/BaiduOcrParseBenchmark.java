@@ -0,0 +1,164 @@
+package com.yitong.base.ocr.strategy.impl;
+
+import com.yitong.base.api.ocr.dto.OcrRecognitionResponse;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * 百度OCR结果解析基准：比较一次遍历的解析与原先逐项取值、总是构建位置信息的解析
+ * <p>
+ * 按百度通用文字识别（带位置信息）的返回格式生成密集文本页，probability分别为数值和开启probability选项时的对象两种形式。
+ * SDK返回的已是解析好的JSONObject，因此只测量从JSONObject构建识别响应的耗时，不包含网络和JSON文本解析。
+ * <p>
+ * 运行方式：执行main方法，可选参数依次为预热轮数、测量轮数、每轮解析次数、每页文字行数，例如 {@code 5 10 200 3000}。
+ */
+public class BaiduOcrParseBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int warmupRounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int words = args.length > 3 ? Integer.parseInt(args[3]) : 3000;
+        
+        BaiduOcrStrategy strategy = new BaiduOcrStrategy();
+        Method parseOcrResult = BaiduOcrStrategy.class.getDeclaredMethod("parseOcrResult",
+                JSONObject.class, long.class, boolean.class);
+        parseOcrResult.setAccessible(true);
+        
+        for (boolean probabilityObject : new boolean[]{false, true}) {
+            JSONObject payload = generalTextPayload(words, probabilityObject);
+            System.out.printf("%d words, probability as %s%n", words, probabilityObject ? "object" : "number");
+            double legacy = measure("legacy", result -> checksum(legacyParse(result)),
+                    payload, warmupRounds, rounds, iterations);
+            double withPosition = measure("position", result -> checksum(invoke(parseOcrResult, strategy, result, true)),
+                    payload, warmupRounds, rounds, iterations);
+            double withoutPosition = measure("text-only", result -> checksum(invoke(parseOcrResult, strategy, result, false)),
+                    payload, warmupRounds, rounds, iterations);
+            System.out.printf("legacy / position = %.1fx, legacy / text-only = %.1fx%n",
+                    legacy / withPosition, legacy / withoutPosition);
+        }
+    }
+    
+    /**
+     * 生成通用文字识别结果，每行包含文字、位置和置信度
+     *
+     * @param probabilityObject probability是否为包含average的对象
+     */
+    private static JSONObject generalTextPayload(int words, boolean probabilityObject) {
+        JSONArray wordsResult = new JSONArray();
+        for (int i = 0; i < words; i++) {
+            JSONObject location = new JSONObject();
+            location.put("left", 40 + i % 7 * 120);
+            location.put("top", 30 + i * 24);
+            location.put("width", 600 - i % 11 * 20);
+            location.put("height", 22);
+            double average = 0.9 + i % 10 / 100.0;
+            JSONObject item = new JSONObject();
+            item.put("words", "第" + i + "行 识别文字内容示例 Invoice No. " + (100000 + i));
+            item.put("location", location);
+            if (probabilityObject) {
+                JSONObject probability = new JSONObject();
+                probability.put("average", average);
+                probability.put("min", average - 0.1);
+                probability.put("variance", 0.001);
+                item.put("probability", probability);
+            } else {
+                item.put("probability", average);
+            }
+            wordsResult.put(item);
+        }
+        JSONObject result = new JSONObject();
+        result.put("log_id", 1234567890123456789L);
+        result.put("words_result_num", words);
+        result.put("words_result", wordsResult);
+        return result;
+    }
+    
+    /**
+     * @return 每次解析的平均耗时（微秒）
+     */
+    private static double measure(String name, ToLongFunction<JSONObject> parse, JSONObject payload,
+                                  int warmupRounds, int rounds, int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < warmupRounds * iterations; i++) {
+            checksum += parse.applyAsLong(payload);
+        }
+        long elapsed = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            for (int j = 0; j < iterations; j++) {
+                checksum += parse.applyAsLong(payload);
+            }
+            elapsed += System.nanoTime() - start;
+        }
+        double micros = elapsed / 1000.0 / rounds / iterations;
+        System.out.printf("%-10s %10.2f us/parse (%d rounds x %d parses, checksum %d)%n",
+                name, micros, rounds, iterations, checksum);
+        return micros;
+    }
+    
+    private static OcrRecognitionResponse invoke(Method parseOcrResult, BaiduOcrStrategy strategy,
+                                                 JSONObject result, boolean includePosition) {
+        try {
+            return (OcrRecognitionResponse) parseOcrResult.invoke(strategy, result, 0L, includePosition);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * 汇总响应内容，防止解析被优化掉
+     */
+    private static long checksum(OcrRecognitionResponse response) {
+        return response.getText().length() + response.getTextBlocks().size();
+    }
+    
+    /**
+     * 优化前的解析实现，作为对照
+     */
+    private static OcrRecognitionResponse legacyParse(JSONObject result) {
+        OcrRecognitionResponse response = new OcrRecognitionResponse();
+        response.setDuration(0L);
+        
+        StringBuilder textBuilder = new StringBuilder();
+        List<OcrRecognitionResponse.OcrTextBlock> textBlocks = new ArrayList<>();
+        
+        if (result.has("words_result")) {
+            JSONArray wordsResult = result.getJSONArray("words_result");
+            for (int i = 0; i < wordsResult.length(); i++) {
+                JSONObject wordItem = wordsResult.getJSONObject(i);
+                String words = wordItem.optString("words");
+                textBuilder.append(words).append("\n");
+                
+                OcrRecognitionResponse.OcrTextBlock textBlock = new OcrRecognitionResponse.OcrTextBlock();
+                textBlock.setText(words);
+                textBlock.setConfidence(wordItem.optDouble("probability", 0.95));
+                
+                if (wordItem.has("location")) {
+                    JSONObject location = wordItem.getJSONObject("location");
+                    OcrRecognitionResponse.OcrTextBlock.Position position =
+                            new OcrRecognitionResponse.OcrTextBlock.Position();
+                    position.setX(location.optInt("left"));
+                    position.setY(location.optInt("top"));
+                    position.setWidth(location.optInt("width"));
+                    position.setHeight(location.optInt("height"));
+                    textBlock.setPosition(position);
+                }
+                
+                textBlocks.add(textBlock);
+            }
+        }
+        
+        response.setText(textBuilder.toString().trim());
+        response.setTextBlocks(textBlocks);
+        response.setConfidence(0.95);
+        
+        return response;
+    }
+}
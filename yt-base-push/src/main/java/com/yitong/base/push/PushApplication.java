@@ -3,12 +3,14 @@ package com.yitong.base.push;
 import org.apache.dubbo.config.spring.context.annotation.EnableDubbo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 推送服务启动类
  */
 @SpringBootApplication(scanBasePackages = "com.yitong.base")
 @EnableDubbo
+@EnableScheduling
 public class PushApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,253 @@
+package com.yitong.base.push.attachment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.yitong.base.api.push.dto.EmailSendRequest;
+import com.yitong.base.api.storage.dto.FileChunk;
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileUploadRequest;
+import com.yitong.base.api.storage.service.StorageService;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.dubbo.config.annotation.DubboReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 邮件附件存储，附件按存储服务文件ID引用
+ * <p>
+ * 同一附件只从存储服务读取一次，读取时直接编码为MIME Base64，之后所有收件人的邮件共享同一份编码结果，
+ * 发送时不再重复解码和编码。缓存按编码后字节数限制总量，超过内存阈值的附件写入临时文件。
+ * 缓存只按文件ID区分，附件类型由调用方在MIME部件上设置。
+ */
+@Slf4j
+@Component
+public class AttachmentStore {
+    
+    @DubboReference(check = false, timeout = 10000)
+    private StorageService storageService;
+    
+    @Value("${push.attachment.chunk-size:4194304}")
+    private int chunkSize;
+    
+    @Value("${push.attachment.max-bytes:20971520}")
+    private long maxBytes;
+    
+    @Value("${push.attachment.memory-threshold:1048576}")
+    private long memoryThreshold;
+    
+    @Value("${push.attachment.cache-max-bytes:268435456}")
+    private long cacheMaxBytes;
+    
+    @Value("${push.attachment.cache-expire-ms:600000}")
+    private long cacheExpireMs;
+    
+    @Value("${push.attachment.upload-path:email/attachments}")
+    private String uploadPath;
+    
+    @Value("${push.attachment.temp-dir:${java.io.tmpdir}/yt-push-attachments}")
+    private String tempDir;
+    
+    private Path tempPath;
+    
+    private Cache<String, SharedAttachment> cache;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        tempPath = Paths.get(tempDir);
+        // 清理上次运行遗留的临时文件
+        FileSystemUtils.deleteRecursively(tempPath);
+        Files.createDirectories(tempPath);
+        
+        cache = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String fileId, SharedAttachment attachment) ->
+                        (int) Math.min(Integer.MAX_VALUE, attachment.getEncodedLength()))
+                .expireAfterAccess(cacheExpireMs, TimeUnit.MILLISECONDS)
+                // 同步释放缓存持有的引用，没有发送中的邮件时立即删除临时文件
+                .executor(Runnable::run)
+                .removalListener((String fileId, SharedAttachment attachment, RemovalCause cause) -> {
+                    if (attachment != null) {
+                        attachment.release();
+                    }
+                })
+                .build();
+    }
+    
+    @PreDestroy
+    public void destroy() throws IOException {
+        cache.invalidateAll();
+        cache.cleanUp();
+        FileSystemUtils.deleteRecursively(tempPath);
+    }
+    
+    /**
+     * 校验附件并返回文件信息，受理邮件时调用，避免无效附件进入发送队列
+     *
+     * @param fileId 文件ID
+     * @return 文件信息
+     */
+    public FileInfo check(String fileId) {
+        FileInfo fileInfo = storageService.getFileInfo(fileId);
+        if (fileInfo == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "附件不存在: " + fileId);
+        }
+        if (fileInfo.getFileSize() != null && fileInfo.getFileSize() > maxBytes) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(),
+                    "附件大小超过限制: " + maxBytes / 1024 / 1024 + "MB");
+        }
+        return fileInfo;
+    }
+    
+    /**
+     * 获取附件并持有一次引用，并发请求同一文件时只读取一次；
+     * 调用方在邮件发送结束后必须调用{@link SharedAttachment#release()}
+     *
+     * @param fileId 文件ID
+     * @return 共享的附件内容
+     */
+    public SharedAttachment acquire(String fileId) {
+        while (true) {
+            SharedAttachment attachment = get(fileId);
+            // 取到的附件恰好被淘汰并删除了临时文件时，缓存中已没有该附件，重新获取会重新加载
+            if (attachment.retain()) {
+                return attachment;
+            }
+        }
+    }
+    
+    private SharedAttachment get(String fileId) {
+        try {
+            return cache.get(fileId, this::load);
+        } catch (UncheckedIOException e) {
+            throw new BusinessException(ResultCode.FILE_DOWNLOAD_FAILED.getCode(),
+                    "读取附件失败: " + fileId + ", " + e.getCause().getMessage());
+        }
+    }
+    
+    /**
+     * 将Base64内联附件上传到存储服务，批量发送时所有收件人共享同一文件
+     *
+     * @param attachment 内联附件
+     * @return 存储服务文件ID
+     */
+    public String upload(EmailSendRequest.EmailAttachment attachment) {
+        // 按Base64长度估算原始大小，内容由存储服务流式解码并计算MD5去重
+        if ((long) attachment.getFileContent().length() / 4 * 3 > maxBytes) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(),
+                    "附件大小超过限制: " + maxBytes / 1024 / 1024 + "MB");
+        }
+        FileUploadRequest request = new FileUploadRequest();
+        request.setFileName(attachment.getFileName());
+        request.setFileContent(attachment.getFileContent());
+        request.setContentType(attachment.getContentType());
+        request.setFilePath(uploadPath);
+        request.setTags("email-attachment");
+        return storageService.uploadFile(request).getFileId();
+    }
+    
+    /**
+     * 删除上传的内联附件并移出缓存
+     *
+     * @param fileIds 存储服务文件ID
+     * @return 全部删除成功返回true
+     */
+    public boolean delete(List<String> fileIds) {
+        if (fileIds.isEmpty()) {
+            return true;
+        }
+        cache.invalidateAll(fileIds);
+        try {
+            if (Boolean.TRUE.equals(storageService.batchDeleteFiles(fileIds))) {
+                return true;
+            }
+            log.warn("删除内联附件失败: {}", fileIds);
+        } catch (Exception e) {
+            log.warn("删除内联附件失败: {}, {}", fileIds, e.getMessage());
+        }
+        return false;
+    }
+    
+    private SharedAttachment load(String fileId) {
+        long startTime = System.currentTimeMillis();
+        FileChunk first = storageService.downloadFileChunk(fileId, 0L, chunkSize);
+        long totalSize = first.getTotalSize() != null ? first.getTotalSize() : first.getLength();
+        if (totalSize > maxBytes) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(),
+                    "附件大小超过限制: " + maxBytes / 1024 / 1024 + "MB");
+        }
+        
+        Path file = null;
+        try {
+            ByteArrayOutputStream buffer = null;
+            OutputStream target;
+            if (totalSize <= memoryThreshold) {
+                buffer = new ByteArrayOutputStream((int) (totalSize * 4 / 3 + totalSize / 57 * 2 + 16));
+                target = buffer;
+            } else {
+                file = Files.createTempFile(tempPath, "attachment-", ".b64");
+                target = Files.newOutputStream(file);
+            }
+            long position = 0;
+            try (OutputStream encoder = Base64.getMimeEncoder().wrap(target)) {
+                FileChunk chunk = first;
+                while (true) {
+                    byte[] data = chunk.getData();
+                    if (data.length == 0 || position + data.length > totalSize) {
+                        break;
+                    }
+                    encoder.write(data);
+                    position += data.length;
+                    if (Boolean.TRUE.equals(chunk.getLast()) || position >= totalSize) {
+                        break;
+                    }
+                    chunk = storageService.downloadFileChunk(fileId, position, chunkSize);
+                }
+            }
+            if (position != totalSize) {
+                log.warn("读取附件不完整: {}, 期望: {}, 实际: {}", fileId, totalSize, position);
+                throw new BusinessException(ResultCode.FILE_DOWNLOAD_FAILED.getCode(), "读取附件不完整: " + fileId);
+            }
+            
+            SharedAttachment attachment = buffer != null
+                    ? SharedAttachment.inMemory(fileId, totalSize, buffer.toByteArray())
+                    : SharedAttachment.inFile(fileId, totalSize, file, Files.size(file));
+            log.debug("附件已缓存: {}, 大小: {}, {}, 耗时: {}ms", fileId, totalSize,
+                    buffer != null ? "内存" : "临时文件", System.currentTimeMillis() - startTime);
+            return attachment;
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除附件临时文件失败: {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.yitong.base.push.attachment;
+
+import jakarta.activation.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 已按MIME规范Base64编码的附件内容，供同一附件的所有邮件共享
+ * <p>
+ * 内容只读，较小的附件保存在内存，较大的附件保存在临时文件；
+ * 每次读取返回新的输入流，不复制底层数据。
+ * <p>
+ * 临时文件按引用计数释放：缓存持有一次引用，每封使用该附件的邮件从构建到发送结束持有一次引用，
+ * 缓存淘汰后仍在发送的邮件可以继续读取，最后一次释放时删除临时文件。
+ */
+@Slf4j
+public final class SharedAttachment implements DataSource {
+    
+    private static final String CONTENT_TYPE = "application/octet-stream";
+    
+    private final String fileId;
+    
+    private final long size;
+    
+    private final byte[] encoded;
+    
+    private final Path encodedFile;
+    
+    private final long encodedLength;
+    
+    private final AtomicInteger refs = new AtomicInteger(1);
+    
+    private SharedAttachment(String fileId, long size, byte[] encoded, Path encodedFile, long encodedLength) {
+        this.fileId = fileId;
+        this.size = size;
+        this.encoded = encoded;
+        this.encodedFile = encodedFile;
+        this.encodedLength = encodedLength;
+    }
+    
+    static SharedAttachment inMemory(String fileId, long size, byte[] encoded) {
+        return new SharedAttachment(fileId, size, encoded, null, encoded.length);
+    }
+    
+    static SharedAttachment inFile(String fileId, long size, Path encodedFile, long encodedLength) {
+        return new SharedAttachment(fileId, size, null, encodedFile, encodedLength);
+    }
+    
+    /**
+     * 原始文件大小（字节）
+     */
+    public long getSize() {
+        return size;
+    }
+    
+    /**
+     * 编码后占用的字节数
+     */
+    long getEncodedLength() {
+        return encodedLength;
+    }
+    
+    /**
+     * 增加一次引用
+     *
+     * @return 引用已全部释放（临时文件已删除）时返回false
+     */
+    boolean retain() {
+        while (true) {
+            int current = refs.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (refs.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * 释放一次引用，最后一次释放时删除临时文件
+     */
+    public void release() {
+        if (refs.decrementAndGet() != 0 || encodedFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(encodedFile);
+        } catch (IOException e) {
+            log.warn("删除附件临时文件失败: {}", encodedFile, e);
+        }
+    }
+    
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return encoded != null ? new ByteArrayInputStream(encoded) : Files.newInputStream(encodedFile);
+    }
+    
+    @Override
+    public OutputStream getOutputStream() {
+        throw new UnsupportedOperationException("附件内容只读");
+    }
+    
+    /**
+     * 同一文件可能以不同类型作为附件，实际类型由邮件在MIME部件上设置
+     */
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+    
+    @Override
+    public String getName() {
+        return fileId;
+    }
+}
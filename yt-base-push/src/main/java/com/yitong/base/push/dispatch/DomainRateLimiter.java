@@ -0,0 +1,78 @@
+package com.yitong.base.push.dispatch;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按收件人域名的令牌桶限流，避免短时间内向同一邮件服务商投递过多邮件被拒收
+ * <p>
+ * 桶容量等于每秒速率，即最多允许一秒的突发量。
+ */
+class DomainRateLimiter {
+    
+    private final double defaultRate;
+    
+    private final Map<String, Double> domainRates;
+    
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    
+    /**
+     * @param defaultRate 默认每秒发送数，小于等于0表示不限流
+     * @param domainRates 单独配置的域名速率
+     */
+    DomainRateLimiter(double defaultRate, Map<String, Double> domainRates) {
+        this.defaultRate = defaultRate;
+        this.domainRates = domainRates;
+    }
+    
+    /**
+     * 尝试获取一个发送令牌
+     *
+     * @param email 收件人邮箱
+     * @return 0表示获取成功，否则为需要等待的毫秒数
+     */
+    long tryAcquire(String email) {
+        String domain = domainOf(email);
+        double rate = domainRates.getOrDefault(domain, defaultRate);
+        if (rate <= 0) {
+            return 0;
+        }
+        return buckets.computeIfAbsent(domain, d -> new Bucket(rate)).tryAcquire();
+    }
+    
+    private static String domainOf(String email) {
+        int at = email.lastIndexOf('@');
+        return (at < 0 ? email : email.substring(at + 1)).trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class Bucket {
+        
+        private final double ratePerNano;
+        
+        private final double capacity;
+        
+        private double tokens;
+        
+        private long lastRefill;
+        
+        Bucket(double ratePerSecond) {
+            this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, ratePerSecond);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+        
+        synchronized long tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis((long) Math.ceil((1 - tokens) / ratePerNano)));
+        }
+    }
+}
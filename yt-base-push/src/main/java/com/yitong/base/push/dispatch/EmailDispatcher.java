@@ -0,0 +1,719 @@
+package com.yitong.base.push.dispatch;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import com.sun.mail.smtp.SMTPSenderFailedException;
+import com.yitong.base.api.push.dto.EmailSendRequest;
+import com.yitong.base.api.push.dto.PushResponse;
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.push.attachment.AttachmentStore;
+import com.yitong.base.push.attachment.SharedAttachment;
+import com.yitong.base.push.entity.EmailBatchAttachment;
+import com.yitong.base.push.entity.EmailSendRecord;
+import com.yitong.base.push.mapper.EmailBatchAttachmentMapper;
+import com.yitong.base.push.mapper.EmailSendRecordMapper;
+import com.yitong.base.push.template.BoundEmailTemplate;
+import com.yitong.base.push.template.EmailTemplateRenderer;
+import jakarta.activation.DataHandler;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.PreencodedMimeBodyPart;
+import jakarta.mail.util.ByteArrayDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 邮件异步发送调度
+ * <p>
+ * 发送请求先写入email_send_record（待发送）后立即返回，再由固定数量的发送线程取出发送。
+ * 每个发送线程持有一个长连接，连续发送多封邮件；失败的邮件按指数退避重试，超过最大重试次数后标记为发送失败。
+ * 记录通过条件更新领取并带租约，多实例部署或进程重启后未完成的记录由定时扫描重新领取。
+ * 邮件主题和内容在受理时渲染后入库；批量发送时每个收件人展开为一条独立记录，按收件人参数渲染，发送时按收件人域名限流。
+ * 批量发送的内联附件上传到存储服务，批次没有待发送记录后由定时任务删除。
+ */
+@Slf4j
+@Component
+public class EmailDispatcher {
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    @Value("${push.email.from:noreply@yitong.com}")
+    private String from;
+    
+    @Value("${push.email.workers:8}")
+    private int workers;
+    
+    @Value("${push.email.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${push.email.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${push.email.poll-batch-size:1000}")
+    private int pollBatchSize;
+    
+    @Value("${push.email.max-retries:5}")
+    private int maxRetries;
+    
+    @Value("${push.email.retry-initial-delay-ms:30000}")
+    private long retryInitialDelayMs;
+    
+    @Value("${push.email.retry-max-delay-ms:1800000}")
+    private long retryMaxDelayMs;
+    
+    @Value("${push.email.lease-ms:300000}")
+    private long leaseMs;
+    
+    @Value("${push.email.connection-idle-ms:60000}")
+    private long connectionIdleMs;
+    
+    @Value("${push.email.max-messages-per-connection:500}")
+    private int maxMessagesPerConnection;
+    
+    @Value("${push.email.batch-max-recipients:10000}")
+    private int batchMaxRecipients;
+    
+    @Value("${push.email.insert-chunk-size:500}")
+    private int insertChunkSize;
+    
+    /**
+     * 每个收件人域名的默认每秒发送数，小于等于0表示不限流
+     */
+    @Value("${push.email.domain-rate-per-second:10}")
+    private double domainRatePerSecond;
+    
+    /**
+     * 单独配置的域名速率，格式：qq.com:20,163.com:10
+     */
+    @Value("${push.email.domain-rate-limits:}")
+    private String domainRateLimits;
+    
+    /**
+     * 限流等待不超过该时长时发送线程原地等待，否则推迟到下次扫描
+     */
+    @Value("${push.email.max-rate-wait-ms:1000}")
+    private long maxRateWaitMs;
+    
+    /**
+     * 每次清理内联附件的最大批次数
+     */
+    @Value("${push.attachment.cleanup-batch-size:100}")
+    private int attachmentCleanupBatchSize;
+    
+    @Autowired
+    private EmailSendRecordMapper emailSendRecordMapper;
+    
+    @Autowired
+    private EmailBatchAttachmentMapper emailBatchAttachmentMapper;
+    
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private EmailTemplateRenderer templateRenderer;
+    
+    @Autowired
+    private AttachmentStore attachmentStore;
+    
+    private DomainRateLimiter domainRateLimiter;
+    
+    private BlockingQueue<Long> queue;
+    
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+    
+    private final List<Thread> workerThreads = new ArrayList<>();
+    
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        domainRateLimiter = new DomainRateLimiter(domainRatePerSecond, parseDomainRates(domainRateLimits));
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::workerLoop, "email-sender-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+    }
+    
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        for (Thread thread : workerThreads) {
+            thread.interrupt();
+        }
+        for (Thread thread : workerThreads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+    
+    /**
+     * 写入待发送邮件
+     *
+     * @param request 邮件发送请求
+     * @return 消息ID
+     */
+    public String enqueue(EmailSendRequest request) {
+        validateAddresses(request.getToEmails());
+        validateAddresses(request.getCcEmails());
+        validateAddresses(request.getBccEmails());
+        BoundEmailTemplate template = bindTemplate(request);
+        
+        EmailSendRecord record = new EmailSendRecord();
+        record.setMessageId(UUID.randomUUID().toString());
+        record.setToEmails(String.join(",", request.getToEmails()));
+        record.setCcEmails(CollectionUtils.isEmpty(request.getCcEmails()) ? null : String.join(",", request.getCcEmails()));
+        record.setBccEmails(CollectionUtils.isEmpty(request.getBccEmails()) ? null : String.join(",", request.getBccEmails()));
+        record.setSubject(template.renderSubject(request.getTemplateParams()));
+        record.setContent(template.renderContent(request.getTemplateParams()));
+        record.setIsHtml(template.isHtml());
+        record.setTemplateId(request.getTemplateId());
+        record.setAttachments(prepareAttachments(request.getAttachments(), null));
+        record.setSendStatus(EmailSendRecord.STATUS_PENDING);
+        record.setRetryCount(0);
+        record.setNextRetryTime(LocalDateTime.now());
+        emailSendRecordMapper.insert(record);
+        
+        offer(record.getId());
+        return record.getMessageId();
+    }
+    
+    /**
+     * 批量写入待发送邮件，每个收件人一条记录
+     *
+     * @param request 邮件发送请求，toEmails为收件人列表
+     * @return 受理结果，messageId为批次ID，failCount为无效地址数，pendingCount为待发送数
+     */
+    public PushResponse enqueueBatch(EmailSendRequest request) {
+        if (!CollectionUtils.isEmpty(request.getCcEmails()) || !CollectionUtils.isEmpty(request.getBccEmails())) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "批量发送不支持抄送和密送");
+        }
+        Set<String> recipients = new LinkedHashSet<>();
+        for (String email : request.getToEmails()) {
+            if (StringUtils.hasText(email)) {
+                recipients.add(email.trim());
+            }
+        }
+        if (recipients.size() > batchMaxRecipients) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(),
+                    "收件人数量超过上限: " + batchMaxRecipients);
+        }
+        
+        BoundEmailTemplate template = bindTemplate(request);
+        Map<String, Object> templateParams = request.getTemplateParams() != null ? request.getTemplateParams() : Map.of();
+        Map<String, Map<String, Object>> recipientParams = request.getRecipientParams() != null
+                ? request.getRecipientParams() : Map.of();
+        String batchId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        
+        List<EmailSendRecord> records = new ArrayList<>(recipients.size());
+        int invalidCount = 0;
+        for (String recipient : recipients) {
+            if (!isValidAddress(recipient)) {
+                invalidCount++;
+                continue;
+            }
+            Map<String, Object> params = templateParams;
+            Map<String, Object> personal = recipientParams.get(recipient);
+            if (!CollectionUtils.isEmpty(personal)) {
+                params = new HashMap<>(templateParams);
+                params.putAll(personal);
+            }
+            EmailSendRecord record = new EmailSendRecord();
+            record.setMessageId(UUID.randomUUID().toString());
+            record.setBatchId(batchId);
+            record.setToEmails(recipient);
+            record.setSubject(template.renderSubject(params));
+            record.setContent(template.renderContent(params));
+            record.setIsHtml(template.isHtml());
+            record.setTemplateId(request.getTemplateId());
+            record.setSendStatus(EmailSendRecord.STATUS_PENDING);
+            record.setRetryCount(0);
+            record.setNextRetryTime(now);
+            records.add(record);
+        }
+        
+        if (records.isEmpty()) {
+            PushResponse response = PushResponse.fail("没有有效的收件人");
+            response.setSuccessCount(0);
+            response.setFailCount(invalidCount);
+            response.setPendingCount(0);
+            return response;
+        }
+        
+        // 有有效收件人时才上传内联附件；附件登记与发送记录在同一事务写入，写入失败时立即删除
+        List<String> uploadedFileIds = new ArrayList<>();
+        String attachments = prepareAttachments(request.getAttachments(), uploadedFileIds);
+        records.forEach(record -> record.setAttachments(attachments));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (String fileId : uploadedFileIds) {
+                    EmailBatchAttachment batchAttachment = new EmailBatchAttachment();
+                    batchAttachment.setBatchId(batchId);
+                    batchAttachment.setFileId(fileId);
+                    emailBatchAttachmentMapper.insert(batchAttachment);
+                }
+                for (int from = 0; from < records.size(); from += insertChunkSize) {
+                    emailSendRecordMapper.insertBatch(records.subList(from, Math.min(records.size(), from + insertChunkSize)));
+                }
+            });
+        } catch (RuntimeException e) {
+            attachmentStore.delete(uploadedFileIds);
+            throw e;
+        }
+        List<EmailSendRecord> inserted = emailSendRecordMapper.selectList(new LambdaQueryWrapper<EmailSendRecord>()
+                .select(EmailSendRecord::getId)
+                .eq(EmailSendRecord::getBatchId, batchId));
+        for (EmailSendRecord record : inserted) {
+            if (!offer(record.getId())) {
+                break;
+            }
+        }
+        
+        PushResponse response = PushResponse.success(batchId);
+        response.setSuccessCount(0);
+        response.setFailCount(invalidCount);
+        response.setPendingCount(records.size());
+        return response;
+    }
+    
+    /**
+     * 统计批次发送结果
+     *
+     * @param batchId 批次ID
+     * @return 成功、失败及待发送数量
+     */
+    public PushResponse getBatchResult(String batchId) {
+        List<Map<String, Object>> rows = emailSendRecordMapper.countByStatus(batchId);
+        if (rows.isEmpty()) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "批次不存在: " + batchId);
+        }
+        int success = 0;
+        int failed = 0;
+        int pending = 0;
+        for (Map<String, Object> row : rows) {
+            int status = ((Number) row.get("sendStatus")).intValue();
+            int total = ((Number) row.get("total")).intValue();
+            if (status == EmailSendRecord.STATUS_SUCCESS) {
+                success += total;
+            } else if (status == EmailSendRecord.STATUS_FAILED) {
+                failed += total;
+            } else {
+                pending += total;
+            }
+        }
+        PushResponse response = PushResponse.success(batchId);
+        response.setSuccessCount(success);
+        response.setFailCount(failed);
+        response.setPendingCount(pending);
+        return response;
+    }
+    
+    /**
+     * 定时扫描到期的待发送记录，包括重试记录、队列满时未入队的记录以及租约过期的记录
+     */
+    @Scheduled(fixedDelayString = "${push.email.poll-interval-ms:5000}")
+    public void pollPending() {
+        try {
+            List<EmailSendRecord> records = emailSendRecordMapper.selectList(new LambdaQueryWrapper<EmailSendRecord>()
+                    .select(EmailSendRecord::getId)
+                    .eq(EmailSendRecord::getSendStatus, EmailSendRecord.STATUS_PENDING)
+                    .le(EmailSendRecord::getNextRetryTime, LocalDateTime.now())
+                    .orderByAsc(EmailSendRecord::getNextRetryTime)
+                    .last("LIMIT " + pollBatchSize));
+            for (EmailSendRecord record : records) {
+                if (!offer(record.getId())) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("扫描待发送邮件失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 定时删除已没有待发送记录的批次上传的内联附件，删除失败的下次重试
+     */
+    @Scheduled(fixedDelayString = "${push.attachment.cleanup-interval-ms:60000}")
+    public void cleanupBatchAttachments() {
+        try {
+            for (String batchId : emailBatchAttachmentMapper.selectFinishedBatchIds(attachmentCleanupBatchSize)) {
+                LambdaQueryWrapper<EmailBatchAttachment> query = new LambdaQueryWrapper<EmailBatchAttachment>()
+                        .eq(EmailBatchAttachment::getBatchId, batchId);
+                List<String> fileIds = emailBatchAttachmentMapper.selectList(query).stream()
+                        .map(EmailBatchAttachment::getFileId)
+                        .toList();
+                if (attachmentStore.delete(fileIds)) {
+                    emailBatchAttachmentMapper.delete(query);
+                    log.info("批次内联附件已删除, batchId: {}, 数量: {}", batchId, fileIds.size());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("清理批次内联附件失败: {}", e.getMessage());
+        }
+    }
+    
+    private boolean offer(Long id) {
+        if (!queuedIds.add(id)) {
+            return true;
+        }
+        if (queue.offer(id)) {
+            return true;
+        }
+        // 队列已满，记录已持久化，等待定时扫描
+        queuedIds.remove(id);
+        return false;
+    }
+    
+    private void workerLoop() {
+        try (SmtpConnection connection = new SmtpConnection(mailSender, connectionIdleMs, maxMessagesPerConnection)) {
+            List<Long> ids = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    Long first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        connection.closeIfIdle();
+                        continue;
+                    }
+                    ids.add(first);
+                    queue.drainTo(ids, batchSize - 1);
+                    ids.forEach(queuedIds::remove);
+                    sendBatch(ids, connection);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        break;
+                    }
+                } catch (Exception e) {
+                    log.error("邮件发送线程异常", e);
+                } finally {
+                    ids.clear();
+                }
+            }
+        }
+    }
+    
+    private void sendBatch(List<Long> ids, SmtpConnection connection) throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs));
+        List<Long> claimed = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (emailSendRecordMapper.claim(id, now, leaseUntil) == 1) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        
+        for (EmailSendRecord record : emailSendRecordMapper.selectBatchIds(claimed)) {
+            long waitMs = acquireRate(record);
+            if (waitMs > 0) {
+                defer(record, waitMs);
+                continue;
+            }
+            // 邮件持有共享附件的引用直到发送结束，期间附件被缓存淘汰也不会删除临时文件
+            List<SharedAttachment> sharedAttachments = new ArrayList<>();
+            try {
+                MimeMessage message;
+                try {
+                    message = buildMessage(record, sharedAttachments);
+                } catch (BusinessException | MessagingException e) {
+                    log.error("构建邮件失败, messageId: {}", record.getMessageId(), e);
+                    markFailed(record, e, true);
+                    continue;
+                } catch (Exception e) {
+                    // 读取附件等临时性错误，按重试处理
+                    log.warn("构建邮件失败, messageId: {}, 第{}次: {}", record.getMessageId(),
+                            record.getRetryCount() + 1, e.getMessage());
+                    markFailed(record, e, false);
+                    continue;
+                }
+                try {
+                    connection.send(message);
+                    markSent(record);
+                } catch (Exception e) {
+                    log.warn("邮件发送失败, messageId: {}, 第{}次: {}", record.getMessageId(),
+                            record.getRetryCount() + 1, e.getMessage());
+                    markFailed(record, e, isPermanent(e));
+                }
+            } finally {
+                sharedAttachments.forEach(SharedAttachment::release);
+            }
+        }
+    }
+    
+    /**
+     * 按首个收件人的域名限流，等待时间较短时原地等待
+     *
+     * @return 0表示可以发送，否则为需要推迟的毫秒数
+     */
+    private long acquireRate(EmailSendRecord record) throws InterruptedException {
+        String recipient = StringUtils.commaDelimitedListToStringArray(record.getToEmails())[0];
+        long waitMs = domainRateLimiter.tryAcquire(recipient);
+        while (waitMs > 0 && waitMs <= maxRateWaitMs) {
+            Thread.sleep(waitMs);
+            waitMs = domainRateLimiter.tryAcquire(recipient);
+        }
+        return waitMs;
+    }
+    
+    /**
+     * 推迟发送，不计入重试次数
+     */
+    private void defer(EmailSendRecord record, long delayMs) {
+        emailSendRecordMapper.update(null, new LambdaUpdateWrapper<EmailSendRecord>()
+                .set(EmailSendRecord::getNextRetryTime,
+                        LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delayMs)))
+                .eq(EmailSendRecord::getId, record.getId()));
+    }
+    
+    /**
+     * @param sharedAttachments 收集本邮件引用的共享附件，由调用方在发送结束后释放
+     */
+    private MimeMessage buildMessage(EmailSendRecord record, List<SharedAttachment> sharedAttachments)
+            throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        List<EmailSendRequest.EmailAttachment> attachments = StringUtils.hasText(record.getAttachments())
+                ? JSON.parseArray(record.getAttachments(), EmailSendRequest.EmailAttachment.class)
+                : List.of();
+        MimeMessageHelper helper = new MimeMessageHelper(message, !attachments.isEmpty(), "UTF-8");
+        helper.setFrom(from);
+        helper.setTo(StringUtils.commaDelimitedListToStringArray(record.getToEmails()));
+        if (StringUtils.hasText(record.getCcEmails())) {
+            helper.setCc(StringUtils.commaDelimitedListToStringArray(record.getCcEmails()));
+        }
+        if (StringUtils.hasText(record.getBccEmails())) {
+            helper.setBcc(StringUtils.commaDelimitedListToStringArray(record.getBccEmails()));
+        }
+        helper.setSubject(record.getSubject());
+        helper.setText(record.getContent(), Boolean.TRUE.equals(record.getIsHtml()));
+        for (EmailSendRequest.EmailAttachment attachment : attachments) {
+            String contentType = StringUtils.hasText(attachment.getContentType())
+                    ? attachment.getContentType() : "application/octet-stream";
+            if (StringUtils.hasText(attachment.getFileId())) {
+                // 共享已编码的附件内容，发送时原样写出，不再逐封编码；附件类型按本邮件的声明设置
+                SharedAttachment shared = attachmentStore.acquire(attachment.getFileId());
+                sharedAttachments.add(shared);
+                PreencodedMimeBodyPart part = new PreencodedMimeBodyPart("base64");
+                part.setDataHandler(new DataHandler(shared));
+                part.setHeader("Content-Type", contentType);
+                part.setDisposition(Part.ATTACHMENT);
+                part.setFileName(attachment.getFileName());
+                helper.getRootMimeMultipart().addBodyPart(part);
+            } else {
+                helper.addAttachment(attachment.getFileName(),
+                        new ByteArrayDataSource(Base64.getDecoder().decode(attachment.getFileContent()), contentType));
+            }
+        }
+        helper.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+    
+    private void markSent(EmailSendRecord record) {
+        emailSendRecordMapper.update(null, new LambdaUpdateWrapper<EmailSendRecord>()
+                .set(EmailSendRecord::getSendStatus, EmailSendRecord.STATUS_SUCCESS)
+                .set(EmailSendRecord::getSendTime, LocalDateTime.now())
+                .set(EmailSendRecord::getErrorMessage, null)
+                .eq(EmailSendRecord::getId, record.getId()));
+    }
+    
+    /**
+     * 发送失败：SMTP 5xx等永久性错误直接标记失败，其他错误按指数退避重试
+     */
+    private void markFailed(EmailSendRecord record, Exception error, boolean permanent) {
+        int retryCount = record.getRetryCount() != null ? record.getRetryCount() : 0;
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        
+        LambdaUpdateWrapper<EmailSendRecord> update = new LambdaUpdateWrapper<EmailSendRecord>()
+                .set(EmailSendRecord::getErrorMessage, message)
+                .eq(EmailSendRecord::getId, record.getId());
+        if (permanent || retryCount >= maxRetries) {
+            update.set(EmailSendRecord::getSendStatus, EmailSendRecord.STATUS_FAILED);
+            log.error("邮件发送失败，不再重试, messageId: {}, 重试次数: {}", record.getMessageId(), retryCount);
+        } else {
+            long delay = Math.min(retryMaxDelayMs, retryInitialDelayMs << Math.min(retryCount, 20));
+            update.set(EmailSendRecord::getRetryCount, retryCount + 1)
+                    .set(EmailSendRecord::getNextRetryTime,
+                            LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delay)));
+        }
+        emailSendRecordMapper.update(null, update);
+    }
+    
+    /**
+     * 校验附件并序列化：存储文件补全文件名和类型；批量发送时内联附件先上传到存储服务，记录中只保存文件ID
+     *
+     * @param uploadedFileIds 批量发送时收集上传的内联附件文件ID，单封发送时为null；校验失败时已上传的附件会被删除
+     * @return 附件JSON，无附件时返回null
+     */
+    private String prepareAttachments(List<EmailSendRequest.EmailAttachment> attachments, List<String> uploadedFileIds) {
+        if (CollectionUtils.isEmpty(attachments)) {
+            return null;
+        }
+        try {
+            return JSON.toJSONString(toRecordAttachments(attachments, uploadedFileIds));
+        } catch (RuntimeException e) {
+            if (uploadedFileIds != null) {
+                attachmentStore.delete(uploadedFileIds);
+            }
+            throw e;
+        }
+    }
+    
+    private List<EmailSendRequest.EmailAttachment> toRecordAttachments(List<EmailSendRequest.EmailAttachment> attachments,
+                                                                       List<String> uploadedFileIds) {
+        List<EmailSendRequest.EmailAttachment> prepared = new ArrayList<>(attachments.size());
+        for (EmailSendRequest.EmailAttachment attachment : attachments) {
+            EmailSendRequest.EmailAttachment item = new EmailSendRequest.EmailAttachment();
+            item.setFileName(attachment.getFileName());
+            item.setContentType(attachment.getContentType());
+            if (StringUtils.hasText(attachment.getFileId())) {
+                FileInfo fileInfo = attachmentStore.check(attachment.getFileId());
+                item.setFileId(attachment.getFileId());
+                if (!StringUtils.hasText(item.getFileName())) {
+                    item.setFileName(fileInfo.getFileName());
+                }
+                if (!StringUtils.hasText(item.getContentType())) {
+                    item.setContentType(fileInfo.getContentType());
+                }
+            } else if (StringUtils.hasText(attachment.getFileContent())) {
+                if (!StringUtils.hasText(attachment.getFileName())) {
+                    throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "附件名称不能为空");
+                }
+                if (uploadedFileIds != null) {
+                    item.setFileId(attachmentStore.upload(attachment));
+                    uploadedFileIds.add(item.getFileId());
+                } else {
+                    item.setFileContent(attachment.getFileContent());
+                }
+            } else {
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "附件内容不能为空");
+            }
+            prepared.add(item);
+        }
+        return prepared;
+    }
+    
+    /**
+     * 指定模板ID时使用已缓存的模板，否则以请求中的主题和内容作为占位符模板
+     */
+    private BoundEmailTemplate bindTemplate(EmailSendRequest request) {
+        if (StringUtils.hasText(request.getTemplateId())) {
+            return templateRenderer.bind(request.getTemplateId(), request.getSubject());
+        }
+        if (!StringUtils.hasText(request.getSubject()) || !StringUtils.hasText(request.getContent())) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "邮件主题和内容不能为空");
+        }
+        return templateRenderer.bindInline(request.getSubject(), request.getContent(),
+                Boolean.TRUE.equals(request.getIsHtml()));
+    }
+    
+    private void validateAddresses(List<String> addresses) {
+        if (CollectionUtils.isEmpty(addresses)) {
+            return;
+        }
+        for (String address : addresses) {
+            if (!isValidAddress(address)) {
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "邮箱地址格式错误: " + address);
+            }
+        }
+    }
+    
+    /**
+     * SMTP服务器以5xx拒绝时为永久性错误；4xx（如灰名单450/451）及没有响应码的错误均可重试，
+     * 多个收件人中任一为4xx时整封邮件按重试处理
+     */
+    private static boolean isPermanent(Exception error) {
+        if (!(error instanceof SendFailedException)) {
+            return false;
+        }
+        boolean rejected = false;
+        Exception current = error;
+        while (current != null) {
+            int code = smtpReturnCode(current);
+            if (code >= 400 && code < 500) {
+                return false;
+            }
+            rejected |= code >= 500;
+            current = current instanceof MessagingException ? ((MessagingException) current).getNextException() : null;
+        }
+        return rejected;
+    }
+    
+    private static int smtpReturnCode(Exception error) {
+        if (error instanceof SMTPAddressFailedException) {
+            return ((SMTPAddressFailedException) error).getReturnCode();
+        }
+        if (error instanceof SMTPSenderFailedException) {
+            return ((SMTPSenderFailedException) error).getReturnCode();
+        }
+        if (error instanceof SMTPSendFailedException) {
+            return ((SMTPSendFailedException) error).getReturnCode();
+        }
+        return -1;
+    }
+    
+    private static boolean isValidAddress(String address) {
+        try {
+            new InternetAddress(address, true).validate();
+            return true;
+        } catch (AddressException e) {
+            return false;
+        }
+    }
+    
+    private static Map<String, Double> parseDomainRates(String config) {
+        Map<String, Double> rates = new HashMap<>();
+        for (String entry : StringUtils.commaDelimitedListToStringArray(config)) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                log.warn("忽略无效的域名限流配置: {}", entry);
+                continue;
+            }
+            rates.put(parts[0].trim().toLowerCase(), Double.parseDouble(parts[1].trim()));
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,389 @@
+package com.yitong.base.push.dispatch;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.yitong.base.api.push.dto.PushResponse;
+import com.yitong.base.api.push.dto.SmsSendRequest;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.push.entity.SmsSendRecord;
+import com.yitong.base.push.factory.SmsStrategyFactory;
+import com.yitong.base.push.mapper.SmsSendRecordMapper;
+import com.yitong.base.push.strategy.SmsCallResult;
+import com.yitong.base.push.strategy.SmsStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 短信发送调度
+ * <p>
+ * 手机号按服务商单次调用上限分组（相同参数用群发接口，逐号参数用批量接口），各组在发送线程池中并发调用。
+ * 受理时所有手机号的待发送记录一次批量写入，分组完成后更新为发送结果。从受理开始计算的等待时间短于Dubbo调用超时，
+ * 超时的分组继续在后台完成，响应中计为待发送，可按批次ID查询最终结果。
+ * 服务重启时仍在发送的分组无法确认服务商是否已受理，为避免重复下发不再重发，超过stale-minutes仍为待发送的记录标记为失败。
+ */
+@Slf4j
+@Component
+public class SmsDispatcher {
+    
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^1[3-9]\\d{9}$");
+    
+    private static final int MAX_TEXT_LENGTH = 500;
+    
+    @Value("${push.sms.workers:16}")
+    private int workers;
+    
+    @Value("${push.sms.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${push.sms.timeout-ms:2000}")
+    private long timeoutMs;
+    
+    @Value("${push.sms.record-batch-size:1000}")
+    private int recordBatchSize;
+    
+    @Value("${push.sms.stale-minutes:10}")
+    private long staleMinutes;
+    
+    @Value("${aliyun.sms.sign-name:}")
+    private String defaultSignName;
+    
+    @Value("${aliyun.sms.template-code:}")
+    private String defaultTemplateCode;
+    
+    @Autowired
+    private SmsStrategyFactory smsStrategyFactory;
+    
+    @Autowired
+    private SmsSendRecordMapper smsSendRecordMapper;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sms-sender-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+    
+    /**
+     * 发送短信
+     *
+     * @param request 短信发送请求
+     * @return 发送结果，messageId为批次ID，成功、失败、待发送数量按手机号统计
+     */
+    public PushResponse send(SmsSendRequest request) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Set<String> phones = new LinkedHashSet<>();
+        for (String phone : request.getPhoneNumbers()) {
+            if (StringUtils.hasText(phone)) {
+                phones.add(phone.trim());
+            }
+        }
+        if (phones.isEmpty()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "手机号不能为空");
+        }
+        String templateCode = StringUtils.hasText(request.getTemplateId()) ? request.getTemplateId() : defaultTemplateCode;
+        if (!StringUtils.hasText(templateCode)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "短信模板不能为空");
+        }
+        
+        SmsStrategy strategy = smsStrategyFactory.getDefaultStrategy();
+        SendContext context = new SendContext(request, UUID.randomUUID().toString(), strategy,
+                StringUtils.hasText(request.getSignName()) ? request.getSignName() : defaultSignName, templateCode);
+        
+        List<String> valid = new ArrayList<>(phones.size());
+        List<String> invalid = new ArrayList<>();
+        for (String phone : phones) {
+            (PHONE_PATTERN.matcher(phone).matches() ? valid : invalid).add(phone);
+        }
+        List<SmsSendRecord> records = new ArrayList<>(phones.size());
+        addRecords(records, context, invalid, SmsCallResult.fail("INVALID_NUMBER", "手机号格式不正确"));
+        addRecords(records, context, valid, null);
+        insertRecords(context, records);
+        
+        int groupSize = context.personalized ? strategy.getMaxNumbersPerBatchCall() : strategy.getMaxNumbersPerCall();
+        List<List<String>> groups = new ArrayList<>();
+        List<CompletableFuture<SmsCallResult>> futures = new ArrayList<>();
+        for (int from = 0; from < valid.size(); from += groupSize) {
+            List<String> group = valid.subList(from, Math.min(valid.size(), from + groupSize));
+            CompletableFuture<SmsCallResult> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> sendGroup(context, group), executor);
+            } catch (RejectedExecutionException e) {
+                future = CompletableFuture.completedFuture(
+                        updateRecords(context, group, SmsCallResult.fail("REJECTED", "短信发送队列已满，请稍后重试")));
+            }
+            groups.add(group);
+            futures.add(future);
+        }
+        
+        try {
+            // 写入记录的耗时计入等待时间，保证整体响应不超过Dubbo调用超时
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("短信发送等待超时, batchId: {}, 未完成的分组将在后台继续发送", context.batchId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 分组内已处理异常，此处不会发生
+            log.error("短信发送异常, batchId: {}", context.batchId, e.getCause());
+        }
+        
+        int success = 0;
+        int failed = invalid.size();
+        int pending = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<SmsCallResult> future = futures.get(i);
+            int size = groups.get(i).size();
+            if (!future.isDone()) {
+                pending += size;
+            } else if (future.join().isSuccess()) {
+                success += size;
+            } else {
+                failed += size;
+            }
+        }
+        
+        PushResponse response = success > 0 || pending > 0
+                ? PushResponse.success(context.batchId) : PushResponse.fail("短信发送失败");
+        response.setMessageId(context.batchId);
+        response.setSuccessCount(success);
+        response.setFailCount(failed);
+        response.setPendingCount(pending);
+        return response;
+    }
+    
+    /**
+     * 统计批次发送结果
+     *
+     * @param batchId 批次ID
+     * @return 成功、失败及待发送数量
+     */
+    public PushResponse getBatchResult(String batchId) {
+        List<Map<String, Object>> rows = smsSendRecordMapper.countByStatus(batchId);
+        if (rows.isEmpty()) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "批次不存在: " + batchId);
+        }
+        int success = 0;
+        int failed = 0;
+        int pending = 0;
+        for (Map<String, Object> row : rows) {
+            int status = ((Number) row.get("sendStatus")).intValue();
+            int total = ((Number) row.get("total")).intValue();
+            if (status == SmsSendRecord.STATUS_SUCCESS) {
+                success += total;
+            } else if (status == SmsSendRecord.STATUS_FAILED) {
+                failed += total;
+            } else {
+                pending += total;
+            }
+        }
+        PushResponse response = PushResponse.success(batchId);
+        response.setSuccessCount(success);
+        response.setFailCount(failed);
+        response.setPendingCount(pending);
+        return response;
+    }
+    
+    /**
+     * 将超时仍为待发送的记录标记为失败；这些分组所在的服务已重启，服务商是否受理未知，不再重发
+     */
+    @Scheduled(fixedDelayString = "${push.sms.stale-check-interval-ms:60000}")
+    public void failStaleRecords() {
+        try {
+            int count = smsSendRecordMapper.update(null, new LambdaUpdateWrapper<SmsSendRecord>()
+                    .set(SmsSendRecord::getSendStatus, SmsSendRecord.STATUS_FAILED)
+                    .set(SmsSendRecord::getFailCount, 1)
+                    .set(SmsSendRecord::getErrorMessage, "STALE: 发送超时或服务已重启，发送结果未知")
+                    .eq(SmsSendRecord::getSendStatus, SmsSendRecord.STATUS_PENDING)
+                    .lt(SmsSendRecord::getCreateTime, LocalDateTime.now().minusMinutes(staleMinutes)));
+            if (count > 0) {
+                log.warn("标记超时短信记录为失败: {}", count);
+            }
+        } catch (Exception e) {
+            log.warn("检查超时短信记录失败: {}", e.getMessage());
+        }
+    }
+    
+    private SmsCallResult sendGroup(SendContext context, List<String> group) {
+        SmsCallResult result;
+        try {
+            if (context.personalized) {
+                List<String> paramJsons = new ArrayList<>(group.size());
+                for (String phone : group) {
+                    paramJsons.add(JSON.toJSONString(context.paramsFor(phone)));
+                }
+                result = context.strategy.sendBatch(group, context.signName, context.templateCode, paramJsons);
+            } else {
+                result = context.strategy.send(group, context.signName, context.templateCode,
+                        context.uniformParamJson, context.request.getContent());
+            }
+        } catch (Exception e) {
+            log.error("短信发送失败, batchId: {}, 号码数: {}", context.batchId, group.size(), e);
+            result = SmsCallResult.fail("ERROR", e.getMessage());
+        }
+        return updateRecords(context, group, result);
+    }
+    
+    /**
+     * 按手机号构建发送记录，result为null时为待发送记录
+     */
+    private void addRecords(List<SmsSendRecord> records, SendContext context, List<String> phones,
+                            SmsCallResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        for (String phone : phones) {
+            SmsSendRecord record = new SmsSendRecord();
+            record.setMessageId(messageId(context, phone));
+            record.setBatchId(context.batchId);
+            record.setPhoneNumbers(phone);
+            record.setContent(truncate(context.request.getContent() != null ? context.request.getContent() : ""));
+            record.setTemplateId(context.templateCode);
+            record.setSmsType(context.request.getSmsType());
+            record.setProvider(context.strategy.getStrategyName());
+            if (result == null) {
+                record.setSendStatus(SmsSendRecord.STATUS_PENDING);
+                record.setSuccessCount(0);
+                record.setFailCount(0);
+            } else {
+                record.setBizId(result.getBizId());
+                record.setSendStatus(result.isSuccess() ? SmsSendRecord.STATUS_SUCCESS : SmsSendRecord.STATUS_FAILED);
+                record.setSuccessCount(result.isSuccess() ? 1 : 0);
+                record.setFailCount(result.isSuccess() ? 0 : 1);
+                record.setErrorMessage(errorMessage(result));
+                record.setSendTime(now);
+            }
+            records.add(record);
+        }
+    }
+    
+    /**
+     * 多行写入整批发送记录，写入失败不影响发送结果
+     */
+    private void insertRecords(SendContext context, List<SmsSendRecord> records) {
+        for (int from = 0; from < records.size(); from += recordBatchSize) {
+            List<SmsSendRecord> batch = records.subList(from, Math.min(records.size(), from + recordBatchSize));
+            try {
+                smsSendRecordMapper.insertBatch(batch);
+            } catch (Exception e) {
+                log.error("写入短信发送记录失败, batchId: {}, 号码数: {}", context.batchId, batch.size(), e);
+            }
+        }
+    }
+    
+    /**
+     * 将分组的待发送记录更新为发送结果，更新失败不影响发送结果
+     */
+    private SmsCallResult updateRecords(SendContext context, List<String> phones, SmsCallResult result) {
+        List<String> messageIds = new ArrayList<>(phones.size());
+        for (String phone : phones) {
+            messageIds.add(messageId(context, phone));
+        }
+        try {
+            smsSendRecordMapper.update(null, new LambdaUpdateWrapper<SmsSendRecord>()
+                    .set(SmsSendRecord::getBizId, result.getBizId())
+                    .set(SmsSendRecord::getSendStatus,
+                            result.isSuccess() ? SmsSendRecord.STATUS_SUCCESS : SmsSendRecord.STATUS_FAILED)
+                    .set(SmsSendRecord::getSuccessCount, result.isSuccess() ? 1 : 0)
+                    .set(SmsSendRecord::getFailCount, result.isSuccess() ? 0 : 1)
+                    .set(SmsSendRecord::getErrorMessage, errorMessage(result))
+                    .set(SmsSendRecord::getSendTime, LocalDateTime.now())
+                    .in(SmsSendRecord::getMessageId, messageIds));
+        } catch (Exception e) {
+            log.error("更新短信发送记录失败, batchId: {}, 号码数: {}", context.batchId, phones.size(), e);
+        }
+        return result;
+    }
+    
+    private static String messageId(SendContext context, String phone) {
+        return context.batchId + "-" + phone;
+    }
+    
+    private static String errorMessage(SmsCallResult result) {
+        return result.isSuccess() ? null : truncate(result.getCode() + ": " + result.getMessage());
+    }
+    
+    private static String truncate(String text) {
+        return text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+    }
+    
+    /**
+     * 单次发送请求在各分组间共享的参数
+     */
+    private static final class SendContext {
+        
+        private final SmsSendRequest request;
+        
+        private final String batchId;
+        
+        private final SmsStrategy strategy;
+        
+        private final String signName;
+        
+        private final String templateCode;
+        
+        private final boolean personalized;
+        
+        private final String uniformParamJson;
+        
+        private SendContext(SmsSendRequest request, String batchId, SmsStrategy strategy, String signName,
+                            String templateCode) {
+            this.request = request;
+            this.batchId = batchId;
+            this.strategy = strategy;
+            this.signName = signName;
+            this.templateCode = templateCode;
+            this.personalized = !CollectionUtils.isEmpty(request.getPhoneParams());
+            this.uniformParamJson = CollectionUtils.isEmpty(request.getTemplateParams())
+                    ? null : JSON.toJSONString(request.getTemplateParams());
+        }
+        
+        private Map<String, Object> paramsFor(String phone) {
+            Map<String, Object> personal = request.getPhoneParams().get(phone);
+            if (CollectionUtils.isEmpty(personal)) {
+                return request.getTemplateParams() != null ? request.getTemplateParams() : Map.of();
+            }
+            Map<String, Object> params = request.getTemplateParams() != null
+                    ? new HashMap<>(request.getTemplateParams()) : new HashMap<>();
+            params.putAll(personal);
+            return params;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.yitong.base.push.dispatch;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.Closeable;
+
+/**
+ * 单个发送线程独占的SMTP连接
+ * <p>
+ * 连接建立后连续发送多封邮件，空闲超过idleMs或发送数达到maxMessages后重建；
+ * 复用的连接已被服务端关闭时自动重连并重发一次。
+ */
+@Slf4j
+class SmtpConnection implements Closeable {
+    
+    private final JavaMailSenderImpl mailSender;
+    
+    private final long idleMs;
+    
+    private final int maxMessages;
+    
+    private Transport transport;
+    
+    private long lastUsed;
+    
+    private int sentCount;
+    
+    SmtpConnection(JavaMailSenderImpl mailSender, long idleMs, int maxMessages) {
+        this.mailSender = mailSender;
+        this.idleMs = idleMs;
+        this.maxMessages = maxMessages;
+    }
+    
+    /**
+     * 发送邮件
+     *
+     * @param message 邮件
+     * @throws MessagingException 发送失败，SendFailedException表示收件人被拒绝
+     */
+    void send(MimeMessage message) throws MessagingException {
+        boolean reused = transport != null && !expired();
+        if (!reused) {
+            connect();
+        }
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (SendFailedException e) {
+            throw e;
+        } catch (MessagingException e) {
+            close();
+            if (!reused) {
+                throw e;
+            }
+            log.debug("SMTP连接已失效，重新连接: {}", e.getMessage());
+            connect();
+            transport.sendMessage(message, message.getAllRecipients());
+        }
+        lastUsed = System.currentTimeMillis();
+        sentCount++;
+    }
+    
+    /**
+     * 空闲超时时关闭连接，避免长期占用服务端连接
+     */
+    void closeIfIdle() {
+        if (transport != null && System.currentTimeMillis() - lastUsed > idleMs) {
+            close();
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("关闭SMTP连接失败: {}", e.getMessage());
+        }
+        transport = null;
+    }
+    
+    private boolean expired() {
+        return sentCount >= maxMessages || System.currentTimeMillis() - lastUsed > idleMs;
+    }
+    
+    private void connect() throws MessagingException {
+        close();
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp";
+        Transport newTransport = mailSender.getSession().getTransport(protocol);
+        newTransport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(),
+                mailSender.getPassword());
+        transport = newTransport;
+        lastUsed = System.currentTimeMillis();
+        sentCount = 0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.yitong.base.push.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邮件批次内联附件实体，对应email_batch_attachment表
+ * <p>
+ * 记录批量发送时上传到存储服务的内联附件，批次没有待发送记录后删除附件文件和本记录。
+ */
+@Data
+@TableName("email_batch_attachment")
+public class EmailBatchAttachment {
+    
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * 批次ID
+     */
+    private String batchId;
+    
+    /**
+     * 存储服务文件ID
+     */
+    private String fileId;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,129 @@
+package com.yitong.base.push.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邮件发送记录实体，对应email_send_record表，同时作为待发送邮件的持久化队列
+ */
+@Data
+@TableName("email_send_record")
+public class EmailSendRecord {
+    
+    /**
+     * 待发送
+     */
+    public static final int STATUS_PENDING = 0;
+    
+    /**
+     * 发送成功
+     */
+    public static final int STATUS_SUCCESS = 1;
+    
+    /**
+     * 发送失败
+     */
+    public static final int STATUS_FAILED = 2;
+    
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * 消息ID
+     */
+    private String messageId;
+    
+    /**
+     * 批次ID，批量发送时同一批次的记录相同
+     */
+    private String batchId;
+    
+    /**
+     * 收件人邮箱列表，逗号分隔
+     */
+    private String toEmails;
+    
+    /**
+     * 抄送邮箱列表，逗号分隔
+     */
+    private String ccEmails;
+    
+    /**
+     * 密送邮箱列表，逗号分隔
+     */
+    private String bccEmails;
+    
+    /**
+     * 邮件主题
+     */
+    private String subject;
+    
+    /**
+     * 邮件内容
+     */
+    private String content;
+    
+    /**
+     * 是否HTML格式
+     */
+    private Boolean isHtml;
+    
+    /**
+     * 模板ID
+     */
+    private String templateId;
+    
+    /**
+     * 附件列表（JSON）
+     */
+    private String attachments;
+    
+    /**
+     * 发送状态：0-待发送，1-发送成功，2-发送失败
+     */
+    private Integer sendStatus;
+    
+    /**
+     * 已重试次数
+     */
+    private Integer retryCount;
+    
+    /**
+     * 下次发送时间，发送中的记录为租约到期时间
+     */
+    private LocalDateTime nextRetryTime;
+    
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+    
+    /**
+     * 发送时间
+     */
+    private LocalDateTime sendTime;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+    
+    /**
+     * 删除标记：0-未删除，1-已删除
+     */
+    @TableLogic
+    private Integer deleted;
+}
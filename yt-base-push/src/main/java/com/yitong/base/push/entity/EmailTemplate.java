@@ -0,0 +1,64 @@
+package com.yitong.base.push.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邮件模板实体，对应email_template表
+ */
+@Data
+@TableName("email_template")
+public class EmailTemplate {
+    
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * 模板ID
+     */
+    private String templateId;
+    
+    /**
+     * 模板名称
+     */
+    private String templateName;
+    
+    /**
+     * 邮件主题模板（Thymeleaf TEXT模式），为空时使用请求中的主题
+     */
+    private String subject;
+    
+    /**
+     * 邮件内容模板（Thymeleaf HTML或TEXT模式）
+     */
+    private String content;
+    
+    /**
+     * 是否HTML格式
+     */
+    private Boolean isHtml;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+    
+    /**
+     * 删除标记：0-未删除，1-已删除
+     */
+    @TableLogic
+    private Integer deleted;
+}
@@ -0,0 +1,119 @@
+package com.yitong.base.push.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 短信发送记录实体，对应sms_send_record表，每个手机号一条记录
+ */
+@Data
+@TableName("sms_send_record")
+public class SmsSendRecord {
+    
+    /**
+     * 待发送
+     */
+    public static final int STATUS_PENDING = 0;
+    
+    /**
+     * 发送成功（服务商已受理）
+     */
+    public static final int STATUS_SUCCESS = 1;
+    
+    /**
+     * 发送失败
+     */
+    public static final int STATUS_FAILED = 2;
+    
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * 消息ID
+     */
+    private String messageId;
+    
+    /**
+     * 批次ID，同一次发送请求的记录相同
+     */
+    private String batchId;
+    
+    /**
+     * 手机号
+     */
+    private String phoneNumbers;
+    
+    /**
+     * 短信内容
+     */
+    private String content;
+    
+    /**
+     * 模板ID
+     */
+    private String templateId;
+    
+    /**
+     * 短信类型：1-验证码，2-通知，3-营销
+     */
+    private Integer smsType;
+    
+    /**
+     * 短信服务提供商
+     */
+    private String provider;
+    
+    /**
+     * 服务商回执ID
+     */
+    private String bizId;
+    
+    /**
+     * 发送状态：0-待发送，1-发送成功，2-发送失败
+     */
+    private Integer sendStatus;
+    
+    /**
+     * 成功数量
+     */
+    private Integer successCount;
+    
+    /**
+     * 失败数量
+     */
+    private Integer failCount;
+    
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+    
+    /**
+     * 发送时间
+     */
+    private LocalDateTime sendTime;
+    
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+    
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+    
+    /**
+     * 删除标记：0-未删除，1-已删除
+     */
+    @TableLogic
+    private Integer deleted;
+}
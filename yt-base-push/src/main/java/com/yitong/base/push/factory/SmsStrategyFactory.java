@@ -0,0 +1,61 @@
+package com.yitong.base.push.factory;
+
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.push.strategy.SmsStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 短信策略工厂
+ * 负责根据配置选择短信服务提供商
+ */
+@Slf4j
+@Component
+public class SmsStrategyFactory {
+    
+    @Value("${push.sms.provider:aliyun}")
+    private String defaultProvider;
+    
+    @Autowired
+    private List<SmsStrategy> smsStrategies;
+    
+    private final Map<String, SmsStrategy> strategyMap = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        for (SmsStrategy strategy : smsStrategies) {
+            strategyMap.put(strategy.getStrategyName(), strategy);
+            log.info("注册短信策略: {}, 可用状态: {}", strategy.getStrategyName(), strategy.isAvailable());
+        }
+        
+        if (!strategyMap.containsKey(defaultProvider)) {
+            log.warn("默认短信提供商 '{}' 不存在，可用提供商: {}", defaultProvider, strategyMap.keySet());
+        } else {
+            log.info("默认短信提供商设置为: {}", defaultProvider);
+        }
+    }
+    
+    /**
+     * 获取默认短信策略，默认提供商不可用时不自动切换到本地策略，避免短信被静默丢弃
+     * @return 短信策略实例
+     */
+    public SmsStrategy getDefaultStrategy() {
+        SmsStrategy strategy = strategyMap.get(defaultProvider);
+        if (strategy == null) {
+            throw new BusinessException(ResultCode.SMS_SEND_FAILED.getCode(), "不支持的短信提供商: " + defaultProvider);
+        }
+        if (!strategy.isAvailable()) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(),
+                    "短信服务提供商不可用: " + defaultProvider);
+        }
+        return strategy;
+    }
+}
@@ -0,0 +1,27 @@
+package com.yitong.base.push.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yitong.base.push.entity.EmailBatchAttachment;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 邮件批次内联附件Mapper
+ */
+@Mapper
+public interface EmailBatchAttachmentMapper extends BaseMapper<EmailBatchAttachment> {
+    
+    /**
+     * 查询已没有待发送记录的批次
+     *
+     * @param limit 最多返回的批次数
+     * @return 批次ID
+     */
+    @Select("SELECT DISTINCT a.batch_id FROM email_batch_attachment a WHERE NOT EXISTS ("
+            + "SELECT 1 FROM email_send_record r WHERE r.batch_id = a.batch_id AND r.send_status = 0 AND r.deleted = 0) "
+            + "LIMIT #{limit}")
+    List<String> selectFinishedBatchIds(@Param("limit") int limit);
+}
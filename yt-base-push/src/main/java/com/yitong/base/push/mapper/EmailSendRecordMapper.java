@@ -0,0 +1,58 @@
+package com.yitong.base.push.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yitong.base.push.entity.EmailSendRecord;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 邮件发送记录Mapper
+ */
+@Mapper
+public interface EmailSendRecordMapper extends BaseMapper<EmailSendRecord> {
+    
+    /**
+     * 领取待发送记录：把下次发送时间推后到租约到期时间，多个实例同时领取时只有一个成功
+     *
+     * @param id 记录ID
+     * @param now 当前时间
+     * @param leaseUntil 租约到期时间，到期未完成的记录会被重新领取
+     * @return 领取成功返回1
+     */
+    @Update("UPDATE email_send_record SET next_retry_time = #{leaseUntil} "
+            + "WHERE id = #{id} AND send_status = 0 AND next_retry_time <= #{now} AND deleted = 0")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    /**
+     * 多行批量插入待发送记录
+     *
+     * @param records 发送记录
+     * @return 插入行数
+     */
+    @Insert({"<script>",
+            "INSERT INTO email_send_record (message_id, batch_id, to_emails, subject, content, is_html, template_id,",
+            " attachments, send_status, retry_count, next_retry_time) VALUES",
+            "<foreach collection='records' item='r' separator=','>",
+            "(#{r.messageId}, #{r.batchId}, #{r.toEmails}, #{r.subject}, #{r.content}, #{r.isHtml}, #{r.templateId},",
+            " #{r.attachments}, #{r.sendStatus}, #{r.retryCount}, #{r.nextRetryTime})",
+            "</foreach>",
+            "</script>"})
+    int insertBatch(@Param("records") List<EmailSendRecord> records);
+    
+    /**
+     * 按发送状态统计批次内的记录数
+     *
+     * @param batchId 批次ID
+     * @return send_status与数量
+     */
+    @Select("SELECT send_status AS sendStatus, COUNT(*) AS total FROM email_send_record "
+            + "WHERE batch_id = #{batchId} AND deleted = 0 GROUP BY send_status")
+    List<Map<String, Object>> countByStatus(@Param("batchId") String batchId);
+}
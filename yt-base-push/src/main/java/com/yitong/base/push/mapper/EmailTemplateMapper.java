@@ -0,0 +1,12 @@
+package com.yitong.base.push.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yitong.base.push.entity.EmailTemplate;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 邮件模板Mapper
+ */
+@Mapper
+public interface EmailTemplateMapper extends BaseMapper<EmailTemplate> {
+}
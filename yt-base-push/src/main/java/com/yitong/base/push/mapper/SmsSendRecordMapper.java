@@ -0,0 +1,44 @@
+package com.yitong.base.push.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yitong.base.push.entity.SmsSendRecord;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 短信发送记录Mapper
+ */
+@Mapper
+public interface SmsSendRecordMapper extends BaseMapper<SmsSendRecord> {
+    
+    /**
+     * 多行批量插入发送记录
+     *
+     * @param records 发送记录
+     * @return 插入行数
+     */
+    @Insert({"<script>",
+            "INSERT INTO sms_send_record (message_id, batch_id, phone_numbers, content, template_id, sms_type, provider,",
+            " biz_id, send_status, success_count, fail_count, error_message, send_time) VALUES",
+            "<foreach collection='records' item='r' separator=','>",
+            "(#{r.messageId}, #{r.batchId}, #{r.phoneNumbers}, #{r.content}, #{r.templateId}, #{r.smsType}, #{r.provider},",
+            " #{r.bizId}, #{r.sendStatus}, #{r.successCount}, #{r.failCount}, #{r.errorMessage}, #{r.sendTime})",
+            "</foreach>",
+            "</script>"})
+    int insertBatch(@Param("records") List<SmsSendRecord> records);
+    
+    /**
+     * 按发送状态统计批次内的记录数
+     *
+     * @param batchId 批次ID
+     * @return send_status与数量
+     */
+    @Select("SELECT send_status AS sendStatus, COUNT(*) AS total FROM sms_send_record "
+            + "WHERE batch_id = #{batchId} AND deleted = 0 GROUP BY send_status")
+    List<Map<String, Object>> countByStatus(@Param("batchId") String batchId);
+}
@@ -1,23 +1,25 @@
 package com.yitong.base.push.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.yitong.base.api.push.dto.EmailSendRequest;
+import com.yitong.base.api.push.dto.EmailTemplateRequest;
 import com.yitong.base.api.push.dto.PushResponse;
 import com.yitong.base.api.push.dto.SmsSendRequest;
 import com.yitong.base.api.push.service.PushService;
 import com.yitong.base.common.exception.BusinessException;
 import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.push.dispatch.EmailDispatcher;
+import com.yitong.base.push.dispatch.SmsDispatcher;
+import com.yitong.base.push.entity.EmailTemplate;
+import com.yitong.base.push.mapper.EmailTemplateMapper;
+import com.yitong.base.push.template.EmailTemplateRenderer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboService;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
-import jakarta.mail.internet.MimeMessage;
-import java.util.UUID;
-
 /**
  * 推送服务实现类
  */
@@ -27,72 +29,28 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class PushServiceImpl implements PushService {
     
-    private final JavaMailSender mailSender;
+    private final EmailDispatcher emailDispatcher;
+    
+    private final EmailTemplateMapper emailTemplateMapper;
+    
+    private final EmailTemplateRenderer emailTemplateRenderer;
+    
+    private final SmsDispatcher smsDispatcher;
+    
+    @Value("${aliyun.sms.verification-template-code:}")
+    private String verificationTemplateCode;
     
     @Override
     public PushResponse sendEmail(EmailSendRequest request) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            // 设置发件人
-            helper.setFrom("noreply@yitong.com");
-            
-            // 设置收件人
-            if (!CollectionUtils.isEmpty(request.getToEmails())) {
-                helper.setTo(request.getToEmails().toArray(new String[0]));
-            }
-            
-            // 设置抄送
-            if (!CollectionUtils.isEmpty(request.getCcEmails())) {
-                helper.setCc(request.getCcEmails().toArray(new String[0]));
-            }
-            
-            // 设置密送
-            if (!CollectionUtils.isEmpty(request.getBccEmails())) {
-                helper.setBcc(request.getBccEmails().toArray(new String[0]));
-            }
-            
-            // 设置主题和内容
-            helper.setSubject(request.getSubject());
-            helper.setText(request.getContent(), request.getIsHtml());
-            
-            // 添加附件
-            if (!CollectionUtils.isEmpty(request.getAttachments())) {
-                for (EmailSendRequest.EmailAttachment attachment : request.getAttachments()) {
-                    byte[] fileBytes = java.util.Base64.getDecoder().decode(attachment.getFileContent());
-                    helper.addAttachment(attachment.getFileName(), 
-                            new jakarta.activation.DataSource() {
-                                @Override
-                                public java.io.InputStream getInputStream() {
-                                    return new java.io.ByteArrayInputStream(fileBytes);
-                                }
-                                
-                                @Override
-                                public java.io.OutputStream getOutputStream() {
-                                    throw new UnsupportedOperationException();
-                                }
-                                
-                                @Override
-                                public String getContentType() {
-                                    return attachment.getContentType();
-                                }
-                                
-                                @Override
-                                public String getName() {
-                                    return attachment.getFileName();
-                                }
-                            });
-                }
-            }
-            
-            mailSender.send(message);
-            
-            String messageId = UUID.randomUUID().toString();
-            log.info("邮件发送成功，messageId: {}", messageId);
+            // 写入发送记录后立即返回，由发送线程异步投递
+            String messageId = emailDispatcher.enqueue(request);
+            log.info("邮件已加入发送队列，messageId: {}", messageId);
             
             return PushResponse.success(messageId);
             
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("邮件发送失败", e);
             throw new BusinessException(ResultCode.EMAIL_SEND_FAILED);
@@ -102,28 +60,31 @@ public class PushServiceImpl implements PushService {
     @Override
     public PushResponse sendSms(SmsSendRequest request) {
         try {
-            // 这里使用模拟实现，实际项目中需要集成真实的短信服务商
-            log.info("发送短信到: {}, 内容: {}", request.getPhoneNumbers(), request.getContent());
-            
-            String messageId = UUID.randomUUID().toString();
-            
-            PushResponse response = PushResponse.success(messageId);
-            response.setSuccessCount(request.getPhoneNumbers().size());
-            response.setFailCount(0);
-            
+            PushResponse response = smsDispatcher.send(request);
+            log.info("短信发送完成，batchId: {}, 成功: {}, 失败: {}, 待发送: {}", response.getMessageId(),
+                    response.getSuccessCount(), response.getFailCount(), response.getPendingCount());
             return response;
             
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("短信发送失败", e);
             throw new BusinessException(ResultCode.SMS_SEND_FAILED);
         }
     }
     
+    @Override
+    public PushResponse getSmsBatchResult(String batchId) {
+        return smsDispatcher.getBatchResult(batchId);
+    }
+    
     @Override
     public PushResponse sendVerificationCode(String phoneNumber, String code) {
         SmsSendRequest request = new SmsSendRequest();
         request.setPhoneNumbers(java.util.Arrays.asList(phoneNumber));
         request.setContent("您的验证码是：" + code + "，5分钟内有效。");
+        request.setTemplateId(StringUtils.hasText(verificationTemplateCode) ? verificationTemplateCode : null);
+        request.setTemplateParams(java.util.Map.of("code", code));
         request.setSmsType(1);
         
         return sendSms(request);
@@ -131,7 +92,49 @@ public class PushServiceImpl implements PushService {
     
     @Override
     public PushResponse batchSendEmail(EmailSendRequest request) {
-        return sendEmail(request);
+        try {
+            PushResponse response = emailDispatcher.enqueueBatch(request);
+            log.info("批量邮件已加入发送队列，batchId: {}, 待发送: {}, 无效地址: {}",
+                    response.getMessageId(), response.getPendingCount(), response.getFailCount());
+            return response;
+            
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("批量邮件发送失败", e);
+            throw new BusinessException(ResultCode.EMAIL_SEND_FAILED);
+        }
+    }
+    
+    @Override
+    public PushResponse getEmailBatchResult(String batchId) {
+        return emailDispatcher.getBatchResult(batchId);
+    }
+    
+    @Override
+    public PushResponse saveEmailTemplate(EmailTemplateRequest request) {
+        EmailTemplateRenderer.checkTemplateId(request.getTemplateId());
+        
+        EmailTemplate template = emailTemplateMapper.selectOne(new LambdaQueryWrapper<EmailTemplate>()
+                .eq(EmailTemplate::getTemplateId, request.getTemplateId()));
+        boolean exists = template != null;
+        if (!exists) {
+            template = new EmailTemplate();
+            template.setTemplateId(request.getTemplateId());
+        }
+        template.setTemplateName(request.getTemplateName());
+        template.setSubject(request.getSubject());
+        template.setContent(request.getContent());
+        template.setIsHtml(!Boolean.FALSE.equals(request.getIsHtml()));
+        if (exists) {
+            emailTemplateMapper.updateById(template);
+        } else {
+            emailTemplateMapper.insert(template);
+        }
+        
+        emailTemplateRenderer.evict(request.getTemplateId());
+        log.info("邮件模板已保存，templateId: {}", request.getTemplateId());
+        return PushResponse.success(request.getTemplateId());
     }
     
     @Override
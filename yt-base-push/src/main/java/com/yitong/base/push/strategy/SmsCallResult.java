@@ -0,0 +1,46 @@
+package com.yitong.base.push.strategy;
+
+import lombok.Data;
+
+/**
+ * 单次短信服务商接口调用结果，对本次调用的所有手机号有效
+ */
+@Data
+public class SmsCallResult {
+    
+    /**
+     * 服务商是否受理
+     */
+    private boolean success;
+    
+    /**
+     * 服务商回执ID
+     */
+    private String bizId;
+    
+    /**
+     * 服务商返回码
+     */
+    private String code;
+    
+    /**
+     * 错误信息
+     */
+    private String message;
+    
+    public static SmsCallResult success(String bizId) {
+        SmsCallResult result = new SmsCallResult();
+        result.setSuccess(true);
+        result.setBizId(bizId);
+        result.setCode("OK");
+        return result;
+    }
+    
+    public static SmsCallResult fail(String code, String message) {
+        SmsCallResult result = new SmsCallResult();
+        result.setSuccess(false);
+        result.setCode(code);
+        result.setMessage(message);
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package com.yitong.base.push.strategy;
+
+import java.util.List;
+
+/**
+ * 短信策略接口
+ * 定义所有短信服务提供商需要实现的通用接口，调用方按单次调用上限对手机号分组
+ */
+public interface SmsStrategy {
+    
+    /**
+     * 获取策略名称
+     * @return 策略名称
+     */
+    String getStrategyName();
+    
+    /**
+     * 初始化短信客户端
+     */
+    void initialize();
+    
+    /**
+     * 相同参数发送时单次调用的手机号上限
+     * @return 手机号数量上限
+     */
+    int getMaxNumbersPerCall();
+    
+    /**
+     * 逐号参数发送时单次调用的手机号上限
+     * @return 手机号数量上限
+     */
+    int getMaxNumbersPerBatchCall();
+    
+    /**
+     * 向一组手机号发送相同参数的短信
+     * @param phoneNumbers 手机号
+     * @param signName 短信签名
+     * @param templateCode 模板编号
+     * @param templateParamJson 模板参数（JSON），可为空
+     * @param content 短信内容，不支持模板的服务商使用
+     * @return 调用结果
+     */
+    SmsCallResult send(List<String> phoneNumbers, String signName, String templateCode,
+                       String templateParamJson, String content);
+    
+    /**
+     * 向一组手机号发送各自参数的短信
+     * @param phoneNumbers 手机号
+     * @param signName 短信签名
+     * @param templateCode 模板编号
+     * @param templateParamJsons 与手机号一一对应的模板参数（JSON）
+     * @return 调用结果
+     */
+    SmsCallResult sendBatch(List<String> phoneNumbers, String signName, String templateCode,
+                            List<String> templateParamJsons);
+    
+    /**
+     * 检查服务是否可用
+     * @return 是否可用
+     */
+    boolean isAvailable();
+}
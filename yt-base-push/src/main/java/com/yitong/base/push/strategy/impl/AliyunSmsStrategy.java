@@ -0,0 +1,149 @@
+package com.yitong.base.push.strategy.impl;
+
+import com.alibaba.fastjson2.JSON;
+import com.aliyun.dysmsapi20170525.Client;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsRequest;
+import com.aliyun.dysmsapi20170525.models.SendBatchSmsResponseBody;
+import com.aliyun.dysmsapi20170525.models.SendSmsRequest;
+import com.aliyun.dysmsapi20170525.models.SendSmsResponseBody;
+import com.aliyun.teaopenapi.models.Config;
+import com.aliyun.teautil.models.RuntimeOptions;
+import com.yitong.base.push.strategy.SmsCallResult;
+import com.yitong.base.push.strategy.SmsStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 阿里云短信策略实现
+ * <p>
+ * 相同参数使用SendSms（单次最多1000个号码），逐号参数使用SendBatchSms（单次最多100个号码）。
+ * 客户端全局共享一个实例，底层HTTP连接池在并发调用间复用。
+ */
+@Slf4j
+@Component
+public class AliyunSmsStrategy implements SmsStrategy {
+    
+    private static final String OK = "OK";
+    
+    @Value("${aliyun.sms.access-key-id:}")
+    private String accessKeyId;
+    
+    @Value("${aliyun.sms.access-key-secret:}")
+    private String accessKeySecret;
+    
+    @Value("${aliyun.sms.region-id:cn-hangzhou}")
+    private String regionId;
+    
+    @Value("${aliyun.sms.endpoint:dysmsapi.aliyuncs.com}")
+    private String endpoint;
+    
+    @Value("${aliyun.sms.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+    
+    @Value("${aliyun.sms.read-timeout-ms:5000}")
+    private int readTimeoutMs;
+    
+    @Value("${aliyun.sms.max-idle-conns:50}")
+    private int maxIdleConns;
+    
+    private Client client;
+    
+    private RuntimeOptions runtimeOptions;
+    
+    @Override
+    public String getStrategyName() {
+        return "aliyun";
+    }
+    
+    @PostConstruct
+    @Override
+    public void initialize() {
+        if (!StringUtils.hasText(accessKeyId) || !StringUtils.hasText(accessKeySecret)) {
+            log.warn("阿里云短信配置不完整，阿里云短信不可用");
+            return;
+        }
+        try {
+            Config config = new Config()
+                    .setAccessKeyId(accessKeyId)
+                    .setAccessKeySecret(accessKeySecret)
+                    .setRegionId(regionId)
+                    .setEndpoint(endpoint)
+                    .setConnectTimeout(connectTimeoutMs)
+                    .setReadTimeout(readTimeoutMs)
+                    .setMaxIdleConns(maxIdleConns);
+            client = new Client(config);
+            // 失败由调用方记录并决定是否重发，SDK内部不重试，避免重复下发
+            runtimeOptions = new RuntimeOptions()
+                    .setAutoretry(false)
+                    .setConnectTimeout(connectTimeoutMs)
+                    .setReadTimeout(readTimeoutMs)
+                    .setMaxIdleConns(maxIdleConns);
+            log.info("阿里云短信客户端初始化成功");
+        } catch (Exception e) {
+            log.error("阿里云短信客户端初始化失败", e);
+        }
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return client != null;
+    }
+    
+    @Override
+    public int getMaxNumbersPerCall() {
+        return 1000;
+    }
+    
+    @Override
+    public int getMaxNumbersPerBatchCall() {
+        return 100;
+    }
+    
+    @Override
+    public SmsCallResult send(List<String> phoneNumbers, String signName, String templateCode,
+                              String templateParamJson, String content) {
+        SendSmsRequest request = new SendSmsRequest()
+                .setPhoneNumbers(String.join(",", phoneNumbers))
+                .setSignName(signName)
+                .setTemplateCode(templateCode)
+                .setTemplateParam(templateParamJson);
+        try {
+            SendSmsResponseBody body = client.sendSmsWithOptions(request, runtimeOptions).getBody();
+            return toResult(body.getCode(), body.getMessage(), body.getBizId());
+        } catch (Exception e) {
+            log.warn("阿里云短信发送失败, 号码数: {}, 原因: {}", phoneNumbers.size(), e.getMessage());
+            return SmsCallResult.fail("ERROR", e.getMessage());
+        }
+    }
+    
+    @Override
+    public SmsCallResult sendBatch(List<String> phoneNumbers, String signName, String templateCode,
+                                   List<String> templateParamJsons) {
+        SendBatchSmsRequest request = new SendBatchSmsRequest()
+                .setPhoneNumberJson(JSON.toJSONString(phoneNumbers))
+                .setSignNameJson(JSON.toJSONString(Collections.nCopies(phoneNumbers.size(), signName)))
+                .setTemplateCode(templateCode)
+                .setTemplateParamJson("[" + String.join(",", templateParamJsons) + "]");
+        try {
+            SendBatchSmsResponseBody body = client.sendBatchSmsWithOptions(request, runtimeOptions).getBody();
+            return toResult(body.getCode(), body.getMessage(), body.getBizId());
+        } catch (Exception e) {
+            log.warn("阿里云批量短信发送失败, 号码数: {}, 原因: {}", phoneNumbers.size(), e.getMessage());
+            return SmsCallResult.fail("ERROR", e.getMessage());
+        }
+    }
+    
+    private static SmsCallResult toResult(String code, String message, String bizId) {
+        if (OK.equalsIgnoreCase(code)) {
+            return SmsCallResult.success(bizId);
+        }
+        log.warn("阿里云短信发送失败, code: {}, message: {}", code, message);
+        return SmsCallResult.fail(code, message);
+    }
+}
@@ -0,0 +1,73 @@
+package com.yitong.base.push.strategy.impl;
+
+import com.yitong.base.push.strategy.SmsCallResult;
+import com.yitong.base.push.strategy.SmsStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 本地短信策略，不实际下发，仅记录日志，用于开发和测试环境
+ * <p>
+ * 配置push.sms.local.fail-prefix后，以该前缀开头的号码所在的调用返回失败，便于验证失败统计。
+ */
+@Slf4j
+@Component
+public class LocalSmsStrategy implements SmsStrategy {
+    
+    @Value("${push.sms.local.fail-prefix:}")
+    private String failPrefix;
+    
+    @Value("${push.sms.local.batch-size:100}")
+    private int batchSize;
+    
+    @Override
+    public String getStrategyName() {
+        return "local";
+    }
+    
+    @Override
+    public void initialize() {
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+    
+    @Override
+    public int getMaxNumbersPerCall() {
+        return batchSize;
+    }
+    
+    @Override
+    public int getMaxNumbersPerBatchCall() {
+        return batchSize;
+    }
+    
+    @Override
+    public SmsCallResult send(List<String> phoneNumbers, String signName, String templateCode,
+                              String templateParamJson, String content) {
+        log.info("[本地短信] 发送到: {}, 签名: {}, 模板: {}, 参数: {}, 内容: {}",
+                phoneNumbers, signName, templateCode, templateParamJson, content);
+        return result(phoneNumbers);
+    }
+    
+    @Override
+    public SmsCallResult sendBatch(List<String> phoneNumbers, String signName, String templateCode,
+                                   List<String> templateParamJsons) {
+        log.info("[本地短信] 批量发送到: {}, 签名: {}, 模板: {}, 参数: {}",
+                phoneNumbers, signName, templateCode, templateParamJsons);
+        return result(phoneNumbers);
+    }
+    
+    private SmsCallResult result(List<String> phoneNumbers) {
+        if (!failPrefix.isEmpty() && phoneNumbers.stream().anyMatch(phone -> phone.startsWith(failPrefix))) {
+            return SmsCallResult.fail("LOCAL_FAIL", "本地模拟发送失败");
+        }
+        return SmsCallResult.success("local-" + UUID.randomUUID());
+    }
+}
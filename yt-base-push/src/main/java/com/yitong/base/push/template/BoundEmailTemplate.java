@@ -0,0 +1,32 @@
+package com.yitong.base.push.template;
+
+import java.util.Map;
+
+/**
+ * 已解析的邮件模板，可对多个收件人重复渲染
+ * <p>
+ * 实现会复用渲染缓冲区，非线程安全，每个发送请求单独获取。
+ */
+public interface BoundEmailTemplate {
+    
+    /**
+     * 渲染结果是否为HTML
+     */
+    boolean isHtml();
+    
+    /**
+     * 渲染邮件主题
+     *
+     * @param params 模板参数
+     * @return 邮件主题
+     */
+    String renderSubject(Map<String, Object> params);
+    
+    /**
+     * 渲染邮件内容
+     *
+     * @param params 模板参数
+     * @return 邮件内容
+     */
+    String renderContent(Map<String, Object> params);
+}
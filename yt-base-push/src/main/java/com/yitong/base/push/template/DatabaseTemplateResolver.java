@@ -0,0 +1,84 @@
+package com.yitong.base.push.template;
+
+import com.yitong.base.push.entity.EmailTemplate;
+import org.springframework.util.StringUtils;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.cache.ICacheEntryValidity;
+import org.thymeleaf.cache.TTLCacheEntryValidity;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.AbstractTemplateResolver;
+import org.thymeleaf.templateresource.ITemplateResource;
+import org.thymeleaf.templateresource.StringTemplateResource;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 从email_template表解析Thymeleaf模板
+ * <p>
+ * 模板名为模板ID时解析邮件内容，为"subject:"+模板ID时解析邮件主题。
+ * 解析结果由模板引擎缓存，TTL用于多实例部署时兜底刷新其他实例更新的模板。
+ */
+class DatabaseTemplateResolver extends AbstractTemplateResolver {
+    
+    static final String SUBJECT_PREFIX = "subject:";
+    
+    private final Function<String, EmailTemplate> lookup;
+    
+    private final long cacheTtlMs;
+    
+    DatabaseTemplateResolver(Function<String, EmailTemplate> lookup, long cacheTtlMs) {
+        this.lookup = lookup;
+        this.cacheTtlMs = cacheTtlMs;
+        setName("database");
+    }
+    
+    static String subjectName(String templateId) {
+        return SUBJECT_PREFIX + templateId;
+    }
+    
+    @Override
+    protected boolean computeResolvable(IEngineConfiguration configuration, String ownerTemplate, String template,
+                                        Map<String, Object> templateResolutionAttributes) {
+        EmailTemplate emailTemplate = lookup.apply(templateId(template));
+        if (emailTemplate == null) {
+            return false;
+        }
+        return isSubject(template) ? StringUtils.hasText(emailTemplate.getSubject())
+                : StringUtils.hasText(emailTemplate.getContent());
+    }
+    
+    @Override
+    protected ITemplateResource computeTemplateResource(IEngineConfiguration configuration, String ownerTemplate,
+                                                        String template, Map<String, Object> templateResolutionAttributes) {
+        EmailTemplate emailTemplate = lookup.apply(templateId(template));
+        String text = emailTemplate == null ? null
+                : isSubject(template) ? emailTemplate.getSubject() : emailTemplate.getContent();
+        return new StringTemplateResource(text != null ? text : "");
+    }
+    
+    @Override
+    protected TemplateMode computeTemplateMode(IEngineConfiguration configuration, String ownerTemplate,
+                                               String template, Map<String, Object> templateResolutionAttributes) {
+        if (isSubject(template)) {
+            return TemplateMode.TEXT;
+        }
+        EmailTemplate emailTemplate = lookup.apply(templateId(template));
+        return emailTemplate != null && Boolean.TRUE.equals(emailTemplate.getIsHtml())
+                ? TemplateMode.HTML : TemplateMode.TEXT;
+    }
+    
+    @Override
+    protected ICacheEntryValidity computeValidity(IEngineConfiguration configuration, String ownerTemplate,
+                                                  String template, Map<String, Object> templateResolutionAttributes) {
+        return new TTLCacheEntryValidity(cacheTtlMs);
+    }
+    
+    private static boolean isSubject(String template) {
+        return template.startsWith(SUBJECT_PREFIX);
+    }
+    
+    private static String templateId(String template) {
+        return isSubject(template) ? template.substring(SUBJECT_PREFIX.length()) : template;
+    }
+}
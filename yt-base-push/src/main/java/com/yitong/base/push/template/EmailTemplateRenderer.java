@@ -0,0 +1,245 @@
+package com.yitong.base.push.template;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.push.entity.EmailTemplate;
+import com.yitong.base.push.mapper.EmailTemplateMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateEngineException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import jakarta.annotation.PostConstruct;
+import java.io.StringWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 邮件模板渲染
+ * <p>
+ * 模板优先从email_template表读取，其次为classpath下的templates/email/{templateId}.html。
+ * 模板由Thymeleaf解析一次后缓存，批量发送时对每个收件人只执行渲染；模板更新时调用{@link #evict(String)}使缓存失效。
+ * 未指定模板ID时，请求中的主题和内容按${name}占位符渲染。
+ */
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+    
+    private static final Pattern TEMPLATE_ID_PATTERN = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+    
+    private static final String CLASSPATH_SUFFIX = ".html";
+    
+    @Value("${push.template.cache-size:500}")
+    private int cacheSize;
+    
+    @Value("${push.template.cache-ttl-ms:300000}")
+    private long cacheTtlMs;
+    
+    @Value("${push.template.classpath-prefix:templates/email/}")
+    private String classpathPrefix;
+    
+    @Autowired
+    private EmailTemplateMapper emailTemplateMapper;
+    
+    private LoadingCache<String, Optional<EmailTemplate>> templates;
+    
+    private SpringTemplateEngine templateEngine;
+    
+    @PostConstruct
+    public void init() {
+        templates = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtlMs, TimeUnit.MILLISECONDS)
+                .build(this::loadTemplate);
+        
+        DatabaseTemplateResolver databaseResolver = new DatabaseTemplateResolver(
+                templateId -> templates.get(templateId).orElse(null), cacheTtlMs);
+        databaseResolver.setOrder(1);
+        
+        ClassLoaderTemplateResolver classpathResolver = new ClassLoaderTemplateResolver();
+        classpathResolver.setPrefix(classpathPrefix);
+        classpathResolver.setSuffix(CLASSPATH_SUFFIX);
+        classpathResolver.setTemplateMode(TemplateMode.HTML);
+        classpathResolver.setCharacterEncoding("UTF-8");
+        classpathResolver.setCacheable(true);
+        classpathResolver.setCheckExistence(true);
+        classpathResolver.setOrder(2);
+        
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(cacheSize);
+        
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setEnableSpringELCompiler(true);
+        templateEngine.setCacheManager(cacheManager);
+        templateEngine.addTemplateResolver(databaseResolver);
+        templateEngine.addTemplateResolver(classpathResolver);
+    }
+    
+    /**
+     * 获取模板
+     *
+     * @param templateId 模板ID
+     * @param defaultSubject 模板未定义主题时使用的主题，支持${name}占位符
+     * @return 已解析的模板
+     */
+    public BoundEmailTemplate bind(String templateId, String defaultSubject) {
+        checkTemplateId(templateId);
+        EmailTemplate template = templates.get(templateId).orElse(null);
+        boolean html;
+        String subjectName = null;
+        if (template != null) {
+            html = Boolean.TRUE.equals(template.getIsHtml());
+            if (StringUtils.hasText(template.getSubject())) {
+                subjectName = DatabaseTemplateResolver.subjectName(templateId);
+            }
+        } else if (getClass().getClassLoader().getResource(classpathPrefix + templateId + CLASSPATH_SUFFIX) != null) {
+            html = true;
+        } else {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "邮件模板不存在: " + templateId);
+        }
+        if (subjectName == null && !StringUtils.hasText(defaultSubject)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "邮件主题不能为空");
+        }
+        return new ThymeleafTemplate(templateId, subjectName,
+                subjectName == null ? PlaceholderTemplate.compile(defaultSubject) : null, html);
+    }
+    
+    /**
+     * 使用请求中的主题和内容作为模板
+     *
+     * @param subject 主题
+     * @param content 内容
+     * @param html 是否HTML
+     * @return 已解析的模板
+     */
+    public BoundEmailTemplate bindInline(String subject, String content, boolean html) {
+        return new InlineTemplate(PlaceholderTemplate.compile(subject), PlaceholderTemplate.compile(content), html);
+    }
+    
+    /**
+     * 模板更新后清除缓存
+     *
+     * @param templateId 模板ID
+     */
+    public void evict(String templateId) {
+        templates.invalidate(templateId);
+        templateEngine.clearTemplateCacheFor(templateId);
+        templateEngine.clearTemplateCacheFor(DatabaseTemplateResolver.subjectName(templateId));
+        log.info("邮件模板缓存已清除, templateId: {}", templateId);
+    }
+    
+    /**
+     * 校验模板ID，避免拼接classpath路径时越界
+     */
+    public static void checkTemplateId(String templateId) {
+        if (templateId == null || !TEMPLATE_ID_PATTERN.matcher(templateId).matches()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "模板ID格式错误: " + templateId);
+        }
+    }
+    
+    private Optional<EmailTemplate> loadTemplate(String templateId) {
+        return Optional.ofNullable(emailTemplateMapper.selectOne(new LambdaQueryWrapper<EmailTemplate>()
+                .eq(EmailTemplate::getTemplateId, templateId)));
+    }
+    
+    /**
+     * Thymeleaf模板，复用Context与输出缓冲区
+     */
+    private final class ThymeleafTemplate implements BoundEmailTemplate {
+        
+        private final String contentName;
+        
+        private final String subjectName;
+        
+        private final PlaceholderTemplate defaultSubject;
+        
+        private final boolean html;
+        
+        private final Context context = new Context(Locale.SIMPLIFIED_CHINESE);
+        
+        private final StringWriter writer = new StringWriter(1024);
+        
+        ThymeleafTemplate(String contentName, String subjectName, PlaceholderTemplate defaultSubject, boolean html) {
+            this.contentName = contentName;
+            this.subjectName = subjectName;
+            this.defaultSubject = defaultSubject;
+            this.html = html;
+        }
+        
+        @Override
+        public boolean isHtml() {
+            return html;
+        }
+        
+        @Override
+        public String renderSubject(Map<String, Object> params) {
+            return subjectName != null ? process(subjectName, params) : defaultSubject.render(params, false);
+        }
+        
+        @Override
+        public String renderContent(Map<String, Object> params) {
+            return process(contentName, params);
+        }
+        
+        private String process(String templateName, Map<String, Object> params) {
+            context.clearVariables();
+            if (params != null) {
+                context.setVariables(params);
+            }
+            writer.getBuffer().setLength(0);
+            try {
+                templateEngine.process(templateName, context, writer);
+            } catch (TemplateEngineException e) {
+                log.warn("邮件模板渲染失败, template: {}, 原因: {}", templateName, e.getMessage());
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "邮件模板渲染失败: " + templateName);
+            }
+            return writer.toString();
+        }
+    }
+    
+    /**
+     * 请求内联的${name}占位符模板
+     */
+    private static final class InlineTemplate implements BoundEmailTemplate {
+        
+        private final PlaceholderTemplate subject;
+        
+        private final PlaceholderTemplate content;
+        
+        private final boolean html;
+        
+        InlineTemplate(PlaceholderTemplate subject, PlaceholderTemplate content, boolean html) {
+            this.subject = subject;
+            this.content = content;
+            this.html = html;
+        }
+        
+        @Override
+        public boolean isHtml() {
+            return html;
+        }
+        
+        @Override
+        public String renderSubject(Map<String, Object> params) {
+            return subject.render(params, false);
+        }
+        
+        @Override
+        public String renderContent(Map<String, Object> params) {
+            return content.render(params, html);
+        }
+    }
+}
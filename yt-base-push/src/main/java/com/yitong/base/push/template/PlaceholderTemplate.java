@@ -0,0 +1,90 @@
+package com.yitong.base.push.template;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 占位符模板，支持${name}形式的参数
+ * <p>
+ * 模板只解析一次，批量发送时对每个收件人重复渲染。
+ */
+public final class PlaceholderTemplate {
+    
+    private static final String PREFIX = "${";
+    
+    private static final String SUFFIX = "}";
+    
+    /**
+     * 文本片段与参数名交替排列，偶数位为文本，奇数位为参数名
+     */
+    private final List<String> segments;
+    
+    private final int estimatedLength;
+    
+    private PlaceholderTemplate(List<String> segments, int estimatedLength) {
+        this.segments = segments;
+        this.estimatedLength = estimatedLength;
+    }
+    
+    /**
+     * 解析模板
+     *
+     * @param template 模板文本
+     * @return 解析后的模板
+     */
+    public static PlaceholderTemplate compile(String template) {
+        List<String> segments = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int start = template.indexOf(PREFIX, from);
+            int end = start < 0 ? -1 : template.indexOf(SUFFIX, start + PREFIX.length());
+            if (end < 0) {
+                segments.add(template.substring(from));
+                break;
+            }
+            segments.add(template.substring(from, start));
+            segments.add(template.substring(start + PREFIX.length(), end).trim());
+            from = end + SUFFIX.length();
+        }
+        return new PlaceholderTemplate(List.copyOf(segments), template.length());
+    }
+    
+    /**
+     * 是否包含参数
+     */
+    public boolean hasPlaceholders() {
+        return segments.size() > 1;
+    }
+    
+    /**
+     * 渲染模板，缺失的参数保留原占位符
+     *
+     * @param params 参数
+     * @param escapeHtml 是否对参数值做HTML转义
+     * @return 渲染结果
+     */
+    public String render(Map<String, Object> params, boolean escapeHtml) {
+        if (segments.size() == 1) {
+            return segments.get(0);
+        }
+        StringBuilder sb = new StringBuilder(estimatedLength + 64);
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if ((i & 1) == 0) {
+                sb.append(segment);
+                continue;
+            }
+            Object value = params != null ? params.get(segment) : null;
+            if (value == null) {
+                sb.append(PREFIX).append(segment).append(SUFFIX);
+            } else {
+                String text = String.valueOf(value);
+                sb.append(escapeHtml ? HtmlUtils.htmlEscape(text) : text);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.yitong.base.push.template;
+
+import com.yitong.base.push.mapper.EmailTemplateMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 邮件模板渲染基准：比较缓存已解析模板与每次重新解析模板的单次渲染耗时
+ * <p>
+ * 使用classpath下的verification-code模板，不访问数据库。缓存模式绑定一次模板后对每个收件人只渲染；
+ * 未缓存模式在每次渲染前清除模板引擎缓存，等同于每个收件人都重新读取和解析模板。
+ * <p>
+ * 运行方式：执行main方法，可选参数依次为预热轮数、测量轮数、每轮收件人数，例如 {@code 5 10 2000}。
+ */
+public class EmailTemplateRendererBenchmark {
+    
+    private static final String TEMPLATE_ID = "verification-code";
+    
+    private static final String SUBJECT = "验证码通知";
+    
+    public static void main(String[] args) {
+        int warmupRounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int recipients = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        
+        EmailTemplateRenderer renderer = createRenderer();
+        SpringTemplateEngine templateEngine =
+                (SpringTemplateEngine) ReflectionTestUtils.getField(renderer, "templateEngine");
+        List<Map<String, Object>> params = recipientParams(recipients);
+        
+        BenchmarkRound cached = () -> {
+            BoundEmailTemplate template = renderer.bind(TEMPLATE_ID, SUBJECT);
+            long length = 0;
+            for (Map<String, Object> recipient : params) {
+                length += template.renderContent(recipient).length();
+            }
+            return length;
+        };
+        BenchmarkRound uncached = () -> {
+            BoundEmailTemplate template = renderer.bind(TEMPLATE_ID, SUBJECT);
+            long length = 0;
+            for (Map<String, Object> recipient : params) {
+                templateEngine.clearTemplateCacheFor(TEMPLATE_ID);
+                length += template.renderContent(recipient).length();
+            }
+            return length;
+        };
+        
+        double cachedMicros = measure("cached", cached, warmupRounds, rounds, recipients);
+        double uncachedMicros = measure("uncached", uncached, warmupRounds, rounds, recipients);
+        System.out.printf("uncached / cached = %.1fx%n", uncachedMicros / cachedMicros);
+    }
+    
+    private static EmailTemplateRenderer createRenderer() {
+        // 数据库中没有模板，全部回落到classpath模板
+        EmailTemplateMapper mapper = (EmailTemplateMapper) Proxy.newProxyInstance(
+                EmailTemplateMapper.class.getClassLoader(), new Class<?>[]{EmailTemplateMapper.class},
+                (proxy, method, methodArgs) -> null);
+        EmailTemplateRenderer renderer = new EmailTemplateRenderer();
+        ReflectionTestUtils.setField(renderer, "cacheSize", 500);
+        ReflectionTestUtils.setField(renderer, "cacheTtlMs", 300000L);
+        ReflectionTestUtils.setField(renderer, "classpathPrefix", "templates/email/");
+        ReflectionTestUtils.setField(renderer, "emailTemplateMapper", mapper);
+        renderer.init();
+        return renderer;
+    }
+    
+    private static List<Map<String, Object>> recipientParams(int recipients) {
+        List<Map<String, Object>> params = new ArrayList<>(recipients);
+        for (int i = 0; i < recipients; i++) {
+            Map<String, Object> recipient = new HashMap<>();
+            recipient.put("name", "用户" + i);
+            recipient.put("code", String.format("%06d", i % 1000000));
+            recipient.put("expireMinutes", 10);
+            params.add(recipient);
+        }
+        return params;
+    }
+    
+    /**
+     * @return 每次渲染的平均耗时（微秒）
+     */
+    private static double measure(String name, BenchmarkRound round, int warmupRounds, int rounds, int recipients) {
+        long checksum = 0;
+        for (int i = 0; i < warmupRounds; i++) {
+            checksum += round.run();
+        }
+        long elapsed = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            checksum += round.run();
+            elapsed += System.nanoTime() - start;
+        }
+        double micros = elapsed / 1000.0 / rounds / recipients;
+        System.out.printf("%-8s %8.2f us/render (%d rounds x %d recipients, checksum %d)%n",
+                name, micros, rounds, recipients, checksum);
+        return micros;
+    }
+    
+    @FunctionalInterface
+    private interface BenchmarkRound {
+        
+        /**
+         * @return 渲染结果总长度，防止渲染被优化掉
+         */
+        long run();
+    }
+}
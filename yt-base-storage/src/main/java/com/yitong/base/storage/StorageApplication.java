@@ -3,12 +3,14 @@ package com.yitong.base.storage;
 import org.apache.dubbo.config.spring.context.annotation.EnableDubbo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 对象存储服务启动类
  */
 @SpringBootApplication(scanBasePackages = "com.yitong.base")
 @EnableDubbo
+@EnableScheduling
 public class StorageApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,174 @@
+package com.yitong.base.storage.backend;
+
+import com.yitong.base.storage.model.ObjectContent;
+import com.yitong.base.storage.model.ObjectMetadata;
+
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * 存储后端接口
+ * 定义所有对象存储实现需要提供的通用操作；对象不存在时抛出NOT_FOUND业务异常，
+ * 其他失败抛出业务异常，由调用方转换为具体的错误码
+ */
+public interface StorageBackend {
+    
+    /**
+     * 获取后端名称
+     * @return 后端名称
+     */
+    String getBackendName();
+    
+    /**
+     * 初始化客户端
+     */
+    void initialize();
+    
+    /**
+     * 检查后端是否可用
+     * @return 是否可用
+     */
+    boolean isAvailable();
+    
+    /**
+     * 获取默认存储桶
+     * @return 默认存储桶名称
+     */
+    String getDefaultBucketName();
+    
+    /**
+     * 流式写入对象
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param inputStream 内容输入流
+     * @param size 内容大小，未知时为-1
+     * @param contentType 内容类型
+     */
+    void putObject(String bucketName, String objectName, InputStream inputStream, long size, String contentType);
+    
+    /**
+     * 读取对象内容
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param offset 起始偏移量
+     * @param length 读取长度，为null时读取到末尾
+     * @return 对象内容
+     */
+    ObjectContent getObject(String bucketName, String objectName, long offset, Long length);
+    
+    /**
+     * 将对象内容直接写入目标通道（零拷贝），不支持时返回false由调用方回退到流式复制
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param offset 起始偏移量
+     * @param length 读取长度
+     * @param target 目标通道
+     * @return 是否已写入
+     */
+    default boolean transferTo(String bucketName, String objectName, long offset, long length,
+                               WritableByteChannel target) {
+        return false;
+    }
+    
+    /**
+     * 获取对象在本机磁盘上的文件路径，可由容器通过sendfile直接发送；对象不在本机磁盘时返回null
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @return 本地文件路径
+     */
+    default Path getLocalPath(String bucketName, String objectName) {
+        return null;
+    }
+    
+    /**
+     * 获取对象元数据
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @return 对象元数据
+     */
+    ObjectMetadata statObject(String bucketName, String objectName);
+    
+    /**
+     * 删除对象
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     */
+    void removeObject(String bucketName, String objectName);
+    
+    /**
+     * 批量删除对象
+     * @param bucketName 存储桶
+     * @param objectNames 对象名列表，数量不超过getMaxBatchDeleteSize()
+     * @return 删除失败的对象及错误信息
+     */
+    Map<String, String> removeObjects(String bucketName, List<String> objectNames);
+    
+    /**
+     * 单次批量删除的对象数量上限
+     * @return 数量上限
+     */
+    default int getMaxBatchDeleteSize() {
+        return 1000;
+    }
+    
+    /**
+     * 服务端复制对象
+     * @param bucketName 存储桶
+     * @param sourceObjectName 源对象名
+     * @param targetObjectName 目标对象名
+     */
+    void copyObject(String bucketName, String sourceObjectName, String targetObjectName);
+    
+    /**
+     * 生成预签名访问URL
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param expireSeconds 有效期（秒）
+     * @return 访问URL
+     */
+    String getPresignedUrl(String bucketName, String objectName, long expireSeconds);
+    
+    /**
+     * 初始化分片上传
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param contentType 内容类型
+     * @return 后端分片上传ID
+     */
+    String initiateMultipartUpload(String bucketName, String objectName, String contentType);
+    
+    /**
+     * 上传单个分片，同一上传的不同分片可并发上传
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param uploadId 后端分片上传ID
+     * @param partNumber 分片序号（1-10000）
+     * @param inputStream 分片内容
+     * @param size 分片大小
+     * @return 分片ETag
+     */
+    String uploadPart(String bucketName, String objectName, String uploadId, int partNumber,
+                      InputStream inputStream, long size);
+    
+    /**
+     * 合并分片完成上传
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param uploadId 后端分片上传ID
+     * @param partETags 分片序号到ETag的映射，按分片序号升序
+     */
+    void completeMultipartUpload(String bucketName, String objectName, String uploadId,
+                                 SortedMap<Integer, String> partETags);
+    
+    /**
+     * 取消分片上传并清理已上传的分片
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param uploadId 后端分片上传ID
+     */
+    void abortMultipartUpload(String bucketName, String objectName, String uploadId);
+}
@@ -0,0 +1,89 @@
+package com.yitong.base.storage.backend;
+
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 存储后端工厂
+ * 负责注册存储后端并按配置选择当前使用的后端。
+ * 与OCR不同，存储后端不可用时不会自动切换到其他后端，否则文件会分散写入不同的存储中。
+ */
+@Slf4j
+@Component
+public class StorageBackendFactory {
+    
+    @Value("${storage.backend:minio}")
+    private String backendName;
+    
+    @Autowired
+    private List<StorageBackend> storageBackends;
+    
+    private final Map<String, StorageBackend> backendMap = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        // 注册所有存储后端
+        for (StorageBackend backend : storageBackends) {
+            backendMap.put(backend.getBackendName(), backend);
+            log.info("注册存储后端: {}, 可用状态: {}", backend.getBackendName(), backend.isAvailable());
+        }
+        
+        if (!backendMap.containsKey(backendName)) {
+            log.warn("存储后端 '{}' 不存在，可用后端: {}", backendName, backendMap.keySet());
+        } else {
+            log.info("当前存储后端: {}", backendName);
+        }
+    }
+    
+    /**
+     * 获取当前配置的存储后端
+     * @return 存储后端实例
+     */
+    public StorageBackend getBackend() {
+        StorageBackend backend = backendMap.get(backendName.toLowerCase());
+        if (backend == null) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "不支持的存储后端: " + backendName);
+        }
+        if (!backend.isAvailable()) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(),
+                    "存储后端 '" + backendName + "' 当前不可用");
+        }
+        return backend;
+    }
+    
+    /**
+     * 获取所有已注册的后端名称
+     * @return 后端名称集合
+     */
+    public Set<String> getBackendNames() {
+        return backendMap.keySet();
+    }
+    
+    /**
+     * 检查指定后端是否可用
+     * @param name 后端名称
+     * @return 是否可用
+     */
+    public boolean isBackendAvailable(String name) {
+        StorageBackend backend = backendMap.get(name);
+        return backend != null && backend.isAvailable();
+    }
+    
+    /**
+     * 获取当前后端名称
+     * @return 后端名称
+     */
+    public String getBackendName() {
+        return backendName;
+    }
+}
@@ -0,0 +1,374 @@
+package com.yitong.base.storage.backend.impl;
+
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.storage.backend.StorageBackend;
+import com.yitong.base.storage.model.ObjectContent;
+import com.yitong.base.storage.model.ObjectMetadata;
+import com.yitong.base.storage.util.LocalFiles;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 本地磁盘存储后端实现
+ * 对象按 根目录/存储桶/对象名 保存为普通文件，内容类型保存在 根目录/.meta 下的同名文件中。
+ * 读取直接基于FileChannel定位，下载时通过FileChannel.transferTo或容器sendfile写出，不经过堆内缓冲。
+ */
+@Slf4j
+@Component
+public class LocalStorageBackend implements StorageBackend {
+    
+    private static final String META_DIR = ".meta";
+    
+    private static final String TEMP_SUFFIX = ".uploading";
+    
+    private static final String UPLOADS_DIR = ".uploads";
+    
+    private static final String CONTENT_TYPE_FILE = "content-type";
+    
+    /**
+     * 存储桶命名规则与S3一致：3-63位小写字母、数字、点和短横线，首尾为字母或数字
+     */
+    private static final Pattern BUCKET_NAME_PATTERN = Pattern.compile("^[a-z0-9][a-z0-9.-]{1,61}[a-z0-9]$");
+    
+    @Value("${storage.local.root-dir:./data/storage}")
+    private String rootDir;
+    
+    @Value("${storage.local.bucket-name:yt-base}")
+    private String defaultBucketName;
+    
+    /**
+     * 本地文件没有签名机制，访问地址指向存储服务的下载接口
+     */
+    @Value("${storage.local.url-prefix:http://localhost:8083/storage/api/files/download?fileId=}")
+    private String urlPrefix;
+    
+    private Path root;
+    
+    @Override
+    public String getBackendName() {
+        return "local";
+    }
+    
+    @PostConstruct
+    @Override
+    public void initialize() {
+        try {
+            Path path = Paths.get(rootDir).toAbsolutePath().normalize();
+            Files.createDirectories(path);
+            if (Files.isWritable(path)) {
+                root = path;
+                log.info("本地存储后端初始化成功，根目录: {}", root);
+            } else {
+                log.warn("本地存储根目录不可写: {}", path);
+            }
+        } catch (Exception e) {
+            log.warn("本地存储后端初始化失败: {}", e.getMessage());
+        }
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return root != null;
+    }
+    
+    @Override
+    public String getDefaultBucketName() {
+        return defaultBucketName;
+    }
+    
+    @Override
+    public void putObject(String bucketName, String objectName, InputStream inputStream, long size, String contentType) {
+        Path target = resolve(bucketName, objectName);
+        // 先写入临时文件再原子替换，读取方不会看到写了一半的文件
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.copy(inputStream, temp);
+            writeContentType(bucketName, objectName, contentType);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw translate("上传对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public ObjectContent getObject(String bucketName, String objectName, long offset, Long length) {
+        try {
+            return LocalFiles.open(resolve(bucketName, objectName), offset, length);
+        } catch (IOException e) {
+            throw translate("读取对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public boolean transferTo(String bucketName, String objectName, long offset, long length,
+                              WritableByteChannel target) {
+        Path path = resolve(bucketName, objectName);
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw translate("读取对象失败", objectName, e);
+        }
+        try (channel) {
+            LocalFiles.transfer(channel, offset, length, target);
+            return true;
+        } catch (IOException e) {
+            // 写出失败多为客户端断开，交由调用方按IO异常处理
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public Path getLocalPath(String bucketName, String objectName) {
+        Path path = resolve(bucketName, objectName);
+        return Files.isRegularFile(path) ? path : null;
+    }
+    
+    @Override
+    public ObjectMetadata statObject(String bucketName, String objectName) {
+        Path path = resolve(bucketName, objectName);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setBucketName(bucketName);
+            metadata.setObjectName(objectName);
+            metadata.setSize(attributes.size());
+            metadata.setContentType(readContentType(bucketName, objectName));
+            // 与常见静态文件服务器一致，由修改时间和大小生成ETag，避免读取文件内容
+            metadata.setEtag(Long.toHexString(lastModified) + "-" + Long.toHexString(attributes.size()));
+            metadata.setLastModified(lastModified);
+            return metadata;
+        } catch (IOException e) {
+            throw translate("获取对象元数据失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void removeObject(String bucketName, String objectName) {
+        try {
+            Files.deleteIfExists(resolve(bucketName, objectName));
+            Files.deleteIfExists(resolveMeta(bucketName, objectName));
+        } catch (IOException e) {
+            throw translate("删除对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public Map<String, String> removeObjects(String bucketName, List<String> objectNames) {
+        Map<String, String> errors = new HashMap<>();
+        for (String objectName : objectNames) {
+            try {
+                removeObject(bucketName, objectName);
+            } catch (BusinessException e) {
+                errors.put(objectName, e.getMessage());
+            }
+        }
+        return errors;
+    }
+    
+    @Override
+    public void copyObject(String bucketName, String sourceObjectName, String targetObjectName) {
+        Path source = resolve(bucketName, sourceObjectName);
+        Path target = resolve(bucketName, targetObjectName);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            writeContentType(bucketName, targetObjectName, readContentType(bucketName, sourceObjectName));
+        } catch (IOException e) {
+            throw translate("复制对象失败", sourceObjectName, e);
+        }
+    }
+    
+    @Override
+    public String getPresignedUrl(String bucketName, String objectName, long expireSeconds) {
+        // 未绑定文件ID的对象名按自身解析，下载接口可直接使用对象名访问
+        return urlPrefix + URLEncoder.encode(objectName, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public String initiateMultipartUpload(String bucketName, String objectName, String contentType) {
+        resolve(bucketName, objectName);
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Path uploadDir = Files.createDirectories(root.resolve(UPLOADS_DIR).resolve(uploadId));
+            if (contentType != null) {
+                Files.writeString(uploadDir.resolve(CONTENT_TYPE_FILE), contentType, StandardCharsets.UTF_8);
+            }
+            return uploadId;
+        } catch (IOException e) {
+            throw translate("初始化分片上传失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public String uploadPart(String bucketName, String objectName, String uploadId, int partNumber,
+                             InputStream inputStream, long size) {
+        Path uploadDir = resolveUpload(uploadId);
+        Path part = uploadDir.resolve(String.valueOf(partNumber));
+        Path temp = uploadDir.resolve(partNumber + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            long written = Files.copy(inputStream, temp);
+            Files.move(temp, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return Long.toHexString(Files.getLastModifiedTime(part).toMillis()) + "-" + Long.toHexString(written);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw translate("上传分片失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void completeMultipartUpload(String bucketName, String objectName, String uploadId,
+                                        SortedMap<Integer, String> partETags) {
+        Path uploadDir = resolveUpload(uploadId);
+        Path target = resolve(bucketName, objectName);
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            Files.createDirectories(target.getParent());
+            // 按分片序号顺序拼接，分片之间通过transferTo复制，不经过堆内缓冲
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                for (Integer partNumber : partETags.keySet()) {
+                    try (FileChannel in = FileChannel.open(uploadDir.resolve(String.valueOf(partNumber)),
+                            StandardOpenOption.READ)) {
+                        LocalFiles.transfer(in, 0, in.size(), out);
+                    }
+                }
+            }
+            writeContentType(bucketName, objectName, readUploadContentType(uploadDir));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteDirectory(uploadDir);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw translate("合并分片失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void abortMultipartUpload(String bucketName, String objectName, String uploadId) {
+        try {
+            deleteDirectory(resolveUpload(uploadId));
+        } catch (IOException e) {
+            throw translate("取消分片上传失败", objectName, e);
+        }
+    }
+    
+    private Path resolveUpload(String uploadId) {
+        Path uploadDir = resolveUnder(root.resolve(UPLOADS_DIR), uploadId);
+        if (!Files.isDirectory(uploadDir)) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "分片上传不存在");
+        }
+        return uploadDir;
+    }
+    
+    private String readUploadContentType(Path uploadDir) {
+        try {
+            return Files.readString(uploadDir.resolve(CONTENT_TYPE_FILE), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    private void deleteDirectory(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+    
+    /**
+     * 解析对象的本地路径，拒绝通过 ../ 等方式访问存储桶目录之外的文件
+     */
+    private Path resolve(String bucketName, String objectName) {
+        return resolveUnder(resolveBucket(root, bucketName), objectName);
+    }
+    
+    private Path resolveMeta(String bucketName, String objectName) {
+        return resolveUnder(resolveBucket(root.resolve(META_DIR), bucketName), objectName);
+    }
+    
+    /**
+     * 存储桶名来自调用方，需按命名规则校验，避免访问根目录之外或内部目录
+     */
+    private Path resolveBucket(Path base, String bucketName) {
+        if (bucketName == null || !BUCKET_NAME_PATTERN.matcher(bucketName).matches() || bucketName.contains("..")) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "非法的存储桶名: " + bucketName);
+        }
+        return resolveUnder(base, bucketName);
+    }
+    
+    private Path resolveUnder(Path base, String objectName) {
+        Path bucketDir = base.normalize();
+        Path path = bucketDir.resolve(objectName).normalize();
+        if (!path.startsWith(bucketDir) || path.equals(bucketDir)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "非法的对象名: " + objectName);
+        }
+        return path;
+    }
+    
+    private void writeContentType(String bucketName, String objectName, String contentType) throws IOException {
+        Path meta = resolveMeta(bucketName, objectName);
+        if (contentType == null) {
+            Files.deleteIfExists(meta);
+            return;
+        }
+        Files.createDirectories(meta.getParent());
+        Files.writeString(meta, contentType, StandardCharsets.UTF_8);
+    }
+    
+    private String readContentType(String bucketName, String objectName) {
+        try {
+            return Files.readString(resolveMeta(bucketName, objectName), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    private BusinessException translate(String action, String objectName, IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return new BusinessException(ResultCode.NOT_FOUND.getCode(), "文件不存在");
+        }
+        log.error("本地存储{}: {}", action, objectName, e);
+        return new BusinessException(ResultCode.ERROR.getCode(), action + ": " + e.getMessage());
+    }
+    
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除临时文件失败: {}, {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.yitong.base.storage.backend.impl;
+
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.storage.backend.StorageBackend;
+import com.yitong.base.storage.model.ObjectContent;
+import com.yitong.base.storage.model.ObjectMetadata;
+import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Part;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MinIO存储后端实现
+ */
+@Slf4j
+@Component
+public class MinioStorageBackend implements StorageBackend {
+    
+    @Value("${minio.endpoint:http://localhost:9000}")
+    private String endpoint;
+    
+    @Value("${minio.access-key:minioadmin}")
+    private String accessKey;
+    
+    @Value("${minio.secret-key:minioadmin}")
+    private String secretKey;
+    
+    @Value("${minio.bucket-name:yt-base}")
+    private String defaultBucketName;
+    
+    @Value("${minio.part-size:10485760}")
+    private long partSize;
+    
+    @Value("${storage.upload.max-part-size:33554432}")
+    private long maxPartSize;
+    
+    private MinioClient minioClient;
+    
+    private MultipartMinioClient multipartClient;
+    
+    @Override
+    public String getBackendName() {
+        return "minio";
+    }
+    
+    @PostConstruct
+    @Override
+    public void initialize() {
+        try {
+            MinioClient client = MinioClient.builder()
+                    .endpoint(endpoint)
+                    .credentials(accessKey, secretKey)
+                    .build();
+            
+            // 检查默认存储桶是否存在，不存在则创建
+            boolean exists = client.bucketExists(BucketExistsArgs.builder()
+                    .bucket(defaultBucketName)
+                    .build());
+            
+            if (!exists) {
+                client.makeBucket(MakeBucketArgs.builder()
+                        .bucket(defaultBucketName)
+                        .build());
+                log.info("创建默认存储桶: {}", defaultBucketName);
+            }
+            minioClient = client;
+            multipartClient = new MultipartMinioClient(MinioAsyncClient.builder()
+                    .endpoint(endpoint)
+                    .credentials(accessKey, secretKey)
+                    .build());
+            log.info("MinIO客户端初始化成功");
+            
+        } catch (Exception e) {
+            log.warn("MinIO初始化失败: {}", e.getMessage());
+        }
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return minioClient != null;
+    }
+    
+    @Override
+    public String getDefaultBucketName() {
+        return defaultBucketName;
+    }
+    
+    @Override
+    public void putObject(String bucketName, String objectName, InputStream inputStream, long size, String contentType) {
+        try {
+            // 超过分片大小时自动走分片上传，内存占用以分片大小为上限
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .stream(inputStream, size, partSize)
+                    .contentType(contentType)
+                    .build());
+        } catch (Exception e) {
+            throw translate("上传对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public ObjectContent getObject(String bucketName, String objectName, long offset, Long length) {
+        GetObjectArgs.Builder builder = GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName);
+        if (offset > 0 || length != null) {
+            builder.offset(offset);
+        }
+        if (length != null) {
+            builder.length(length);
+        }
+        
+        try {
+            GetObjectResponse response = minioClient.getObject(builder.build());
+            // 范围读取时总大小取自Content-Range响应头，省去一次statObject
+            String contentRange = response.headers().get("Content-Range");
+            long totalSize = contentRange != null ? parseTotalSize(contentRange) :
+                    parseLong(response.headers().get("Content-Length"));
+            return new ObjectContent(response, totalSize);
+        } catch (Exception e) {
+            throw translate("读取对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public ObjectMetadata statObject(String bucketName, String objectName) {
+        try {
+            StatObjectResponse stat = minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .build());
+            
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setBucketName(bucketName);
+            metadata.setObjectName(objectName);
+            metadata.setSize(stat.size());
+            metadata.setContentType(stat.contentType());
+            metadata.setEtag(stat.etag());
+            metadata.setLastModified(stat.lastModified().toInstant().toEpochMilli());
+            return metadata;
+        } catch (Exception e) {
+            throw translate("获取对象元数据失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void removeObject(String bucketName, String objectName) {
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .build());
+        } catch (Exception e) {
+            throw translate("删除对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public Map<String, String> removeObjects(String bucketName, List<String> objectNames) {
+        List<DeleteObject> objects = new ArrayList<>(objectNames.size());
+        for (String objectName : objectNames) {
+            objects.add(new DeleteObject(objectName));
+        }
+        
+        // removeObjects为惰性执行，必须遍历结果才会真正发起请求
+        Iterable<Result<DeleteError>> results = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                .bucket(bucketName)
+                .objects(objects)
+                .build());
+        Map<String, String> errors = new HashMap<>();
+        try {
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                errors.put(error.objectName(), error.message());
+            }
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.FILE_DELETE_FAILED.getCode(), "批量删除文件失败: " + e.getMessage());
+        }
+        return errors;
+    }
+    
+    @Override
+    public void copyObject(String bucketName, String sourceObjectName, String targetObjectName) {
+        try {
+            minioClient.copyObject(CopyObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(targetObjectName)
+                    .source(CopySource.builder()
+                            .bucket(bucketName)
+                            .object(sourceObjectName)
+                            .build())
+                    .build());
+        } catch (Exception e) {
+            throw translate("服务端复制对象失败", sourceObjectName, e);
+        }
+    }
+    
+    @Override
+    public String getPresignedUrl(String bucketName, String objectName, long expireSeconds) {
+        try {
+            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .method(Method.GET)
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .expiry((int) expireSeconds, TimeUnit.SECONDS)
+                    .build());
+        } catch (Exception e) {
+            throw translate("生成预签名URL失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public String initiateMultipartUpload(String bucketName, String objectName, String contentType) {
+        try {
+            return multipartClient.initiate(bucketName, objectName, contentType);
+        } catch (Exception e) {
+            throw translate("初始化分片上传失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public String uploadPart(String bucketName, String objectName, String uploadId, int partNumber,
+                             InputStream inputStream, long size) {
+        if (size < 0 || size > maxPartSize) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "分片大小超出限制: " + maxPartSize);
+        }
+        try {
+            // SDK的UploadPart只接受字节数组或文件，分片大小受max-part-size限制
+            byte[] data = inputStream.readNBytes((int) size);
+            if (data.length != size) {
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "分片内容不完整");
+            }
+            return multipartClient.uploadPart(bucketName, objectName, uploadId, partNumber, data);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw translate("上传分片失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void completeMultipartUpload(String bucketName, String objectName, String uploadId,
+                                        SortedMap<Integer, String> partETags) {
+        Part[] parts = new Part[partETags.size()];
+        int index = 0;
+        for (Map.Entry<Integer, String> entry : partETags.entrySet()) {
+            parts[index++] = new Part(entry.getKey(), entry.getValue());
+        }
+        try {
+            multipartClient.complete(bucketName, objectName, uploadId, parts);
+        } catch (Exception e) {
+            throw translate("合并分片失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void abortMultipartUpload(String bucketName, String objectName, String uploadId) {
+        try {
+            multipartClient.abort(bucketName, objectName, uploadId);
+        } catch (Exception e) {
+            throw translate("取消分片上传失败", objectName, e);
+        }
+    }
+    
+    /**
+     * 将MinIO异常转换为业务异常，对象不存在时使用NOT_FOUND
+     */
+    private BusinessException translate(String action, String objectName, Exception e) {
+        if (e instanceof ErrorResponseException
+                && ("NoSuchKey".equals(((ErrorResponseException) e).errorResponse().code())
+                || "NoSuchUpload".equals(((ErrorResponseException) e).errorResponse().code()))) {
+            return new BusinessException(ResultCode.NOT_FOUND.getCode(), "文件不存在");
+        }
+        log.error("MinIO{}: {}", action, objectName, e);
+        return new BusinessException(ResultCode.ERROR.getCode(), action + ": " + e.getMessage());
+    }
+    
+    /**
+     * 从Content-Range响应头（bytes start-end/total）中解析文件总大小
+     */
+    private long parseTotalSize(String contentRange) {
+        int slash = contentRange.lastIndexOf('/');
+        if (slash >= 0 && slash < contentRange.length() - 1 && contentRange.charAt(slash + 1) != '*') {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        }
+        return -1;
+    }
+    
+    private long parseLong(String value) {
+        return value != null ? Long.parseLong(value.trim()) : -1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.yitong.base.storage.backend.impl;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.messages.Part;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 开放分片上传底层接口的MinIO客户端
+ * MinIO SDK只在内部使用CreateMultipartUpload/UploadPart等接口，
+ * 可续传的上传会话需要由调用方自行管理uploadId和各分片，因此通过子类开放这些方法
+ */
+class MultipartMinioClient extends MinioAsyncClient {
+    
+    MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+    
+    String initiate(String bucketName, String objectName, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put("Content-Type", contentType);
+        return await(createMultipartUploadAsync(bucketName, null, objectName, headers, null))
+                .result().uploadId();
+    }
+    
+    String uploadPart(String bucketName, String objectName, String uploadId, int partNumber, byte[] data)
+            throws Exception {
+        return await(uploadPartAsync(bucketName, null, objectName, data, data.length, uploadId, partNumber,
+                null, null)).etag();
+    }
+    
+    void complete(String bucketName, String objectName, String uploadId, Part[] parts) throws Exception {
+        await(completeMultipartUploadAsync(bucketName, null, objectName, uploadId, parts, null, null));
+    }
+    
+    void abort(String bucketName, String objectName, String uploadId) throws Exception {
+        await(abortMultipartUploadAsync(bucketName, null, objectName, uploadId, null, null));
+    }
+    
+    private <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // 还原SDK抛出的原始异常，便于识别NoSuchKey/NoSuchUpload等错误码
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+}
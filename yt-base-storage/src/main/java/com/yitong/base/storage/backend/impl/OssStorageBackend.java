@@ -0,0 +1,269 @@
+package com.yitong.base.storage.backend.impl;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.DeleteObjectsRequest;
+import com.aliyun.oss.model.DeleteObjectsResult;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.UploadPartRequest;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.storage.backend.StorageBackend;
+import com.yitong.base.storage.model.ObjectContent;
+import com.yitong.base.storage.model.ObjectMetadata;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * 阿里云OSS存储后端实现
+ */
+@Slf4j
+@Component
+public class OssStorageBackend implements StorageBackend {
+    
+    @Value("${aliyun.oss.endpoint:}")
+    private String endpoint;
+    
+    @Value("${aliyun.oss.access-key-id:}")
+    private String accessKeyId;
+    
+    @Value("${aliyun.oss.access-key-secret:}")
+    private String accessKeySecret;
+    
+    @Value("${aliyun.oss.bucket-name:yt-base}")
+    private String defaultBucketName;
+    
+    private OSS ossClient;
+    
+    @Override
+    public String getBackendName() {
+        return "oss";
+    }
+    
+    @PostConstruct
+    @Override
+    public void initialize() {
+        if (endpoint != null && !endpoint.isEmpty() && accessKeyId != null && !accessKeyId.isEmpty()) {
+            try {
+                ossClient = new OSSClientBuilder().build(endpoint, accessKeyId, accessKeySecret);
+                log.info("阿里云OSS客户端初始化成功");
+            } catch (Exception e) {
+                log.warn("阿里云OSS客户端初始化失败: {}", e.getMessage());
+            }
+        } else {
+            log.warn("阿里云OSS配置不完整，OSS存储后端不可用");
+        }
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        if (ossClient != null) {
+            ossClient.shutdown();
+        }
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return ossClient != null;
+    }
+    
+    @Override
+    public String getDefaultBucketName() {
+        return defaultBucketName;
+    }
+    
+    @Override
+    public void putObject(String bucketName, String objectName, InputStream inputStream, long size, String contentType) {
+        com.aliyun.oss.model.ObjectMetadata metadata = new com.aliyun.oss.model.ObjectMetadata();
+        metadata.setContentType(contentType);
+        if (size >= 0) {
+            metadata.setContentLength(size);
+        }
+        try {
+            // 未指定长度时SDK使用分块传输编码，不会缓冲整个文件
+            ossClient.putObject(bucketName, objectName, inputStream, metadata);
+        } catch (Exception e) {
+            throw translate("上传对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public ObjectContent getObject(String bucketName, String objectName, long offset, Long length) {
+        GetObjectRequest request = new GetObjectRequest(bucketName, objectName);
+        if (length != null) {
+            request.setRange(offset, offset + length - 1);
+        } else if (offset > 0) {
+            request.setRange(offset, -1);
+        }
+        
+        try {
+            OSSObject object = ossClient.getObject(request);
+            // 范围读取时Content-Range中包含总大小
+            Object contentRange = object.getObjectMetadata().getRawMetadata().get("Content-Range");
+            long totalSize = contentRange != null ? parseTotalSize(contentRange.toString()) :
+                    object.getObjectMetadata().getContentLength();
+            return new ObjectContent(object.getObjectContent(), totalSize);
+        } catch (Exception e) {
+            throw translate("读取对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public ObjectMetadata statObject(String bucketName, String objectName) {
+        try {
+            com.aliyun.oss.model.ObjectMetadata stat = ossClient.getObjectMetadata(bucketName, objectName);
+            
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setBucketName(bucketName);
+            metadata.setObjectName(objectName);
+            metadata.setSize(stat.getContentLength());
+            metadata.setContentType(stat.getContentType());
+            metadata.setEtag(stat.getETag());
+            metadata.setLastModified(stat.getLastModified() != null ? stat.getLastModified().getTime() : 0L);
+            return metadata;
+        } catch (Exception e) {
+            throw translate("获取对象元数据失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void removeObject(String bucketName, String objectName) {
+        try {
+            ossClient.deleteObject(bucketName, objectName);
+        } catch (Exception e) {
+            throw translate("删除对象失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public Map<String, String> removeObjects(String bucketName, List<String> objectNames) {
+        DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName);
+        request.setKeys(objectNames);
+        // 非静默模式下返回成功删除的对象，未出现在结果中的即为删除失败
+        request.setQuiet(false);
+        
+        Map<String, String> errors = new HashMap<>();
+        try {
+            DeleteObjectsResult result = ossClient.deleteObjects(request);
+            Set<String> deleted = new HashSet<>(result.getDeletedObjects());
+            for (String objectName : objectNames) {
+                if (!deleted.contains(objectName)) {
+                    errors.put(objectName, "删除失败");
+                }
+            }
+        } catch (Exception e) {
+            throw new BusinessException(ResultCode.FILE_DELETE_FAILED.getCode(), "批量删除文件失败: " + e.getMessage());
+        }
+        return errors;
+    }
+    
+    @Override
+    public void copyObject(String bucketName, String sourceObjectName, String targetObjectName) {
+        try {
+            ossClient.copyObject(bucketName, sourceObjectName, bucketName, targetObjectName);
+        } catch (Exception e) {
+            throw translate("服务端复制对象失败", sourceObjectName, e);
+        }
+    }
+    
+    @Override
+    public String getPresignedUrl(String bucketName, String objectName, long expireSeconds) {
+        try {
+            Date expiration = new Date(System.currentTimeMillis() + expireSeconds * 1000);
+            return ossClient.generatePresignedUrl(bucketName, objectName, expiration).toString();
+        } catch (Exception e) {
+            throw translate("生成预签名URL失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public String initiateMultipartUpload(String bucketName, String objectName, String contentType) {
+        com.aliyun.oss.model.ObjectMetadata metadata = new com.aliyun.oss.model.ObjectMetadata();
+        metadata.setContentType(contentType);
+        try {
+            return ossClient.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest(bucketName, objectName, metadata)).getUploadId();
+        } catch (Exception e) {
+            throw translate("初始化分片上传失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public String uploadPart(String bucketName, String objectName, String uploadId, int partNumber,
+                             InputStream inputStream, long size) {
+        UploadPartRequest request = new UploadPartRequest(bucketName, objectName, uploadId, partNumber,
+                inputStream, size);
+        try {
+            return ossClient.uploadPart(request).getETag();
+        } catch (Exception e) {
+            throw translate("上传分片失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void completeMultipartUpload(String bucketName, String objectName, String uploadId,
+                                        SortedMap<Integer, String> partETags) {
+        List<PartETag> parts = new ArrayList<>(partETags.size());
+        for (Map.Entry<Integer, String> entry : partETags.entrySet()) {
+            parts.add(new PartETag(entry.getKey(), entry.getValue()));
+        }
+        try {
+            ossClient.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, objectName, uploadId, parts));
+        } catch (Exception e) {
+            throw translate("合并分片失败", objectName, e);
+        }
+    }
+    
+    @Override
+    public void abortMultipartUpload(String bucketName, String objectName, String uploadId) {
+        try {
+            ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, objectName, uploadId));
+        } catch (Exception e) {
+            throw translate("取消分片上传失败", objectName, e);
+        }
+    }
+    
+    /**
+     * 将OSS异常转换为业务异常，对象不存在时使用NOT_FOUND
+     */
+    private BusinessException translate(String action, String objectName, Exception e) {
+        if (e instanceof OSSException && (OSSErrorCode.NO_SUCH_KEY.equals(((OSSException) e).getErrorCode())
+                || OSSErrorCode.NO_SUCH_UPLOAD.equals(((OSSException) e).getErrorCode()))) {
+            return new BusinessException(ResultCode.NOT_FOUND.getCode(), "文件不存在");
+        }
+        log.error("OSS{}: {}", action, objectName, e);
+        return new BusinessException(ResultCode.ERROR.getCode(), action + ": " + e.getMessage());
+    }
+    
+    /**
+     * 从Content-Range响应头（bytes start-end/total）中解析文件总大小
+     */
+    private long parseTotalSize(String contentRange) {
+        int slash = contentRange.lastIndexOf('/');
+        if (slash >= 0 && slash < contentRange.length() - 1 && contentRange.charAt(slash + 1) != '*') {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        }
+        return -1;
+    }
+}
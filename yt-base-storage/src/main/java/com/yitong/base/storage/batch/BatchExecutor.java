@@ -0,0 +1,121 @@
+package com.yitong.base.storage.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 批量任务执行器
+ * 基于有界线程池并发执行批量操作中的各项，单项失败不影响其他项
+ */
+@Slf4j
+@Component
+public class BatchExecutor {
+    
+    @Value("${storage.batch.parallelism:16}")
+    private int parallelism;
+    
+    @Value("${storage.batch.queue-capacity:1024}")
+    private int queueCapacity;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "storage-batch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // 队列满时由提交线程执行，形成自然背压
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        log.info("批量任务执行器初始化完成，并发度: {}, 队列容量: {}", parallelism, queueCapacity);
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+    
+    /**
+     * 并发执行批量任务并等待全部完成
+     *
+     * @param items 待处理项
+     * @param task 单项处理逻辑
+     * @return 逐项结果，顺序与输入一致
+     */
+    public <T, R> List<Outcome<R>> execute(List<T> items, Function<T, R> task) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(item), executor));
+        }
+        
+        List<Outcome<R>> outcomes = new ArrayList<>(items.size());
+        for (CompletableFuture<R> future : futures) {
+            try {
+                outcomes.add(Outcome.success(future.join()));
+            } catch (CompletionException e) {
+                outcomes.add(Outcome.failure(e.getCause() != null ? e.getCause() : e));
+            }
+        }
+        return outcomes;
+    }
+    
+    /**
+     * @return 配置的并发度
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    /**
+     * 单项执行结果
+     */
+    public static final class Outcome<R> {
+        
+        private final R value;
+        
+        private final Throwable error;
+        
+        private Outcome(R value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+        
+        static <R> Outcome<R> success(R value) {
+            return new Outcome<>(value, null);
+        }
+        
+        static <R> Outcome<R> failure(Throwable error) {
+            return new Outcome<>(null, error);
+        }
+        
+        public boolean isSuccess() {
+            return error == null;
+        }
+        
+        public R getValue() {
+            return value;
+        }
+        
+        public Throwable getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.yitong.base.storage.cache;
+
+import com.alibaba.fastjson2.JSON;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.storage.model.ObjectMetadata;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 文件元数据缓存
+ * <p>
+ * 文件信息采用两级缓存：进程内Caffeine（按条数淘汰）+ Redis共享缓存，
+ * 删除、移动等操作通过Redis发布订阅通知所有节点失效本地缓存。
+ * 预签名URL在本地计算签名即可得到，只缓存在进程内，缓存时长按URL有效期的比例计算，
+ * 保证返回给调用方的URL剩余有效期不低于请求有效期的 (1 - url-ttl-ratio)。
+ * 对象元数据（大小、ETag、内容类型）按对象名缓存在进程内，对象内容不可变，只在对象被物理删除时失效，
+ * 下载时无需每次向存储后端statObject。
+ */
+@Slf4j
+@Component
+public class FileMetadataCache implements MessageListener {
+    
+    /**
+     * 缓存失效通知频道
+     */
+    public static final String INVALIDATE_CHANNEL = "storage:cache:invalidate";
+    
+    private static final String INFO_KEY_PREFIX = "storage:cache:info:";
+    
+    @Value("${storage.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${storage.cache.local-max-size:10000}")
+    private long localMaxSize;
+    
+    @Value("${storage.cache.local-ttl-seconds:60}")
+    private long localTtlSeconds;
+    
+    @Value("${storage.cache.redis-ttl-seconds:300}")
+    private long redisTtlSeconds;
+    
+    @Value("${storage.cache.url-max-size:10000}")
+    private long urlMaxSize;
+    
+    @Value("${storage.cache.url-ttl-ratio:0.1}")
+    private double urlTtlRatio;
+    
+    @Value("${storage.cache.object-max-size:10000}")
+    private long objectMaxSize;
+    
+    @Value("${storage.cache.object-ttl-seconds:600}")
+    private long objectTtlSeconds;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    private Cache<String, FileInfo> localInfoCache;
+    
+    private Cache<UrlKey, UrlEntry> urlCache;
+    
+    private Cache<String, ObjectMetadata> objectMetadataCache;
+    
+    private final LongAdder redisHits = new LongAdder();
+    
+    private final LongAdder redisMisses = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        localInfoCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        
+        urlCache = Caffeine.newBuilder()
+                .maximumSize(urlMaxSize)
+                .expireAfter(new Expiry<UrlKey, UrlEntry>() {
+                    @Override
+                    public long expireAfterCreate(UrlKey key, UrlEntry value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(UrlKey key, UrlEntry value, long currentTime, long currentDuration) {
+                        return value.ttlNanos();
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(UrlKey key, UrlEntry value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        
+        objectMetadataCache = Caffeine.newBuilder()
+                .maximumSize(objectMaxSize)
+                .expireAfterWrite(objectTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * 获取文件信息，依次查询本地缓存、Redis，均未命中时调用loader加载并回填
+     *
+     * @param fileId 文件ID
+     * @param loader 加载函数
+     * @return 文件信息
+     */
+    public FileInfo getFileInfo(String fileId, Function<String, FileInfo> loader) {
+        if (!enabled) {
+            return loader.apply(fileId);
+        }
+        return localInfoCache.get(fileId, key -> {
+            FileInfo cached = getFromRedis(key);
+            if (cached != null) {
+                return cached;
+            }
+            FileInfo loaded = loader.apply(key);
+            putToRedis(key, loaded);
+            return loaded;
+        });
+    }
+    
+    /**
+     * 写入文件信息（上传完成后直接回填，后续查询无需再访问对象存储）
+     */
+    public void putFileInfo(FileInfo fileInfo) {
+        if (!enabled || fileInfo == null) {
+            return;
+        }
+        localInfoCache.put(fileInfo.getFileId(), fileInfo);
+        putToRedis(fileInfo.getFileId(), fileInfo);
+    }
+    
+    /**
+     * 获取预签名URL
+     *
+     * @param objectName 对象名
+     * @param expireSeconds URL有效期（秒）
+     * @param signer 签名函数
+     * @return 预签名URL
+     */
+    public String getPresignedUrl(String objectName, long expireSeconds, Supplier<String> signer) {
+        long ttlSeconds = (long) (expireSeconds * urlTtlRatio);
+        if (!enabled || ttlSeconds <= 0) {
+            return signer.get();
+        }
+        UrlEntry entry = urlCache.get(new UrlKey(objectName, expireSeconds), key -> {
+            String url = signer.get();
+            return url != null ? new UrlEntry(url, TimeUnit.SECONDS.toNanos(ttlSeconds)) : null;
+        });
+        return entry != null ? entry.url() : null;
+    }
+    
+    /**
+     * 获取对象元数据，未命中时调用loader向存储后端查询并缓存
+     *
+     * @param objectName 对象名
+     * @param loader 查询函数
+     * @return 对象元数据
+     */
+    public ObjectMetadata getObjectMetadata(String objectName, Function<String, ObjectMetadata> loader) {
+        if (!enabled) {
+            return loader.apply(objectName);
+        }
+        return objectMetadataCache.get(objectName, loader);
+    }
+    
+    /**
+     * 失效文件相关缓存，并通知其他节点
+     *
+     * @param fileId 文件ID
+     * @param objectName 对象名，可为null
+     */
+    public void invalidate(String fileId, String objectName) {
+        if (!enabled) {
+            return;
+        }
+        evictLocal(fileId, objectName);
+        try {
+            redisTemplate.delete(INFO_KEY_PREFIX + fileId);
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL,
+                    fileId + "|" + (objectName != null ? objectName : ""));
+        } catch (Exception e) {
+            log.warn("失效Redis文件缓存失败: {}, {}", fileId, e.getMessage());
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0) {
+            return;
+        }
+        String objectName = body.substring(separator + 1);
+        evictLocal(body.substring(0, separator), objectName.isEmpty() ? null : objectName);
+    }
+    
+    /**
+     * 获取缓存命中统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("localFileInfo", toMap(localInfoCache.stats(), localInfoCache.estimatedSize()));
+        
+        long hits = redisHits.sum();
+        long misses = redisMisses.sum();
+        Map<String, Object> redisStats = new LinkedHashMap<>();
+        redisStats.put("hitCount", hits);
+        redisStats.put("missCount", misses);
+        redisStats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("redisFileInfo", redisStats);
+        
+        stats.put("presignedUrl", toMap(urlCache.stats(), urlCache.estimatedSize()));
+        stats.put("objectMetadata", toMap(objectMetadataCache.stats(), objectMetadataCache.estimatedSize()));
+        return stats;
+    }
+    
+    private void evictLocal(String fileId, String objectName) {
+        localInfoCache.invalidate(fileId);
+        if (objectName != null) {
+            urlCache.asMap().keySet().removeIf(key -> key.objectName().equals(objectName));
+            objectMetadataCache.invalidate(objectName);
+        }
+    }
+    
+    private FileInfo getFromRedis(String fileId) {
+        try {
+            String json = redisTemplate.opsForValue().get(INFO_KEY_PREFIX + fileId);
+            if (json != null) {
+                redisHits.increment();
+                return JSON.parseObject(json, FileInfo.class);
+            }
+        } catch (Exception e) {
+            log.warn("读取Redis文件缓存失败: {}, {}", fileId, e.getMessage());
+        }
+        redisMisses.increment();
+        return null;
+    }
+    
+    private void putToRedis(String fileId, FileInfo fileInfo) {
+        if (fileInfo == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(INFO_KEY_PREFIX + fileId, JSON.toJSONString(fileInfo),
+                    redisTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入Redis文件缓存失败: {}, {}", fileId, e.getMessage());
+        }
+    }
+    
+    private Map<String, Object> toMap(CacheStats cacheStats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hitCount", cacheStats.hitCount());
+        map.put("missCount", cacheStats.missCount());
+        map.put("hitRate", cacheStats.hitRate());
+        map.put("evictionCount", cacheStats.evictionCount());
+        return map;
+    }
+    
+    private record UrlKey(String objectName, long expireSeconds) {
+    }
+    
+    private record UrlEntry(String url, long ttlNanos) {
+    }
+}
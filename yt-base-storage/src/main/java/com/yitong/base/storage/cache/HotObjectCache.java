@@ -0,0 +1,280 @@
+package com.yitong.base.storage.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.yitong.base.storage.model.ObjectContent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 热点对象本地磁盘缓存
+ * <p>
+ * 在存储后端之前增加一层本地SSD读穿缓存，按对象名缓存完整对象内容，容量按字节计算，
+ * 淘汰策略为Caffeine的W-TinyLFU。对象名对应的内容不可变（去重后多个文件ID共享同一对象），
+ * 只有对象被物理删除时才需要失效，失效通过Redis发布订阅通知所有节点。
+ * 被淘汰的缓存文件延迟删除，保证已交给容器sendfile发送的文件在发送期间仍然存在。
+ */
+@Slf4j
+@Component
+public class HotObjectCache implements MessageListener {
+    
+    /**
+     * 热点缓存失效通知频道
+     */
+    public static final String INVALIDATE_CHANNEL = "storage:hot-cache:invalidate";
+    
+    private static final String TEMP_SUFFIX = ".loading";
+    
+    @Value("${storage.hot-cache.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${storage.hot-cache.dir:./data/hot-cache}")
+    private String cacheDir;
+    
+    @Value("${storage.hot-cache.max-bytes:10737418240}")
+    private long maxBytes;
+    
+    @Value("${storage.hot-cache.max-object-size:67108864}")
+    private long maxObjectSize;
+    
+    @Value("${storage.hot-cache.delete-delay-seconds:60}")
+    private long deleteDelaySeconds;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    private Path root;
+    
+    private AsyncCache<String, CachedObject> cache;
+    
+    /**
+     * 超过单对象上限的对象名，避免每次都重新探测大小
+     */
+    private Cache<String, Boolean> oversizeObjects;
+    
+    private ScheduledExecutorService deleteScheduler;
+    
+    private final LongAdder hits = new LongAdder();
+    
+    private final LongAdder misses = new LongAdder();
+    
+    private final LongAdder bypasses = new LongAdder();
+    
+    private final LongAdder loadFailures = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            root = Paths.get(cacheDir).toAbsolutePath().normalize();
+            Files.createDirectories(root);
+            // 缓存索引只在内存中，重启后残留的文件无法再被引用
+            clearDirectory(root);
+        } catch (IOException e) {
+            log.warn("热点对象缓存目录初始化失败，缓存不启用: {}", e.getMessage());
+            enabled = false;
+            return;
+        }
+        
+        deleteScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-hot-cache-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedObject value) -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, value.size())))
+                .removalListener((String key, CachedObject value, RemovalCause cause) -> {
+                    if (value != null) {
+                        scheduleDelete(value.path());
+                    }
+                })
+                .buildAsync();
+        oversizeObjects = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(1, TimeUnit.HOURS)
+                .build();
+        log.info("热点对象缓存已启用，目录: {}, 容量: {} 字节", root, maxBytes);
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        if (deleteScheduler != null) {
+            deleteScheduler.shutdownNow();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * 获取对象的本地缓存文件，未命中时通过fetcher读取完整对象写入缓存；
+     * 同一对象的并发请求只会加载一次，其余请求等待加载完成
+     *
+     * @param objectName 对象名
+     * @param fetcher 从存储后端读取完整对象的函数
+     * @return 缓存文件路径，缓存未启用、对象超过单对象上限或加载失败时返回null
+     */
+    public Path get(String objectName, Function<String, ObjectContent> fetcher) {
+        if (!enabled || oversizeObjects.getIfPresent(objectName) != null) {
+            bypasses.increment();
+            return null;
+        }
+        
+        CompletableFuture<CachedObject> future = new CompletableFuture<>();
+        CompletableFuture<CachedObject> existing = cache.asMap().putIfAbsent(objectName, future);
+        if (existing != null) {
+            hits.increment();
+            return join(objectName, existing);
+        }
+        
+        misses.increment();
+        // 在当前线程加载，加载失败或结果为null时Caffeine会自动移除该条目
+        try {
+            future.complete(load(objectName, fetcher));
+        } catch (Exception e) {
+            loadFailures.increment();
+            log.warn("加载热点对象缓存失败: {}, {}", objectName, e.getMessage());
+            future.completeExceptionally(e);
+        }
+        return join(objectName, future);
+    }
+    
+    /**
+     * 失效对象缓存，并通知其他节点
+     *
+     * @param objectName 对象名
+     */
+    public void invalidate(String objectName) {
+        if (!enabled || objectName == null) {
+            return;
+        }
+        evictLocal(objectName);
+        try {
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL, objectName);
+        } catch (Exception e) {
+            log.warn("发送热点缓存失效通知失败: {}, {}", objectName, e.getMessage());
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (enabled) {
+            evictLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * 获取缓存命中统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("entries", cache.synchronous().estimatedSize());
+        stats.put("weightedBytes", cache.synchronous().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        stats.put("maxBytes", maxBytes);
+        stats.put("hitCount", hitCount);
+        stats.put("missCount", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("bypassCount", bypasses.sum());
+        stats.put("loadFailureCount", loadFailures.sum());
+        return stats;
+    }
+    
+    private CachedObject load(String objectName, Function<String, ObjectContent> fetcher) throws IOException {
+        try (ObjectContent content = fetcher.apply(objectName)) {
+            if (content.getTotalSize() < 0 || content.getTotalSize() > maxObjectSize) {
+                oversizeObjects.put(objectName, Boolean.TRUE);
+                return null;
+            }
+            
+            Path target = root.resolve(UUID.randomUUID().toString());
+            Path temp = root.resolve(target.getFileName() + TEMP_SUFFIX);
+            try (InputStream inputStream = content.getInputStream()) {
+                long size = Files.copy(inputStream, temp);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                return new CachedObject(target, size);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+        }
+    }
+    
+    private Path join(String objectName, CompletableFuture<CachedObject> future) {
+        try {
+            CachedObject cached = future.join();
+            return cached != null ? cached.path() : null;
+        } catch (CompletionException e) {
+            // 加载失败时由调用方直接读取存储后端
+            return null;
+        }
+    }
+    
+    private void evictLocal(String objectName) {
+        cache.synchronous().invalidate(objectName);
+        oversizeObjects.invalidate(objectName);
+    }
+    
+    private void scheduleDelete(Path path) {
+        try {
+            deleteScheduler.schedule(() -> deleteQuietly(path), deleteDelaySeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            deleteQuietly(path);
+        }
+    }
+    
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除热点缓存文件失败: {}, {}", path, e.getMessage());
+        }
+    }
+    
+    private void clearDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile).forEach(this::deleteQuietly);
+        }
+    }
+    
+    private record CachedObject(Path path, long size) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.yitong.base.storage.config;
+
+import com.yitong.base.storage.cache.FileMetadataCache;
+import com.yitong.base.storage.cache.HotObjectCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 存储缓存配置
+ * 订阅缓存失效通知，保证多节点本地缓存一致
+ */
+@Configuration
+public class StorageCacheConfig {
+    
+    @Bean
+    public RedisMessageListenerContainer storageCacheListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       FileMetadataCache fileMetadataCache,
+                                                                       HotObjectCache hotObjectCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(fileMetadataCache, new ChannelTopic(FileMetadataCache.INVALIDATE_CHANNEL));
+        container.addMessageListener(hotObjectCache, new ChannelTopic(HotObjectCache.INVALIDATE_CHANNEL));
+        return container;
+    }
+}
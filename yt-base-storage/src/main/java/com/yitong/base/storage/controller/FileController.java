@@ -0,0 +1,327 @@
+package com.yitong.base.storage.controller;
+
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileJobStatus;
+import com.yitong.base.api.storage.dto.FileQueryRequest;
+import com.yitong.base.api.storage.dto.FileUploadRequest;
+import com.yitong.base.api.storage.service.StorageService;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.PageResult;
+import com.yitong.base.common.result.Result;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.storage.model.ObjectMetadata;
+import com.yitong.base.storage.model.UploadPart;
+import com.yitong.base.storage.model.UploadSession;
+import com.yitong.base.storage.service.FileStreamService;
+import com.yitong.base.storage.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 文件控制器
+ * 提供基于HTTP流的文件上传下载，避免Base64编码带来的内存和带宽开销
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+public class FileController {
+    
+    /**
+     * Tomcat sendfile请求属性
+     */
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    
+    private final FileStreamService fileStreamService;
+    
+    private final StorageService storageService;
+    
+    private final UploadSessionService uploadSessionService;
+    
+    @Value("${storage.download.buffer-size:65536}")
+    private int bufferSize;
+    
+    /**
+     * 流式上传文件（multipart/form-data）
+     */
+    @PostMapping("/upload")
+    public Result<FileInfo> upload(@RequestParam("file") MultipartFile file,
+                                   @RequestParam(required = false) String bucketName,
+                                   @RequestParam(required = false) String filePath,
+                                   @RequestParam(required = false) String tags,
+                                   @RequestParam(required = false) String description,
+                                   @RequestParam(required = false) String md5) {
+        if (file.isEmpty()) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "文件内容不能为空");
+        }
+        
+        FileUploadRequest request = new FileUploadRequest();
+        request.setFileName(file.getOriginalFilename());
+        request.setContentType(file.getContentType());
+        request.setBucketName(bucketName);
+        request.setFilePath(filePath);
+        request.setTags(tags);
+        request.setDescription(description);
+        request.setMd5(md5);
+        
+        try (InputStream inputStream = file.getInputStream()) {
+            return Result.success(fileStreamService.uploadFile(request, inputStream, file.getSize()));
+        } catch (IOException e) {
+            log.error("读取上传文件失败: {}", file.getOriginalFilename(), e);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED);
+        }
+    }
+    
+    /**
+     * 创建分片上传会话；合并分片后由服务端计算MD5去重，内容已存在时引用已有对象
+     */
+    @PostMapping("/uploads")
+    public Result<UploadSession> initiateUpload(@RequestParam String fileName,
+                                                @RequestParam(required = false) String contentType,
+                                                @RequestParam(required = false) String bucketName,
+                                                @RequestParam(required = false) String filePath,
+                                                @RequestParam(required = false) String tags,
+                                                @RequestParam(required = false) String description) {
+        FileUploadRequest request = new FileUploadRequest();
+        request.setFileName(fileName);
+        request.setContentType(contentType);
+        request.setBucketName(bucketName);
+        request.setFilePath(filePath);
+        request.setTags(tags);
+        request.setDescription(description);
+        return Result.success(uploadSessionService.initiate(request));
+    }
+    
+    /**
+     * 上传单个分片，请求体为分片原始内容，不同分片可通过多个连接并发上传
+     */
+    @PutMapping("/uploads/{uploadId}/parts/{partNumber}")
+    public Result<UploadPart> uploadPart(@PathVariable String uploadId,
+                                         @PathVariable int partNumber,
+                                         HttpServletRequest request) {
+        long size = request.getContentLengthLong();
+        if (size <= 0) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "分片上传必须指定Content-Length");
+        }
+        try (InputStream inputStream = request.getInputStream()) {
+            return Result.success(uploadSessionService.uploadPart(uploadId, partNumber, inputStream, size));
+        } catch (IOException e) {
+            log.error("读取上传分片失败: {}, 分片: {}", uploadId, partNumber, e);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED);
+        }
+    }
+    
+    /**
+     * 查询上传会话及已上传的分片，用于断点续传
+     */
+    @GetMapping("/uploads/{uploadId}")
+    public Result<UploadSession> getUploadSession(@PathVariable String uploadId) {
+        return Result.success(uploadSessionService.getSession(uploadId));
+    }
+    
+    /**
+     * 合并分片完成上传
+     */
+    @PostMapping("/uploads/{uploadId}/complete")
+    public Result<FileInfo> completeUpload(@PathVariable String uploadId) {
+        return Result.success(uploadSessionService.complete(uploadId));
+    }
+    
+    /**
+     * 取消分片上传
+     */
+    @DeleteMapping("/uploads/{uploadId}")
+    public Result<Boolean> abortUpload(@PathVariable String uploadId) {
+        return Result.success(uploadSessionService.abort(uploadId));
+    }
+    
+    /**
+     * 分页查询文件列表
+     */
+    @GetMapping("/list")
+    public Result<PageResult<FileInfo>> list(@Validated FileQueryRequest request) {
+        return Result.success(storageService.listFiles(request));
+    }
+    
+    /**
+     * 提交按路径前缀复制文件的后台任务
+     */
+    @PostMapping("/jobs/copy")
+    public Result<String> submitCopyJob(@RequestParam String sourcePrefix, @RequestParam String targetPath) {
+        return Result.success(storageService.submitCopyJob(sourcePrefix, targetPath));
+    }
+    
+    /**
+     * 提交按路径前缀移动文件的后台任务
+     */
+    @PostMapping("/jobs/move")
+    public Result<String> submitMoveJob(@RequestParam String sourcePrefix, @RequestParam String targetPath) {
+        return Result.success(storageService.submitMoveJob(sourcePrefix, targetPath));
+    }
+    
+    /**
+     * 查询后台任务状态
+     */
+    @GetMapping("/jobs/{jobId}")
+    public Result<FileJobStatus> getJobStatus(@PathVariable String jobId) {
+        return Result.success(storageService.getJobStatus(jobId));
+    }
+    
+    /**
+     * 流式下载文件，支持Range断点续传和ETag协商缓存
+     */
+    @GetMapping("/download")
+    public void download(@RequestParam String fileId,
+                         @RequestParam(required = false) String fileName,
+                         HttpServletRequest request,
+                         HttpServletResponse response) {
+        ObjectMetadata metadata = fileStreamService.statObject(fileId);
+        long size = metadata.getSize();
+        String etag = "\"" + metadata.getEtag() + "\"";
+        
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, metadata.getLastModified());
+        
+        // 客户端缓存仍然有效
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        
+        long start = 0;
+        long end = size - 1;
+        boolean partial = false;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range与当前ETag不一致时说明文件已变化，忽略Range返回完整内容
+        if (StringUtils.hasText(rangeHeader) && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // 多段Range按完整内容返回
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size);
+                    partial = true;
+                }
+            } catch (IllegalArgumentException e) {
+                start = size;
+                partial = true;
+            }
+            if (partial && (start >= size || start > end)) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+        }
+        
+        long contentLength = size == 0 ? 0 : end - start + 1;
+        response.setContentType(StringUtils.hasText(metadata.getContentType()) ?
+                metadata.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(contentLength);
+        if (StringUtils.hasText(fileName)) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(fileName, StandardCharsets.UTF_8)
+                    .build()
+                    .toString());
+        }
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        if (contentLength == 0 || HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        
+        // 文件在本机磁盘上（本地磁盘后端或热点缓存）且容器支持时，交由容器通过sendfile发送
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))
+                && sendfile(fileId, start, contentLength, request)) {
+            return;
+        }
+        
+        try {
+            OutputStream outputStream = response.getOutputStream();
+            // 本地文件直接由FileChannel.transferTo写出，无需经过堆内缓冲区
+            if (fileStreamService.transferTo(fileId, start, contentLength, Channels.newChannel(outputStream))) {
+                outputStream.flush();
+                return;
+            }
+            writeStream(fileId, start, partial ? contentLength : null, outputStream);
+        } catch (IOException | UncheckedIOException e) {
+            // 多为客户端主动断开，响应已提交，无法再返回错误信息
+            log.warn("文件下载中断: {}, {}", fileId, e.getMessage());
+        }
+    }
+    
+    private boolean sendfile(String fileId, long start, long length, HttpServletRequest request) {
+        Path localFile = fileStreamService.getLocalFile(fileId);
+        if (localFile == null) {
+            return false;
+        }
+        try {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, localFile.toRealPath().toString());
+        } catch (IOException e) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_START_ATTR, start);
+        request.setAttribute(SENDFILE_END_ATTR, start + length);
+        return true;
+    }
+    
+    /**
+     * 按固定大小的缓冲区边读边写，内存占用与文件大小无关
+     */
+    private void writeStream(String fileId, long start, Long length, OutputStream outputStream) throws IOException {
+        try (InputStream inputStream = fileStreamService.openStream(fileId, start, length)) {
+            byte[] buffer = new byte[bufferSize];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            outputStream.flush();
+        }
+    }
+    
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+package com.yitong.base.storage.controller;
+
+import com.yitong.base.common.result.Result;
+import com.yitong.base.storage.cache.FileMetadataCache;
+import com.yitong.base.storage.cache.HotObjectCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 存储管理控制器
+ * 提供缓存等运行状态的查询功能
+ */
+@Slf4j
+@RestController
+@RequestMapping("/management")
+public class StorageManagementController {
+    
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    
+    @Autowired
+    private HotObjectCache hotObjectCache;
+    
+    /**
+     * 获取元数据缓存命中统计
+     * @return 缓存统计
+     */
+    @GetMapping("/cache/stats")
+    public Result<Map<String, Object>> getCacheStats() {
+        return Result.success(fileMetadataCache.getStats());
+    }
+    
+    /**
+     * 获取热点对象磁盘缓存命中统计
+     * @return 缓存统计
+     */
+    @GetMapping("/cache/hot-objects/stats")
+    public Result<Map<String, Object>> getHotObjectCacheStats() {
+        return Result.success(hotObjectCache.getStats());
+    }
+}
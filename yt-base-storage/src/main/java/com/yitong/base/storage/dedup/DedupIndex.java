@@ -0,0 +1,383 @@
+package com.yitong.base.storage.dedup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 内容去重索引
+ * 基于Redis维护 MD5 -> 对象 的映射和对象引用计数，相同内容的文件只在对象存储中保存一份。
+ * <p>
+ * Redis数据结构：
+ * <ul>
+ *     <li>storage:dedup:md5:{bucket}:{md5} -> objectName</li>
+ *     <li>storage:dedup:obj:{bucket}:{objectName} -> hash{md5, size, refs}</li>
+ *     <li>storage:file:{fileId} -> objectName</li>
+ * </ul>
+ * 引用计数归零的对象保留登记并不再被复用，物理删除成功后调用{@link #forget}清除登记，删除失败时调用{@link #restore}恢复引用。
+ * 文件与对象的对应关系以文件信息表的object_name为准，storage:file只是读取时的缓存，
+ * 未命中时由调用方读取文件信息表。Redis不可用时去重降级为关闭，不影响上传下载。
+ */
+@Slf4j
+@Component
+public class DedupIndex {
+    
+    private static final String MD5_KEY_PREFIX = "storage:dedup:md5:";
+    
+    private static final String OBJECT_KEY_PREFIX = "storage:dedup:obj:";
+    
+    private static final String FILE_KEY_PREFIX = "storage:file:";
+    
+    /**
+     * 按MD5查找已有对象，大小一致且未在删除中时引用计数加一
+     * KEYS[1]=md5键，ARGV[1]=对象键前缀，ARGV[2]=文件大小
+     */
+    private static final RedisScript<String> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local obj = redis.call('GET', KEYS[1]) " +
+            "if not obj then return false end " +
+            "local objKey = ARGV[1] .. obj " +
+            "if redis.call('HGET', objKey, 'size') ~= ARGV[2] then return false end " +
+            "if (tonumber(redis.call('HGET', objKey, 'refs')) or 0) <= 0 then return false end " +
+            "redis.call('HINCRBY', objKey, 'refs', 1) " +
+            "return obj", String.class);
+    
+    /**
+     * 登记新对象；若相同内容已被登记（并发上传）且未在删除中则引用已有对象
+     * KEYS[1]=md5键，ARGV[1]=对象键前缀，ARGV[2]=对象名，ARGV[3]=MD5，ARGV[4]=文件大小
+     */
+    private static final RedisScript<String> REGISTER_SCRIPT = new DefaultRedisScript<>(
+            "local obj = redis.call('GET', KEYS[1]) " +
+            "if obj and (tonumber(redis.call('HGET', ARGV[1] .. obj, 'refs')) or 0) > 0 then " +
+            "  redis.call('HINCRBY', ARGV[1] .. obj, 'refs', 1) " +
+            "  return obj " +
+            "end " +
+            "redis.call('SET', KEYS[1], ARGV[2]) " +
+            "redis.call('HSET', ARGV[1] .. ARGV[2], 'md5', ARGV[3], 'size', ARGV[4], 'refs', 1) " +
+            "return ARGV[2]", String.class);
+    
+    /**
+     * 释放一次引用，返回剩余引用数；归零时保留登记，等待物理删除后清除；对象未登记时返回0
+     * KEYS[1]=对象键
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "local refs = redis.call('HINCRBY', KEYS[1], 'refs', -1) " +
+            "if refs > 0 then return refs end " +
+            "redis.call('HSET', KEYS[1], 'refs', 0) " +
+            "return 0", Long.class);
+    
+    /**
+     * 物理删除成功后清除引用已归零的对象登记
+     * KEYS[1]=对象键，ARGV[1]=md5键前缀，ARGV[2]=对象名
+     */
+    private static final RedisScript<Long> FORGET_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "if (tonumber(redis.call('HGET', KEYS[1], 'refs')) or 0) > 0 then return 0 end " +
+            "local md5Key = ARGV[1] .. redis.call('HGET', KEYS[1], 'md5') " +
+            "if redis.call('GET', md5Key) == ARGV[2] then redis.call('DEL', md5Key) end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return 1", Long.class);
+    
+    /**
+     * 物理删除失败时恢复已释放的引用
+     * KEYS[1]=对象键，ARGV[1]=恢复的引用数
+     */
+    private static final RedisScript<Long> RESTORE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('HINCRBY', KEYS[1], 'refs', ARGV[1]) " +
+            "return 1", Long.class);
+    
+    /**
+     * 已登记且未在删除中的对象引用计数加一，否则返回0
+     * KEYS[1]=对象键
+     */
+    private static final RedisScript<Long> RETAIN_SCRIPT = new DefaultRedisScript<>(
+            "if (tonumber(redis.call('HGET', KEYS[1], 'refs')) or 0) <= 0 then return 0 end " +
+            "redis.call('HINCRBY', KEYS[1], 'refs', 1) " +
+            "return 1", Long.class);
+    
+    /**
+     * 对象仅被一个文件引用时，将登记信息连同引用计数迁移到新对象名；对象被共享时返回0
+     * KEYS[1]=源对象键，KEYS[2]=目标对象键，ARGV[1]=md5键前缀，ARGV[2]=源对象名，ARGV[3]=目标对象名
+     */
+    private static final RedisScript<Long> RENAME_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 1 end " +
+            "if tonumber(redis.call('HGET', KEYS[1], 'refs')) > 1 then return 0 end " +
+            "redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "local md5Key = ARGV[1] .. redis.call('HGET', KEYS[2], 'md5') " +
+            "if redis.call('GET', md5Key) == ARGV[2] then redis.call('SET', md5Key, ARGV[3]) end " +
+            "return 1", Long.class);
+    
+    @Value("${storage.dedup.enabled:true}")
+    private boolean enabled;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    /**
+     * @return 是否启用去重
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * 按内容摘要查找可复用的对象，命中时引用计数加一
+     *
+     * @param bucketName 存储桶
+     * @param md5 内容MD5
+     * @param size 文件大小
+     * @return 已有对象名，未命中返回null
+     */
+    public String acquire(String bucketName, String md5, long size) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return redisTemplate.execute(ACQUIRE_SCRIPT,
+                    List.of(md5Key(bucketName, md5)),
+                    objectKeyPrefix(bucketName), String.valueOf(size));
+        } catch (Exception e) {
+            log.warn("查询去重索引失败，按未命中处理: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 登记新上传的对象
+     *
+     * @param bucketName 存储桶
+     * @param md5 内容MD5
+     * @param objectName 新对象名
+     * @param size 文件大小
+     * @return 实际引用的对象名，与objectName不同说明相同内容已存在
+     */
+    public String register(String bucketName, String md5, String objectName, long size) {
+        if (!enabled) {
+            return objectName;
+        }
+        try {
+            String canonical = redisTemplate.execute(REGISTER_SCRIPT,
+                    List.of(md5Key(bucketName, md5)),
+                    objectKeyPrefix(bucketName), objectName, md5, String.valueOf(size));
+            return canonical != null ? canonical : objectName;
+        } catch (Exception e) {
+            log.warn("登记去重索引失败: {}, {}", objectName, e.getMessage());
+            return objectName;
+        }
+    }
+    
+    /**
+     * 释放一次对象引用
+     *
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @return 剩余引用数，为0时对象可以被物理删除，删除成功后调用forget，失败时调用restore
+     */
+    public long release(String bucketName, String objectName) {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            Long refs = redisTemplate.execute(RELEASE_SCRIPT, List.of(objectKeyPrefix(bucketName) + objectName));
+            return refs != null ? refs : 0;
+        } catch (Exception e) {
+            // 无法确认引用情况时保留对象，宁可多占存储也不能误删
+            log.warn("释放去重引用失败，保留对象: {}, {}", objectName, e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * 对象物理删除成功后清除登记
+     *
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     */
+    public void forget(String bucketName, String objectName) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.execute(FORGET_SCRIPT, List.of(objectKeyPrefix(bucketName) + objectName),
+                    md5KeyPrefix(bucketName), objectName);
+        } catch (Exception e) {
+            log.warn("清除去重登记失败: {}, {}", objectName, e.getMessage());
+        }
+    }
+    
+    /**
+     * 对象物理删除失败时恢复已释放的引用
+     *
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @param count 本次释放的引用数
+     */
+    public void restore(String bucketName, String objectName, int count) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RESTORE_SCRIPT, List.of(objectKeyPrefix(bucketName) + objectName),
+                    String.valueOf(count));
+        } catch (Exception e) {
+            log.warn("恢复去重引用失败: {}, {}", objectName, e.getMessage());
+        }
+    }
+    
+    /**
+     * 为已登记的对象增加一次引用，用于复制文件时直接共享对象
+     *
+     * @param bucketName 存储桶
+     * @param objectName 对象名
+     * @return 对象已登记且引用成功返回true，未登记时需要复制对象
+     */
+    public boolean retain(String bucketName, String objectName) {
+        if (!enabled) {
+            return false;
+        }
+        try {
+            Long retained = redisTemplate.execute(RETAIN_SCRIPT, List.of(objectKeyPrefix(bucketName) + objectName));
+            return retained != null && retained > 0;
+        } catch (Exception e) {
+            log.warn("增加去重引用失败，按未登记处理: {}, {}", objectName, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 查询对象当前是否被多个文件共享
+     */
+    public boolean isShared(String bucketName, String objectName) {
+        if (!enabled) {
+            return false;
+        }
+        try {
+            Object refs = redisTemplate.opsForHash().get(objectKeyPrefix(bucketName) + objectName, "refs");
+            return refs != null && Long.parseLong((String) refs) > 1;
+        } catch (Exception e) {
+            log.warn("查询去重引用失败，按共享处理: {}, {}", objectName, e.getMessage());
+            return true;
+        }
+    }
+    
+    /**
+     * 对象移动到新对象名后迁移登记信息，引用计数保持不变
+     *
+     * @param bucketName 存储桶
+     * @param sourceObject 源对象名
+     * @param targetObject 目标对象名
+     * @return 迁移成功（或对象未登记）返回true，此时源对象可以删除；对象被其他文件共享时返回false
+     */
+    public boolean rename(String bucketName, String sourceObject, String targetObject) {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            Long renamed = redisTemplate.execute(RENAME_SCRIPT,
+                    List.of(objectKeyPrefix(bucketName) + sourceObject, objectKeyPrefix(bucketName) + targetObject),
+                    md5KeyPrefix(bucketName), sourceObject, targetObject);
+            return renamed != null && renamed > 0;
+        } catch (Exception e) {
+            // 无法确认引用情况时保留源对象
+            log.warn("迁移去重索引失败，保留源对象: {} -> {}, {}", sourceObject, targetObject, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 绑定文件ID与对象名；对象名与文件ID相同时清除已有绑定
+     *
+     * @return 绑定是否写入成功
+     */
+    public boolean bindFile(String fileId, String objectName) {
+        try {
+            if (fileId.equals(objectName)) {
+                redisTemplate.delete(FILE_KEY_PREFIX + fileId);
+            } else {
+                redisTemplate.opsForValue().set(FILE_KEY_PREFIX + fileId, objectName);
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("绑定文件对象映射失败: {} -> {}, {}", fileId, objectName, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 解除文件ID绑定
+     */
+    public void unbindFile(String fileId) {
+        try {
+            redisTemplate.delete(FILE_KEY_PREFIX + fileId);
+        } catch (Exception e) {
+            log.warn("解除文件对象映射失败: {}, {}", fileId, e.getMessage());
+        }
+    }
+    
+    /**
+     * 批量解除文件ID绑定
+     */
+    public void unbindFiles(List<String> fileIds) {
+        if (fileIds.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(fileIds.stream().map(fileId -> FILE_KEY_PREFIX + fileId).toList());
+        } catch (Exception e) {
+            log.warn("批量解除文件对象映射失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 读取文件ID绑定的对象名
+     *
+     * @return 对象名，未绑定或Redis不可用时返回null，由调用方读取文件信息表
+     */
+    public String resolve(String fileId) {
+        try {
+            return redisTemplate.opsForValue().get(FILE_KEY_PREFIX + fileId);
+        } catch (Exception e) {
+            log.warn("解析文件对象映射失败: {}, {}", fileId, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 批量读取文件ID绑定的对象名
+     *
+     * @return 与fileIds一一对应的对象名，未绑定或Redis不可用的位置为null
+     */
+    public List<String> resolveAll(List<String> fileIds) {
+        String[] objectNames = new String[fileIds.size()];
+        try {
+            List<String> keys = fileIds.stream().map(fileId -> FILE_KEY_PREFIX + fileId).toList();
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            for (int i = 0; values != null && i < objectNames.length; i++) {
+                objectNames[i] = values.get(i);
+            }
+        } catch (Exception e) {
+            log.warn("批量解析文件对象映射失败: {}", e.getMessage());
+        }
+        return Arrays.asList(objectNames);
+    }
+    
+    private String md5Key(String bucketName, String md5) {
+        return md5KeyPrefix(bucketName) + md5;
+    }
+    
+    private String md5KeyPrefix(String bucketName) {
+        return MD5_KEY_PREFIX + bucketName + ":";
+    }
+    
+    private String objectKeyPrefix(String bucketName) {
+        return OBJECT_KEY_PREFIX + bucketName + ":";
+    }
+}
@@ -0,0 +1,94 @@
+package com.yitong.base.storage.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文件信息实体，对应file_info表
+ */
+@Data
+@TableName("file_info")
+public class FileInfoEntity {
+    
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    /**
+     * 文件ID
+     */
+    private String fileId;
+    
+    /**
+     * 文件名
+     */
+    private String fileName;
+    
+    /**
+     * 文件路径（调用方的逻辑路径）
+     */
+    private String filePath;
+    
+    /**
+     * 实际存储的对象名，内容去重时为其他文件上传的共享对象
+     */
+    private String objectName;
+    
+    /**
+     * 文件URL
+     */
+    private String fileUrl;
+    
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+    
+    /**
+     * 文件类型
+     */
+    private String contentType;
+    
+    /**
+     * 文件MD5
+     */
+    private String md5;
+    
+    /**
+     * 存储桶名称
+     */
+    private String bucketName;
+    
+    /**
+     * 文件标签
+     */
+    private String tags;
+    
+    /**
+     * 文件描述
+     */
+    private String description;
+    
+    /**
+     * 访问权限：1-私有，2-公开读，3-公开读写
+     */
+    private Integer accessPermission;
+    
+    /**
+     * 上传时间
+     */
+    private LocalDateTime uploadTime;
+    
+    /**
+     * 删除标记：0-未删除，1-已删除
+     */
+    @TableLogic
+    private Integer deleted;
+}
@@ -0,0 +1,237 @@
+package com.yitong.base.storage.job;
+
+import com.yitong.base.api.storage.dto.FileJobStatus;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 文件后台任务跟踪器
+ * 任务在本节点的后台线程中执行，进度写入Redis，任意节点均可查询。
+ * 未结束的任务按心跳时间记录在有序集合中，执行节点重启等原因导致心跳中断的任务由定时任务标记为失败。
+ */
+@Slf4j
+@Component
+public class FileJobTracker {
+    
+    public static final int STATUS_PENDING = 0;
+    
+    public static final int STATUS_RUNNING = 1;
+    
+    public static final int STATUS_SUCCESS = 2;
+    
+    public static final int STATUS_FAILED = 3;
+    
+    private static final String JOB_KEY_PREFIX = "storage:job:";
+    
+    private static final String ACTIVE_JOBS_KEY = "storage:job:active";
+    
+    @Value("${storage.job.concurrency:2}")
+    private int concurrency;
+    
+    @Value("${storage.job.queue-capacity:100}")
+    private int queueCapacity;
+    
+    @Value("${storage.job.retention-hours:168}")
+    private long retentionHours;
+    
+    @Value("${storage.job.stale-minutes:10}")
+    private long staleMinutes;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    private ThreadPoolExecutor executor;
+    
+    /**
+     * 本节点排队和执行中的任务，定时刷新心跳
+     */
+    private final Set<String> localJobs = ConcurrentHashMap.newKeySet();
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "storage-job-" + threadIndex.incrementAndGet()));
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * 提交后台任务
+     *
+     * @param jobType 任务类型
+     * @param sourcePrefix 源路径前缀
+     * @param targetPath 目标路径
+     * @param work 任务逻辑，通过JobContext上报进度
+     * @return 任务ID
+     */
+    public String submit(String jobType, String sourcePrefix, String targetPath, Consumer<JobContext> work) {
+        String jobId = UUID.randomUUID().toString();
+        String key = JOB_KEY_PREFIX + jobId;
+        
+        Map<String, String> fields = new HashMap<>();
+        fields.put("jobType", jobType);
+        fields.put("status", String.valueOf(STATUS_PENDING));
+        fields.put("sourcePrefix", sourcePrefix);
+        fields.put("targetPath", targetPath);
+        fields.put("processedCount", "0");
+        fields.put("successCount", "0");
+        fields.put("failCount", "0");
+        fields.put("createTime", String.valueOf(System.currentTimeMillis()));
+        redisTemplate.opsForHash().putAll(key, fields);
+        redisTemplate.expire(key, retentionHours, TimeUnit.HOURS);
+        localJobs.add(jobId);
+        redisTemplate.opsForZSet().add(ACTIVE_JOBS_KEY, jobId, System.currentTimeMillis());
+        
+        try {
+            executor.execute(() -> {
+                JobContext context = new JobContext(jobId);
+                redisTemplate.opsForHash().put(key, "status", String.valueOf(STATUS_RUNNING));
+                try {
+                    work.accept(context);
+                    context.finish(STATUS_SUCCESS, null);
+                    log.info("后台任务完成: {}", jobId);
+                } catch (Exception e) {
+                    log.error("后台任务失败: {}", jobId, e);
+                    context.finish(STATUS_FAILED, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            new JobContext(jobId).finish(STATUS_FAILED, "后台任务队列已满");
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "后台任务队列已满，请稍后重试");
+        }
+        
+        log.info("提交后台任务: {}, 类型: {}, {} -> {}", jobId, jobType, sourcePrefix, targetPath);
+        return jobId;
+    }
+    
+    /**
+     * 查询任务状态
+     *
+     * @param jobId 任务ID
+     * @return 任务状态，不存在返回null
+     */
+    public FileJobStatus getStatus(String jobId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(JOB_KEY_PREFIX + jobId);
+        if (fields.isEmpty()) {
+            return null;
+        }
+        
+        FileJobStatus status = new FileJobStatus();
+        status.setJobId(jobId);
+        status.setJobType((String) fields.get("jobType"));
+        status.setStatus(Integer.valueOf((String) fields.get("status")));
+        status.setSourcePrefix((String) fields.get("sourcePrefix"));
+        status.setTargetPath((String) fields.get("targetPath"));
+        status.setProcessedCount(toLong(fields.get("processedCount")));
+        status.setSuccessCount(toLong(fields.get("successCount")));
+        status.setFailCount(toLong(fields.get("failCount")));
+        status.setErrorMessage((String) fields.get("errorMessage"));
+        status.setCreateTime(toLong(fields.get("createTime")));
+        status.setFinishTime(toLong(fields.get("finishTime")));
+        return status;
+    }
+    
+    /**
+     * 刷新本节点任务的心跳，并将心跳超时的任务标记为失败；
+     * 多个节点同时执行时，以从有序集合中移除成功的节点为准
+     */
+    @Scheduled(fixedDelayString = "${storage.job.stale-check-interval-ms:60000}")
+    public void failStaleJobs() {
+        long now = System.currentTimeMillis();
+        Set<String> stale;
+        try {
+            for (String jobId : localJobs) {
+                redisTemplate.opsForZSet().add(ACTIVE_JOBS_KEY, jobId, now);
+            }
+            stale = redisTemplate.opsForZSet().rangeByScore(ACTIVE_JOBS_KEY, 0,
+                    now - TimeUnit.MINUTES.toMillis(staleMinutes));
+        } catch (Exception e) {
+            log.warn("检查超时后台任务失败: {}", e.getMessage());
+            return;
+        }
+        if (stale == null || stale.isEmpty()) {
+            return;
+        }
+        
+        int failed = 0;
+        for (String jobId : stale) {
+            Long removed = redisTemplate.opsForZSet().remove(ACTIVE_JOBS_KEY, jobId);
+            if (removed == null || removed == 0) {
+                continue;
+            }
+            Object status = redisTemplate.opsForHash().get(JOB_KEY_PREFIX + jobId, "status");
+            if (String.valueOf(STATUS_PENDING).equals(status) || String.valueOf(STATUS_RUNNING).equals(status)) {
+                new JobContext(jobId).finish(STATUS_FAILED, "任务执行中断");
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("标记中断的后台任务为失败: {}", failed);
+        }
+    }
+    
+    private Long toLong(Object value) {
+        return value != null ? Long.valueOf((String) value) : null;
+    }
+    
+    /**
+     * 任务执行上下文
+     */
+    public class JobContext {
+        
+        private final String jobId;
+        
+        private final String key;
+        
+        private JobContext(String jobId) {
+            this.jobId = jobId;
+            this.key = JOB_KEY_PREFIX + jobId;
+        }
+        
+        /**
+         * 上报一批处理结果
+         */
+        public void progress(int successCount, int failCount) {
+            redisTemplate.opsForHash().increment(key, "processedCount", successCount + failCount);
+            redisTemplate.opsForHash().increment(key, "successCount", successCount);
+            redisTemplate.opsForHash().increment(key, "failCount", failCount);
+        }
+        
+        private void finish(int status, String errorMessage) {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("status", String.valueOf(status));
+            fields.put("finishTime", String.valueOf(System.currentTimeMillis()));
+            if (errorMessage != null) {
+                fields.put("errorMessage", errorMessage);
+            }
+            redisTemplate.opsForHash().putAll(key, fields);
+            localJobs.remove(jobId);
+            redisTemplate.opsForZSet().remove(ACTIVE_JOBS_KEY, jobId);
+        }
+    }
+}
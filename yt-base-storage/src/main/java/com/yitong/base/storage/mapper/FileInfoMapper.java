@@ -0,0 +1,12 @@
+package com.yitong.base.storage.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yitong.base.storage.entity.FileInfoEntity;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 文件信息Mapper
+ */
+@Mapper
+public interface FileInfoMapper extends BaseMapper<FileInfoEntity> {
+}
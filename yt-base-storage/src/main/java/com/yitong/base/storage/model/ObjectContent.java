@@ -0,0 +1,35 @@
+package com.yitong.base.storage.model;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 存储对象内容
+ * 包装对象输入流及其总大小，调用方负责关闭
+ */
+@Getter
+public class ObjectContent implements Closeable {
+    
+    /**
+     * 对象内容输入流（已定位到请求的起始偏移量）
+     */
+    private final InputStream inputStream;
+    
+    /**
+     * 对象总大小（字节），未知时为-1
+     */
+    private final long totalSize;
+    
+    public ObjectContent(InputStream inputStream, long totalSize) {
+        this.inputStream = inputStream;
+        this.totalSize = totalSize;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+}
@@ -0,0 +1,40 @@
+package com.yitong.base.storage.model;
+
+import lombok.Data;
+
+/**
+ * 存储对象元数据
+ */
+@Data
+public class ObjectMetadata {
+    
+    /**
+     * 存储桶名称
+     */
+    private String bucketName;
+    
+    /**
+     * 对象名称
+     */
+    private String objectName;
+    
+    /**
+     * 对象大小（字节）
+     */
+    private long size;
+    
+    /**
+     * 内容类型
+     */
+    private String contentType;
+    
+    /**
+     * 实体标签
+     */
+    private String etag;
+    
+    /**
+     * 最后修改时间（毫秒）
+     */
+    private long lastModified;
+}
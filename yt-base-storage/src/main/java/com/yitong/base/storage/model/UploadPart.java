@@ -0,0 +1,29 @@
+package com.yitong.base.storage.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 已上传的分片
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadPart {
+    
+    /**
+     * 分片序号
+     */
+    private Integer partNumber;
+    
+    /**
+     * 分片大小（字节）
+     */
+    private Long size;
+    
+    /**
+     * 分片ETag
+     */
+    private String etag;
+}
@@ -0,0 +1,68 @@
+package com.yitong.base.storage.model;
+
+import com.yitong.base.api.storage.dto.FileInfo;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 分片上传会话
+ */
+@Data
+public class UploadSession {
+    
+    /**
+     * 上传中
+     */
+    public static final int STATUS_UPLOADING = 0;
+    
+    /**
+     * 已完成
+     */
+    public static final int STATUS_COMPLETED = 1;
+    
+    /**
+     * 会话ID
+     */
+    private String uploadId;
+    
+    /**
+     * 完成后的文件ID
+     */
+    private String fileId;
+    
+    /**
+     * 文件名
+     */
+    private String fileName;
+    
+    /**
+     * 存储桶名称
+     */
+    private String bucketName;
+    
+    /**
+     * 对象名称
+     */
+    private String objectName;
+    
+    /**
+     * 会话状态：0-上传中，1-已完成
+     */
+    private Integer status;
+    
+    /**
+     * 创建时间（毫秒）
+     */
+    private Long createTime;
+    
+    /**
+     * 已上传的分片，按分片序号升序
+     */
+    private List<UploadPart> parts;
+    
+    /**
+     * 文件信息（内容已存在直接秒传时返回）
+     */
+    private FileInfo fileInfo;
+}
@@ -0,0 +1,98 @@
+package com.yitong.base.storage.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileQueryRequest;
+import com.yitong.base.common.result.PageResult;
+import com.yitong.base.storage.entity.FileInfoEntity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件信息持久化服务
+ */
+public interface FileRecordService extends IService<FileInfoEntity> {
+    
+    /**
+     * 保存文件信息
+     *
+     * @param fileInfo 文件信息
+     * @param objectName 实际存储的对象名
+     */
+    void saveFileInfo(FileInfo fileInfo, String objectName);
+    
+    /**
+     * 批量保存文件信息（多行插入）
+     *
+     * @param fileInfos 文件信息列表
+     * @param objectNames 文件ID与实际存储的对象名
+     */
+    void saveFileInfos(List<FileInfo> fileInfos, Map<String, String> objectNames);
+    
+    /**
+     * 根据文件ID查询文件信息
+     *
+     * @param fileId 文件ID
+     * @return 文件信息，不存在返回null
+     */
+    FileInfo getByFileId(String fileId);
+    
+    /**
+     * 查询文件实际存储的对象名
+     *
+     * @param fileId 文件ID
+     * @return 对象名，记录不存在或未保存对象名时返回null
+     */
+    String getObjectName(String fileId);
+    
+    /**
+     * 批量查询文件实际存储的对象名
+     *
+     * @param fileIds 文件ID列表
+     * @return 文件ID与对象名，没有记录的文件不包含在内
+     */
+    Map<String, String> getObjectNames(List<String> fileIds);
+    
+    /**
+     * 根据文件ID删除（逻辑删除）
+     *
+     * @param fileIds 文件ID列表
+     */
+    void removeByFileIds(List<String> fileIds);
+    
+    /**
+     * 按索引列分页查询文件
+     *
+     * @param request 查询请求
+     * @return 分页结果
+     */
+    PageResult<FileInfo> queryFiles(FileQueryRequest request);
+    
+    /**
+     * 更新文件路径及对象名（移动文件后）
+     *
+     * @param fileId 文件ID
+     * @param filePath 新的文件路径
+     * @param objectName 移动后实际存储的对象名
+     */
+    void updateFilePath(String fileId, String filePath, String objectName);
+    
+    /**
+     * 按路径前缀分页读取文件记录，按主键升序游标翻页
+     *
+     * @param pathPrefix 路径前缀，按完整目录匹配（与前缀相同的路径或前缀目录下的路径）
+     * @param afterId 上一页最后一条记录的主键
+     * @param maxId 主键上限（包含），用于排除任务执行期间新增的记录
+     * @param limit 每页条数
+     * @return 文件记录
+     */
+    List<FileInfoEntity> listByPathPrefix(String pathPrefix, long afterId, long maxId, int limit);
+    
+    /**
+     * 查询当前最大主键
+     *
+     * @return 最大主键，无记录时返回0
+     */
+    long getMaxId();
+}
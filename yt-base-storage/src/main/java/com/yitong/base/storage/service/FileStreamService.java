@@ -0,0 +1,63 @@
+package com.yitong.base.storage.service;
+
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileUploadRequest;
+import com.yitong.base.storage.model.ObjectMetadata;
+
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * 文件流式读写服务
+ * 仅供存储服务内部（REST控制器等同进程调用方）使用，输入输出流无法通过Dubbo序列化
+ */
+public interface FileStreamService {
+    
+    /**
+     * 流式上传文件，边读边写入对象存储，MD5与文件大小增量计算
+     *
+     * @param request 上传请求（fileContent无需填写）
+     * @param inputStream 文件输入流
+     * @param size 文件大小，未知时传-1
+     * @return 文件信息
+     */
+    FileInfo uploadFile(FileUploadRequest request, InputStream inputStream, long size);
+    
+    /**
+     * 获取对象元数据
+     *
+     * @param fileId 文件ID
+     * @return 对象元数据
+     */
+    ObjectMetadata statObject(String fileId);
+    
+    /**
+     * 打开文件输入流，调用方负责关闭
+     *
+     * @param fileId 文件ID
+     * @param offset 起始偏移量
+     * @param length 读取长度，为null时读取到文件末尾
+     * @return 文件输入流
+     */
+    InputStream openStream(String fileId, long offset, Long length);
+    
+    /**
+     * 将文件内容直接写入目标通道，存储后端不支持零拷贝时返回false，调用方回退到openStream
+     *
+     * @param fileId 文件ID
+     * @param offset 起始偏移量
+     * @param length 读取长度
+     * @param target 目标通道
+     * @return 是否已写入
+     */
+    boolean transferTo(String fileId, long offset, long length, WritableByteChannel target);
+    
+    /**
+     * 获取文件在本机磁盘上的路径（本地磁盘后端或热点对象缓存），供容器sendfile直接发送
+     *
+     * @param fileId 文件ID
+     * @return 本地文件路径，文件不在本机磁盘时返回null
+     */
+    Path getLocalFile(String fileId);
+}
@@ -0,0 +1,59 @@
+package com.yitong.base.storage.service;
+
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileUploadRequest;
+import com.yitong.base.storage.model.UploadPart;
+import com.yitong.base.storage.model.UploadSession;
+
+import java.io.InputStream;
+
+/**
+ * 分片上传会话服务
+ * 会话状态保存在Redis中，同一会话的分片可以由任意节点并发接收；
+ * 分片内容以流的形式传入，仅供存储服务内部的REST控制器使用
+ */
+public interface UploadSessionService {
+    
+    /**
+     * 初始化上传会话；内容去重在合并分片后由服务端计算MD5完成，不依据客户端提供的MD5秒传
+     *
+     * @param request 上传请求（fileContent、md5无需填写）
+     * @return 上传会话
+     */
+    UploadSession initiate(FileUploadRequest request);
+    
+    /**
+     * 上传单个分片，重复上传同一序号会覆盖之前的分片；会话开始合并后不再接受分片
+     *
+     * @param uploadId 会话ID
+     * @param partNumber 分片序号（1-10000）
+     * @param inputStream 分片内容
+     * @param size 分片大小
+     * @return 分片信息
+     */
+    UploadPart uploadPart(String uploadId, int partNumber, InputStream inputStream, long size);
+    
+    /**
+     * 查询上传会话及已上传的分片，用于断点续传
+     *
+     * @param uploadId 会话ID
+     * @return 上传会话
+     */
+    UploadSession getSession(String uploadId);
+    
+    /**
+     * 合并已上传的分片完成上传
+     *
+     * @param uploadId 会话ID
+     * @return 文件信息
+     */
+    FileInfo complete(String uploadId);
+    
+    /**
+     * 取消上传并清理已上传的分片
+     *
+     * @param uploadId 会话ID
+     * @return 是否成功
+     */
+    Boolean abort(String uploadId);
+}
@@ -0,0 +1,187 @@
+package com.yitong.base.storage.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileQueryRequest;
+import com.yitong.base.common.result.PageResult;
+import com.yitong.base.storage.entity.FileInfoEntity;
+import com.yitong.base.storage.mapper.FileInfoMapper;
+import com.yitong.base.storage.service.FileRecordService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文件信息持久化服务实现类
+ */
+@Service
+public class FileRecordServiceImpl extends ServiceImpl<FileInfoMapper, FileInfoEntity> implements FileRecordService {
+    
+    @Value("${storage.record.batch-size:500}")
+    private int batchSize;
+    
+    @Override
+    public void saveFileInfo(FileInfo fileInfo, String objectName) {
+        save(toEntity(fileInfo, objectName));
+    }
+    
+    @Override
+    public void saveFileInfos(List<FileInfo> fileInfos, Map<String, String> objectNames) {
+        if (fileInfos.isEmpty()) {
+            return;
+        }
+        List<FileInfoEntity> entities = new ArrayList<>(fileInfos.size());
+        for (FileInfo fileInfo : fileInfos) {
+            entities.add(toEntity(fileInfo, objectNames.get(fileInfo.getFileId())));
+        }
+        // 配合连接参数rewriteBatchedStatements=true，JDBC批处理会被改写为多行INSERT
+        saveBatch(entities, batchSize);
+    }
+    
+    @Override
+    public FileInfo getByFileId(String fileId) {
+        FileInfoEntity entity = getOne(new LambdaQueryWrapper<FileInfoEntity>()
+                .eq(FileInfoEntity::getFileId, fileId));
+        return entity != null ? toFileInfo(entity) : null;
+    }
+    
+    @Override
+    public String getObjectName(String fileId) {
+        FileInfoEntity entity = getOne(new LambdaQueryWrapper<FileInfoEntity>()
+                .select(FileInfoEntity::getObjectName)
+                .eq(FileInfoEntity::getFileId, fileId));
+        return entity != null ? entity.getObjectName() : null;
+    }
+    
+    @Override
+    public Map<String, String> getObjectNames(List<String> fileIds) {
+        Map<String, String> objectNames = new HashMap<>();
+        if (fileIds.isEmpty()) {
+            return objectNames;
+        }
+        List<FileInfoEntity> entities = list(new LambdaQueryWrapper<FileInfoEntity>()
+                .select(FileInfoEntity::getFileId, FileInfoEntity::getObjectName)
+                .in(FileInfoEntity::getFileId, fileIds));
+        for (FileInfoEntity entity : entities) {
+            if (entity.getObjectName() != null) {
+                objectNames.put(entity.getFileId(), entity.getObjectName());
+            }
+        }
+        return objectNames;
+    }
+    
+    @Override
+    public void removeByFileIds(List<String> fileIds) {
+        if (fileIds.isEmpty()) {
+            return;
+        }
+        remove(new LambdaQueryWrapper<FileInfoEntity>()
+                .in(FileInfoEntity::getFileId, fileIds));
+    }
+    
+    @Override
+    public PageResult<FileInfo> queryFiles(FileQueryRequest request) {
+        LambdaQueryWrapper<FileInfoEntity> wrapper = new LambdaQueryWrapper<FileInfoEntity>()
+                .eq(StringUtils.hasText(request.getBucketName()), FileInfoEntity::getBucketName, request.getBucketName())
+                .eq(StringUtils.hasText(request.getContentType()), FileInfoEntity::getContentType, request.getContentType())
+                .ge(request.getUploadTimeStart() != null, FileInfoEntity::getUploadTime, toLocalDateTime(request.getUploadTimeStart()))
+                .lt(request.getUploadTimeEnd() != null, FileInfoEntity::getUploadTime, toLocalDateTime(request.getUploadTimeEnd()))
+                .orderByDesc(FileInfoEntity::getUploadTime);
+        
+        Page<FileInfoEntity> page = page(new Page<>(request.getPageNum(), request.getPageSize()), wrapper);
+        
+        List<FileInfo> records = new ArrayList<>(page.getRecords().size());
+        for (FileInfoEntity entity : page.getRecords()) {
+            records.add(toFileInfo(entity));
+        }
+        return new PageResult<>(page.getCurrent(), page.getSize(), page.getTotal(), records);
+    }
+    
+    @Override
+    public void updateFilePath(String fileId, String filePath, String objectName) {
+        update(new LambdaUpdateWrapper<FileInfoEntity>()
+                .set(FileInfoEntity::getFilePath, filePath)
+                .set(FileInfoEntity::getObjectName, objectName)
+                .eq(FileInfoEntity::getFileId, fileId));
+    }
+    
+    @Override
+    public List<FileInfoEntity> listByPathPrefix(String pathPrefix, long afterId, long maxId, int limit) {
+        // 前缀按完整目录匹配，tenant1不会匹配到tenant10下的文件
+        String directory = pathPrefix.endsWith("/") ? pathPrefix.substring(0, pathPrefix.length() - 1) : pathPrefix;
+        return list(new LambdaQueryWrapper<FileInfoEntity>()
+                .and(w -> w.eq(FileInfoEntity::getFilePath, directory)
+                        .or().likeRight(FileInfoEntity::getFilePath, escapeLike(directory + "/")))
+                .gt(FileInfoEntity::getId, afterId)
+                .le(FileInfoEntity::getId, maxId)
+                .orderByAsc(FileInfoEntity::getId)
+                .last("LIMIT " + limit));
+    }
+    
+    @Override
+    public long getMaxId() {
+        FileInfoEntity entity = getOne(new LambdaQueryWrapper<FileInfoEntity>()
+                .select(FileInfoEntity::getId)
+                .orderByDesc(FileInfoEntity::getId)
+                .last("LIMIT 1"));
+        return entity != null ? entity.getId() : 0L;
+    }
+    
+    /**
+     * 转义LIKE通配符，路径中的%和_按字面匹配
+     */
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    private FileInfoEntity toEntity(FileInfo fileInfo, String objectName) {
+        FileInfoEntity entity = new FileInfoEntity();
+        entity.setFileId(fileInfo.getFileId());
+        entity.setFileName(fileInfo.getFileName());
+        entity.setFilePath(fileInfo.getFilePath());
+        entity.setObjectName(objectName);
+        entity.setFileSize(fileInfo.getFileSize());
+        entity.setContentType(fileInfo.getContentType());
+        entity.setMd5(fileInfo.getMd5());
+        entity.setBucketName(fileInfo.getBucketName());
+        entity.setTags(fileInfo.getTags());
+        entity.setDescription(fileInfo.getDescription());
+        entity.setAccessPermission(fileInfo.getAccessPermission());
+        entity.setUploadTime(toLocalDateTime(fileInfo.getUploadTime()));
+        return entity;
+    }
+    
+    private FileInfo toFileInfo(FileInfoEntity entity) {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setFileId(entity.getFileId());
+        fileInfo.setFileName(entity.getFileName());
+        fileInfo.setFilePath(entity.getFilePath());
+        fileInfo.setFileSize(entity.getFileSize());
+        fileInfo.setContentType(entity.getContentType());
+        fileInfo.setMd5(entity.getMd5());
+        fileInfo.setBucketName(entity.getBucketName());
+        fileInfo.setTags(entity.getTags());
+        fileInfo.setDescription(entity.getDescription());
+        fileInfo.setAccessPermission(entity.getAccessPermission());
+        if (entity.getUploadTime() != null) {
+            fileInfo.setUploadTime(entity.getUploadTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        return fileInfo;
+    }
+    
+    private LocalDateTime toLocalDateTime(Long epochMillis) {
+        return epochMillis != null ?
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()) : null;
+    }
+}
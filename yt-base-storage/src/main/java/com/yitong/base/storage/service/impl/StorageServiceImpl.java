@@ -1,26 +1,54 @@
 package com.yitong.base.storage.service.impl;
 
+import com.yitong.base.api.storage.dto.BatchResult;
+import com.yitong.base.api.storage.dto.FileChunk;
 import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileJobStatus;
+import com.yitong.base.api.storage.dto.FileQueryRequest;
 import com.yitong.base.api.storage.dto.FileUploadRequest;
 import com.yitong.base.api.storage.service.StorageService;
 import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.PageResult;
 import com.yitong.base.common.result.ResultCode;
-import io.minio.*;
-import io.minio.http.Method;
+import com.yitong.base.storage.backend.StorageBackend;
+import com.yitong.base.storage.backend.StorageBackendFactory;
+import com.yitong.base.storage.batch.BatchExecutor;
+import com.yitong.base.storage.cache.FileMetadataCache;
+import com.yitong.base.storage.cache.HotObjectCache;
+import com.yitong.base.storage.dedup.DedupIndex;
+import com.yitong.base.storage.entity.FileInfoEntity;
+import com.yitong.base.storage.job.FileJobTracker;
+import com.yitong.base.storage.model.ObjectContent;
+import com.yitong.base.storage.model.ObjectMetadata;
+import com.yitong.base.storage.service.FileRecordService;
+import com.yitong.base.storage.service.FileStreamService;
+import com.yitong.base.storage.util.HashingInputStream;
+import com.yitong.base.storage.util.LocalFiles;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboService;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import jakarta.annotation.PostConstruct;
 import java.io.ByteArrayInputStream;
-import java.security.MessageDigest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 对象存储服务实现类
@@ -28,86 +56,148 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @Service
 @DubboService
-public class StorageServiceImpl implements StorageService {
+public class StorageServiceImpl implements StorageService, FileStreamService {
     
-    @Value("${minio.endpoint:http://localhost:9000}")
-    private String endpoint;
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
     
-    @Value("${minio.access-key:minioadmin}")
-    private String accessKey;
+    @Value("${storage.download.max-chunk-size:4194304}")
+    private int maxChunkSize;
     
-    @Value("${minio.secret-key:minioadmin}")
-    private String secretKey;
+    @Autowired
+    private StorageBackendFactory storageBackendFactory;
     
-    @Value("${minio.bucket-name:yt-base}")
-    private String defaultBucketName;
+    @Autowired
+    private BatchExecutor batchExecutor;
     
-    private MinioClient minioClient;
+    @Autowired
+    private DedupIndex dedupIndex;
     
-    @PostConstruct
-    public void init() {
-        try {
-            minioClient = MinioClient.builder()
-                    .endpoint(endpoint)
-                    .credentials(accessKey, secretKey)
-                    .build();
-            
-            // 检查默认存储桶是否存在，不存在则创建
-            boolean exists = minioClient.bucketExists(BucketExistsArgs.builder()
-                    .bucket(defaultBucketName)
-                    .build());
-            
-            if (!exists) {
-                minioClient.makeBucket(MakeBucketArgs.builder()
-                        .bucket(defaultBucketName)
-                        .build());
-                log.info("创建默认存储桶: {}", defaultBucketName);
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    
+    @Autowired
+    private HotObjectCache hotObjectCache;
+    
+    @Autowired
+    private FileRecordService fileRecordService;
+    
+    @Autowired
+    private FileJobTracker fileJobTracker;
+    
+    @Value("${storage.job.page-size:500}")
+    private int jobPageSize;
+    
+    @Override
+    public FileInfo uploadFile(FileUploadRequest request) {
+        return saveStoredFile(storeFile(request));
+    }
+    
+    @Override
+    public FileInfo uploadFile(FileUploadRequest request, InputStream inputStream, long size) {
+        return saveStoredFile(storeFile(request, inputStream, size));
+    }
+    
+    /**
+     * 保存Base64编码的文件内容到对象存储，不写入文件信息表
+     */
+    private StoredFile storeFile(FileUploadRequest request) {
+        String fileContent = request.getFileContent();
+        if (!StringUtils.hasText(fileContent)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "文件内容不能为空");
+        }
+        
+        byte[] encoded = fileContent.getBytes(StandardCharsets.ISO_8859_1);
+        String md5 = null;
+        if (dedupIndex.isEnabled()) {
+            // 内容已在内存中，先由服务端计算摘要，命中去重时无需向对象存储传输数据；
+            // 客户端提供的MD5无法证明持有内容，不用于去重
+            try {
+                HashingInputStream hashingStream = new HashingInputStream(
+                        Base64.getDecoder().wrap(new ByteArrayInputStream(encoded)));
+                hashingStream.drain();
+                md5 = hashingStream.getMd5Hex();
+            } catch (Exception e) {
+                log.error("文件内容解码失败", e);
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "文件内容不是有效的Base64编码");
             }
-            
-        } catch (Exception e) {
-            log.warn("MinIO初始化失败，将使用模拟模式: {}", e.getMessage());
-            minioClient = null;
         }
+        
+        // 按流解码Base64，避免再分配一份完整的解码后字节数组
+        InputStream inputStream = Base64.getDecoder().wrap(new ByteArrayInputStream(encoded));
+        return storeFile(request, inputStream, decodedLength(fileContent), md5);
     }
     
-    @Override
-    public FileInfo uploadFile(FileUploadRequest request) {
+    /**
+     * 流式保存文件到对象存储，不写入文件信息表
+     */
+    private StoredFile storeFile(FileUploadRequest request, InputStream inputStream, long size) {
+        return storeFile(request, inputStream, size, null);
+    }
+    
+    /**
+     * 流式保存文件到对象存储，不写入文件信息表
+     *
+     * @param contentMd5 服务端已根据文件内容计算的MD5，为null时在上传过程中计算
+     */
+    private StoredFile storeFile(FileUploadRequest request, InputStream inputStream, long size, String contentMd5) {
         try {
-            byte[] fileBytes = Base64.getDecoder().decode(request.getFileContent());
+            StorageBackend backend = storageBackendFactory.getBackend();
             String fileId = UUID.randomUUID().toString();
             String bucketName = StringUtils.hasText(request.getBucketName()) ? 
-                    request.getBucketName() : defaultBucketName;
-            String objectName = StringUtils.hasText(request.getFilePath()) ? 
+                    request.getBucketName() : backend.getDefaultBucketName();
+            // 文件路径始终是调用方指定的逻辑路径，实际对象通过去重索引按文件ID解析
+            String filePath = StringUtils.hasText(request.getFilePath()) ? 
                     request.getFilePath() + "/" + fileId : fileId;
             
-            if (minioClient != null) {
-                // 上传文件到MinIO
-                minioClient.putObject(PutObjectArgs.builder()
-                        .bucket(bucketName)
-                        .object(objectName)
-                        .stream(new ByteArrayInputStream(fileBytes), fileBytes.length, -1)
-                        .contentType(request.getContentType())
-                        .build());
+            // 相同内容已存在时仅增加引用，不再上传；绑定写入失败说明Redis异常，本次不做去重
+            if (contentMd5 != null && size >= 0) {
+                String existingObject = dedupIndex.acquire(bucketName, contentMd5, size);
+                if (existingObject != null && dedupIndex.bindFile(fileId, existingObject)) {
+                    log.info("文件内容已存在，秒传成功: {} -> {}", fileId, existingObject);
+                    FileInfo fileInfo = buildFileInfo(fileId, request, bucketName, filePath, existingObject,
+                            size, contentMd5);
+                    fileMetadataCache.putFileInfo(fileInfo);
+                    return new StoredFile(fileInfo, existingObject);
+                }
+                if (existingObject != null) {
+                    discardObject(backend, bucketName, existingObject);
+                }
             }
             
-            // 构建文件信息
-            FileInfo fileInfo = new FileInfo();
-            fileInfo.setFileId(fileId);
-            fileInfo.setFileName(request.getFileName());
-            fileInfo.setFilePath(objectName);
-            fileInfo.setFileUrl(getFileUrl(fileId, 3600L));
-            fileInfo.setFileSize((long) fileBytes.length);
-            fileInfo.setContentType(request.getContentType());
-            fileInfo.setMd5(calculateMD5(fileBytes));
-            fileInfo.setBucketName(bucketName);
-            fileInfo.setUploadTime(System.currentTimeMillis());
-            fileInfo.setTags(request.getTags());
-            fileInfo.setDescription(request.getDescription());
-            fileInfo.setAccessPermission(1); // 默认私有
+            String objectName = filePath;
             
-            log.info("文件上传成功: {}", fileInfo.getFileId());
-            return fileInfo;
+            // 流式写入存储后端，MD5与文件大小在传输过程中增量计算
+            HashingInputStream hashingStream = new HashingInputStream(inputStream);
+            backend.putObject(bucketName, objectName, hashingStream, size,
+                    StringUtils.hasText(request.getContentType()) ? request.getContentType() : DEFAULT_CONTENT_TYPE);
+            long fileSize = hashingStream.getCount();
+            String md5 = hashingStream.getMd5Hex();
             
+            // 上传过程中相同内容已被登记（并发上传或流式上传）时，删除本次对象并引用已有对象
+            String canonicalObject = dedupIndex.register(bucketName, md5, objectName, fileSize);
+            if (!canonicalObject.equals(objectName)) {
+                if (dedupIndex.bindFile(fileId, canonicalObject)) {
+                    removeObjectQuietly(backend, bucketName, objectName);
+                    objectName = canonicalObject;
+                } else {
+                    // 无法绑定已有对象时保留本次上传的对象，不做去重
+                    discardObject(backend, bucketName, canonicalObject);
+                }
+            } else {
+                dedupIndex.bindFile(fileId, objectName);
+            }
+            
+            FileInfo fileInfo = buildFileInfo(fileId, request, bucketName, filePath, objectName, fileSize, md5);
+            fileMetadataCache.putFileInfo(fileInfo);
+            log.info("文件上传成功: {}, 大小: {}", fileInfo.getFileId(), fileInfo.getFileSize());
+            return new StoredFile(fileInfo, objectName);
+            
+        } catch (BusinessException e) {
+            if (ResultCode.SERVICE_UNAVAILABLE.getCode().equals(e.getCode())) {
+                throw e;
+            }
+            log.error("文件上传失败", e);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED);
         } catch (Exception e) {
             log.error("文件上传失败", e);
             throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED);
@@ -116,40 +206,205 @@ public class StorageServiceImpl implements StorageService {
     
     @Override
     public String downloadFile(String fileId) {
-        try {
-            if (minioClient != null) {
-                // 从MinIO下载文件
-                GetObjectResponse response = minioClient.getObject(GetObjectArgs.builder()
-                        .bucket(defaultBucketName)
-                        .object(fileId)
-                        .build());
-                
-                byte[] fileBytes = response.readAllBytes();
-                return Base64.getEncoder().encodeToString(fileBytes);
-            } else {
-                // 模拟下载
-                return Base64.getEncoder().encodeToString("模拟文件内容".getBytes());
-            }
-            
+        String objectName = resolveObject(fileId);
+        StorageBackend backend = storageBackendFactory.getBackend();
+        try (ObjectContent content = openObject(backend, objectName, 0, null)) {
+            return Base64.getEncoder().encodeToString(content.getInputStream().readAllBytes());
+        } catch (BusinessException e) {
+            throw downloadFailure(fileId, e);
         } catch (Exception e) {
             log.error("文件下载失败: {}", fileId, e);
             throw new BusinessException(ResultCode.FILE_DOWNLOAD_FAILED);
         }
     }
     
+    @Override
+    public FileChunk downloadFileChunk(String fileId, Long offset, Integer length) {
+        String objectName = resolveObject(fileId);
+        long start = offset != null && offset > 0 ? offset : 0L;
+        int chunkLength = length != null && length > 0 ? Math.min(length, maxChunkSize) : maxChunkSize;
+        
+        StorageBackend backend = storageBackendFactory.getBackend();
+        try (ObjectContent content = openObject(backend, objectName, start, (long) chunkLength)) {
+            byte[] data = content.getInputStream().readNBytes(chunkLength);
+            long totalSize = content.getTotalSize() >= 0 ? content.getTotalSize() : start + data.length;
+            
+            FileChunk chunk = new FileChunk();
+            chunk.setFileId(fileId);
+            chunk.setOffset(start);
+            chunk.setData(data);
+            chunk.setLength(data.length);
+            chunk.setTotalSize(totalSize);
+            chunk.setLast(start + data.length >= totalSize);
+            return chunk;
+            
+        } catch (BusinessException e) {
+            throw downloadFailure(fileId, e);
+        } catch (Exception e) {
+            log.error("文件分块下载失败: {}, offset: {}", fileId, start, e);
+            throw new BusinessException(ResultCode.FILE_DOWNLOAD_FAILED);
+        }
+    }
+    
+    /**
+     * 将文件ID解析为实际的对象名：优先读取Redis中的绑定，未命中时读取文件信息表，
+     * 均没有记录的历史文件以文件ID为对象名
+     */
+    private String resolveObject(String fileId) {
+        String objectName = dedupIndex.resolve(fileId);
+        if (objectName != null) {
+            return objectName;
+        }
+        try {
+            objectName = fileRecordService.getObjectName(fileId);
+        } catch (Exception e) {
+            // 无法确认对象名时不能按文件ID猜测，避免读取或删除错误的对象
+            log.error("查询文件对象名失败: {}", fileId, e);
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "文件信息暂时无法读取，请稍后重试");
+        }
+        return objectName != null ? objectName : fileId;
+    }
+    
+    /**
+     * 批量解析文件ID，规则同{@link #resolveObject(String)}
+     */
+    private List<String> resolveObjects(List<String> fileIds) {
+        List<String> objectNames = new ArrayList<>(dedupIndex.resolveAll(fileIds));
+        List<String> unresolved = new ArrayList<>();
+        for (int i = 0; i < fileIds.size(); i++) {
+            if (objectNames.get(i) == null) {
+                unresolved.add(fileIds.get(i));
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return objectNames;
+        }
+        Map<String, String> recorded;
+        try {
+            recorded = fileRecordService.getObjectNames(unresolved);
+        } catch (Exception e) {
+            log.error("批量查询文件对象名失败，数量: {}", unresolved.size(), e);
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "文件信息暂时无法读取，请稍后重试");
+        }
+        for (int i = 0; i < fileIds.size(); i++) {
+            if (objectNames.get(i) == null) {
+                objectNames.set(i, recorded.getOrDefault(fileIds.get(i), fileIds.get(i)));
+            }
+        }
+        return objectNames;
+    }
+    
+    @Override
+    public ObjectMetadata statObject(String fileId) {
+        String objectName = resolveObject(fileId);
+        StorageBackend backend = storageBackendFactory.getBackend();
+        try {
+            // 对象内容不可变，元数据命中缓存时下载无需访问存储后端
+            return fileMetadataCache.getObjectMetadata(objectName,
+                    name -> backend.statObject(backend.getDefaultBucketName(), name));
+        } catch (BusinessException e) {
+            throw downloadFailure(fileId, e);
+        }
+    }
+    
+    @Override
+    public InputStream openStream(String fileId, long offset, Long length) {
+        String objectName = resolveObject(fileId);
+        StorageBackend backend = storageBackendFactory.getBackend();
+        try {
+            return openObject(backend, objectName, offset, length).getInputStream();
+        } catch (BusinessException e) {
+            throw downloadFailure(fileId, e);
+        }
+    }
+    
+    @Override
+    public boolean transferTo(String fileId, long offset, long length, WritableByteChannel target) {
+        String objectName = resolveObject(fileId);
+        StorageBackend backend = storageBackendFactory.getBackend();
+        Path cached = cachedFile(backend, objectName);
+        if (cached == null) {
+            try {
+                return backend.transferTo(backend.getDefaultBucketName(), objectName, offset, length, target);
+            } catch (BusinessException e) {
+                throw downloadFailure(fileId, e);
+            }
+        }
+        
+        try (FileChannel channel = FileChannel.open(cached, StandardOpenOption.READ)) {
+            LocalFiles.transfer(channel, offset, length, target);
+            return true;
+        } catch (IOException e) {
+            // 写出失败多为客户端断开，交由调用方按IO异常处理
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public Path getLocalFile(String fileId) {
+        String objectName = resolveObject(fileId);
+        StorageBackend backend = storageBackendFactory.getBackend();
+        Path localPath = backend.getLocalPath(backend.getDefaultBucketName(), objectName);
+        return localPath != null ? localPath : cachedFile(backend, objectName);
+    }
+    
+    /**
+     * 打开对象内容，命中热点对象缓存时直接读取本地缓存文件
+     */
+    private ObjectContent openObject(StorageBackend backend, String objectName, long offset, Long length) {
+        Path cached = cachedFile(backend, objectName);
+        if (cached != null) {
+            try {
+                return LocalFiles.open(cached, offset, length);
+            } catch (IOException e) {
+                log.warn("读取热点缓存文件失败，改为读取存储后端: {}, {}", objectName, e.getMessage());
+            }
+        }
+        return backend.getObject(backend.getDefaultBucketName(), objectName, offset, length);
+    }
+    
+    /**
+     * 获取对象的热点缓存文件，本地磁盘后端无需再缓存
+     */
+    private Path cachedFile(StorageBackend backend, String objectName) {
+        if (!hotObjectCache.isEnabled() || backend.getLocalPath(backend.getDefaultBucketName(), objectName) != null) {
+            return null;
+        }
+        return hotObjectCache.get(objectName, name -> backend.getObject(backend.getDefaultBucketName(), name, 0, null));
+    }
+    
     @Override
     public Boolean deleteFile(String fileId) {
         try {
-            if (minioClient != null) {
-                minioClient.removeObject(RemoveObjectArgs.builder()
-                        .bucket(defaultBucketName)
-                        .object(fileId)
-                        .build());
+            StorageBackend backend = storageBackendFactory.getBackend();
+            String bucketName = backend.getDefaultBucketName();
+            String objectName = resolveObject(fileId);
+            // 仍有其他文件引用相同内容时只释放引用，不删除对象
+            long remainingRefs = dedupIndex.release(bucketName, objectName);
+            if (remainingRefs <= 0) {
+                try {
+                    backend.removeObject(bucketName, objectName);
+                } catch (RuntimeException e) {
+                    // 物理删除失败时文件保留，恢复已释放的引用
+                    dedupIndex.restore(bucketName, objectName, 1);
+                    throw e;
+                }
+                dedupIndex.forget(bucketName, objectName);
+                hotObjectCache.invalidate(objectName);
             }
+            dedupIndex.unbindFile(fileId);
+            removeFileRecords(List.of(fileId));
+            fileMetadataCache.invalidate(fileId, remainingRefs <= 0 ? objectName : null);
             
-            log.info("文件删除成功: {}", fileId);
+            log.info("文件删除成功: {}, 剩余引用: {}", fileId, remainingRefs);
             return true;
             
+        } catch (BusinessException e) {
+            if (ResultCode.SERVICE_UNAVAILABLE.getCode().equals(e.getCode())) {
+                throw e;
+            }
+            log.error("文件删除失败: {}", fileId, e);
+            throw new BusinessException(ResultCode.FILE_DELETE_FAILED);
         } catch (Exception e) {
             log.error("文件删除失败: {}", fileId, e);
             throw new BusinessException(ResultCode.FILE_DELETE_FAILED);
@@ -158,38 +413,37 @@ public class StorageServiceImpl implements StorageService {
     
     @Override
     public FileInfo getFileInfo(String fileId) {
+        return fileMetadataCache.getFileInfo(fileId, this::loadFileInfo);
+    }
+    
+    private FileInfo loadFileInfo(String fileId) {
+        FileInfo record = fileRecordService.getByFileId(fileId);
+        if (record != null) {
+            record.setFileUrl(presignedUrl(resolveObject(fileId), 3600L));
+            return record;
+        }
+        
+        // 文件信息表中没有记录的历史文件，从对象元数据构建
+        String objectName = resolveObject(fileId);
+        StorageBackend backend = storageBackendFactory.getBackend();
         try {
-            if (minioClient != null) {
-                StatObjectResponse stat = minioClient.statObject(StatObjectArgs.builder()
-                        .bucket(defaultBucketName)
-                        .object(fileId)
-                        .build());
-                
-                FileInfo fileInfo = new FileInfo();
-                fileInfo.setFileId(fileId);
-                fileInfo.setFileName(fileId);
-                fileInfo.setFilePath(fileId);
-                fileInfo.setFileSize(stat.size());
-                fileInfo.setContentType(stat.contentType());
-                fileInfo.setBucketName(defaultBucketName);
-                fileInfo.setUploadTime(stat.lastModified().toEpochSecond() * 1000);
-                
-                return fileInfo;
-            } else {
-                // 模拟文件信息
-                FileInfo fileInfo = new FileInfo();
-                fileInfo.setFileId(fileId);
-                fileInfo.setFileName("模拟文件.txt");
-                fileInfo.setFilePath(fileId);
-                fileInfo.setFileSize(1024L);
-                fileInfo.setContentType("text/plain");
-                fileInfo.setBucketName(defaultBucketName);
-                fileInfo.setUploadTime(System.currentTimeMillis());
-                
-                return fileInfo;
-            }
+            ObjectMetadata metadata = backend.statObject(backend.getDefaultBucketName(), objectName);
             
-        } catch (Exception e) {
+            FileInfo fileInfo = new FileInfo();
+            fileInfo.setFileId(fileId);
+            fileInfo.setFileName(fileId);
+            fileInfo.setFilePath(objectName);
+            fileInfo.setFileSize(metadata.getSize());
+            fileInfo.setContentType(metadata.getContentType());
+            fileInfo.setBucketName(metadata.getBucketName());
+            fileInfo.setUploadTime(metadata.getLastModified());
+            return fileInfo;
+            
+        } catch (BusinessException e) {
+            if (ResultCode.NOT_FOUND.getCode().equals(e.getCode())
+                    || ResultCode.SERVICE_UNAVAILABLE.getCode().equals(e.getCode())) {
+                throw e;
+            }
             log.error("获取文件信息失败: {}", fileId, e);
             throw new BusinessException(ResultCode.ERROR.getCode(), "获取文件信息失败");
         }
@@ -197,76 +451,168 @@ public class StorageServiceImpl implements StorageService {
     
     @Override
     public String getFileUrl(String fileId, Long expireTime) {
+        return presignedUrl(resolveObject(fileId), expireTime);
+    }
+    
+    @Override
+    public PageResult<FileInfo> listFiles(FileQueryRequest request) {
         try {
-            if (minioClient != null) {
-                return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
-                        .method(Method.GET)
-                        .bucket(defaultBucketName)
-                        .object(fileId)
-                        .expiry(expireTime.intValue(), TimeUnit.SECONDS)
-                        .build());
-            } else {
-                return "http://localhost:8083/storage/api/files/" + fileId;
-            }
-            
+            return fileRecordService.queryFiles(request);
         } catch (Exception e) {
-            log.error("获取文件URL失败: {}", fileId, e);
-            return null;
+            log.error("查询文件列表失败", e);
+            throw new BusinessException(ResultCode.ERROR.getCode(), "查询文件列表失败");
         }
     }
     
     @Override
     public List<FileInfo> batchUploadFiles(List<FileUploadRequest> requests) {
         List<FileInfo> fileInfos = new ArrayList<>();
-        for (FileUploadRequest request : requests) {
-            try {
-                FileInfo fileInfo = uploadFile(request);
-                fileInfos.add(fileInfo);
-            } catch (Exception e) {
-                log.error("批量上传文件失败: {}", request.getFileName(), e);
+        for (BatchResult.BatchItemResult item : batchUploadFilesWithResult(requests).getItems()) {
+            if (item.getSuccess()) {
+                fileInfos.add(item.getFileInfo());
             }
         }
         return fileInfos;
     }
     
     @Override
-    public Boolean batchDeleteFiles(List<String> fileIds) {
-        boolean allSuccess = true;
-        for (String fileId : fileIds) {
-            try {
-                deleteFile(fileId);
-            } catch (Exception e) {
-                log.error("批量删除文件失败: {}", fileId, e);
-                allSuccess = false;
+    public BatchResult batchUploadFilesWithResult(List<FileUploadRequest> requests) {
+        long startTime = System.currentTimeMillis();
+        List<BatchExecutor.Outcome<StoredFile>> outcomes = batchExecutor.execute(requests, this::storeFile);
+        List<FileInfo> storedFiles = new ArrayList<>(outcomes.size());
+        Map<String, String> objectNames = new HashMap<>();
+        
+        List<BatchResult.BatchItemResult> items = new ArrayList<>(outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            BatchExecutor.Outcome<StoredFile> outcome = outcomes.get(i);
+            BatchResult.BatchItemResult item = new BatchResult.BatchItemResult();
+            item.setIndex(i);
+            item.setSuccess(outcome.isSuccess());
+            if (outcome.isSuccess()) {
+                FileInfo fileInfo = outcome.getValue().fileInfo();
+                item.setFileId(fileInfo.getFileId());
+                item.setFileInfo(fileInfo);
+                storedFiles.add(fileInfo);
+                objectNames.put(fileInfo.getFileId(), outcome.getValue().objectName());
+            } else {
+                log.error("批量上传文件失败: {}", requests.get(i).getFileName(), outcome.getError());
+                item.setErrorMessage(outcome.getError().getMessage());
             }
+            items.add(item);
         }
-        return allSuccess;
+        
+        // 整批文件信息一次多行写入；文件信息表记录对象名映射，写入失败时整批已存储的文件均按失败处理
+        try {
+            fileRecordService.saveFileInfos(storedFiles, objectNames);
+        } catch (Exception e) {
+            log.error("批量保存文件信息失败，数量: {}", storedFiles.size(), e);
+            for (BatchResult.BatchItemResult item : items) {
+                if (item.getSuccess()) {
+                    FileInfo fileInfo = item.getFileInfo();
+                    rollbackStoredFile(fileInfo, objectNames.get(fileInfo.getFileId()));
+                    item.setSuccess(false);
+                    item.setFileId(null);
+                    item.setFileInfo(null);
+                    item.setErrorMessage("保存文件信息失败");
+                }
+            }
+        }
+        
+        return buildBatchResult(items, startTime);
     }
     
     @Override
-    public FileInfo copyFile(String sourceFileId, String targetPath) {
-        try {
-            if (minioClient != null) {
-                String targetObjectName = targetPath + "/" + UUID.randomUUID().toString();
-                
-                minioClient.copyObject(CopyObjectArgs.builder()
-                        .bucket(defaultBucketName)
-                        .object(targetObjectName)
-                        .source(CopySource.builder()
-                                .bucket(defaultBucketName)
-                                .object(sourceFileId)
-                                .build())
-                        .build());
-                
-                return getFileInfo(targetObjectName);
+    public Boolean batchDeleteFiles(List<String> fileIds) {
+        return batchDeleteFilesWithResult(fileIds).getFailCount() == 0;
+    }
+    
+    @Override
+    public BatchResult batchDeleteFilesWithResult(List<String> fileIds) {
+        long startTime = System.currentTimeMillis();
+        StorageBackend backend = storageBackendFactory.getBackend();
+        String bucketName = backend.getDefaultBucketName();
+        
+        // 先释放去重引用，只有引用归零的对象才需要物理删除；重复的文件ID只释放一次
+        List<String> uniqueFileIds = new ArrayList<>(new LinkedHashSet<>(fileIds));
+        List<String> uniqueObjectNames = resolveObjects(uniqueFileIds);
+        Map<String, String> fileObjects = new HashMap<>();
+        Map<String, Integer> releasedRefs = new HashMap<>();
+        Set<String> removableSet = new LinkedHashSet<>();
+        for (int i = 0; i < uniqueFileIds.size(); i++) {
+            String objectName = uniqueObjectNames.get(i);
+            fileObjects.put(uniqueFileIds.get(i), objectName);
+            releasedRefs.merge(objectName, 1, Integer::sum);
+            if (dedupIndex.release(bucketName, objectName) <= 0) {
+                removableSet.add(objectName);
+            }
+        }
+        List<String> removableObjects = new ArrayList<>(removableSet);
+        
+        // 每个分组一次批量删除请求，分组之间并发执行
+        int groupSize = backend.getMaxBatchDeleteSize();
+        List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < removableObjects.size(); i += groupSize) {
+            groups.add(removableObjects.subList(i, Math.min(i + groupSize, removableObjects.size())));
+        }
+        List<BatchExecutor.Outcome<Map<String, String>>> outcomes = batchExecutor.execute(groups,
+                group -> backend.removeObjects(bucketName, group));
+        
+        Map<String, String> errors = new HashMap<>();
+        for (int g = 0; g < groups.size(); g++) {
+            BatchExecutor.Outcome<Map<String, String>> outcome = outcomes.get(g);
+            if (outcome.isSuccess()) {
+                errors.putAll(outcome.getValue());
             } else {
-                // 模拟复制
-                FileInfo fileInfo = getFileInfo(sourceFileId);
-                fileInfo.setFileId(UUID.randomUUID().toString());
-                fileInfo.setFilePath(targetPath);
-                return fileInfo;
+                for (String objectName : groups.get(g)) {
+                    errors.put(objectName, outcome.getError().getMessage());
+                }
             }
+        }
+        // 删除失败的对象恢复本批次释放的引用，删除成功的对象清除登记
+        for (String objectName : removableObjects) {
+            if (errors.containsKey(objectName)) {
+                dedupIndex.restore(bucketName, objectName, releasedRefs.get(objectName));
+            } else {
+                dedupIndex.forget(bucketName, objectName);
+            }
+        }
+        
+        List<BatchResult.BatchItemResult> items = new ArrayList<>(fileIds.size());
+        Set<String> deletedFileIds = new LinkedHashSet<>();
+        for (int i = 0; i < fileIds.size(); i++) {
+            String objectName = fileObjects.get(fileIds.get(i));
+            String errorMessage = errors.get(objectName);
             
+            BatchResult.BatchItemResult item = new BatchResult.BatchItemResult();
+            item.setIndex(i);
+            item.setFileId(fileIds.get(i));
+            item.setSuccess(errorMessage == null);
+            item.setErrorMessage(errorMessage);
+            items.add(item);
+            
+            if (errorMessage == null && deletedFileIds.add(fileIds.get(i))) {
+                boolean removed = removableSet.contains(objectName);
+                fileMetadataCache.invalidate(fileIds.get(i), removed ? objectName : null);
+                if (removed) {
+                    hotObjectCache.invalidate(objectName);
+                }
+            }
+        }
+        dedupIndex.unbindFiles(new ArrayList<>(deletedFileIds));
+        removeFileRecords(new ArrayList<>(deletedFileIds));
+        
+        BatchResult result = buildBatchResult(items, startTime);
+        log.info("批量删除文件完成，总数: {}, 失败: {}, 耗时: {}ms",
+                result.getTotalCount(), result.getFailCount(), result.getDuration());
+        return result;
+    }
+    
+    @Override
+    public FileInfo copyFile(String sourceFileId, String targetPath) {
+        try {
+            return relocate(sourceFileId, targetPath, true);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("文件复制失败: {} -> {}", sourceFileId, targetPath, e);
             throw new BusinessException(ResultCode.ERROR.getCode(), "文件复制失败");
@@ -276,27 +622,332 @@ public class StorageServiceImpl implements StorageService {
     @Override
     public Boolean moveFile(String fileId, String targetPath) {
         try {
-            FileInfo copiedFile = copyFile(fileId, targetPath);
-            deleteFile(fileId);
+            relocate(fileId, targetPath, false);
             return true;
             
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("文件移动失败: {} -> {}", fileId, targetPath, e);
             throw new BusinessException(ResultCode.ERROR.getCode(), "文件移动失败");
         }
     }
     
-    private String calculateMD5(byte[] data) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] hash = md.digest(data);
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hash) {
-                sb.append(String.format("%02x", b));
+    @Override
+    public BatchResult batchCopyFiles(List<String> fileIds, String targetPath) {
+        return batchRelocate(fileIds, targetPath, true);
+    }
+    
+    @Override
+    public BatchResult batchMoveFiles(List<String> fileIds, String targetPath) {
+        return batchRelocate(fileIds, targetPath, false);
+    }
+    
+    @Override
+    public String submitCopyJob(String sourcePrefix, String targetPath) {
+        return submitRelocateJob(sourcePrefix, targetPath, true);
+    }
+    
+    @Override
+    public String submitMoveJob(String sourcePrefix, String targetPath) {
+        return submitRelocateJob(sourcePrefix, targetPath, false);
+    }
+    
+    @Override
+    public FileJobStatus getJobStatus(String jobId) {
+        FileJobStatus status = fileJobTracker.getStatus(jobId);
+        if (status == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "任务不存在");
+        }
+        return status;
+    }
+    
+    private BatchResult batchRelocate(List<String> fileIds, String targetPath, boolean keepSource) {
+        long startTime = System.currentTimeMillis();
+        List<BatchExecutor.Outcome<FileInfo>> outcomes = batchExecutor.execute(fileIds,
+                fileId -> relocate(fileId, targetPath, keepSource));
+        
+        List<BatchResult.BatchItemResult> items = new ArrayList<>(outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            BatchExecutor.Outcome<FileInfo> outcome = outcomes.get(i);
+            BatchResult.BatchItemResult item = new BatchResult.BatchItemResult();
+            item.setIndex(i);
+            item.setFileId(fileIds.get(i));
+            item.setSuccess(outcome.isSuccess());
+            if (outcome.isSuccess()) {
+                item.setFileInfo(outcome.getValue());
+            } else {
+                log.error("批量{}文件失败: {}", keepSource ? "复制" : "移动", fileIds.get(i), outcome.getError());
+                item.setErrorMessage(outcome.getError().getMessage());
             }
-            return sb.toString();
+            items.add(item);
+        }
+        return buildBatchResult(items, startTime);
+    }
+    
+    private String submitRelocateJob(String sourcePrefix, String targetPath, boolean keepSource) {
+        // 前缀统一为不带结尾分隔符的目录，按完整目录匹配
+        String sourceDirectory = StringUtils.hasText(sourcePrefix) && sourcePrefix.endsWith("/") ?
+                sourcePrefix.substring(0, sourcePrefix.length() - 1) : sourcePrefix;
+        if (!StringUtils.hasText(sourceDirectory) || !StringUtils.hasText(targetPath)) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "源路径前缀和目标路径不能为空");
+        }
+        
+        return fileJobTracker.submit(keepSource ? "COPY" : "MOVE", sourceDirectory, targetPath, context -> {
+            // 只处理提交时已存在的记录，避免复制到前缀内部时处理新产生的记录
+            long maxId = fileRecordService.getMaxId();
+            long afterId = 0;
+            while (true) {
+                List<FileInfoEntity> records = fileRecordService.listByPathPrefix(sourceDirectory, afterId, maxId, jobPageSize);
+                if (records.isEmpty()) {
+                    break;
+                }
+                afterId = records.get(records.size() - 1).getId();
+                
+                // 保留前缀之后的相对目录，目录结构整体迁移
+                List<BatchExecutor.Outcome<FileInfo>> outcomes = batchExecutor.execute(records, record -> {
+                    String filePath = record.getFilePath();
+                    String relativePath = filePath.length() > sourceDirectory.length() ?
+                            filePath.substring(sourceDirectory.length() + 1) : "";
+                    int separator = relativePath.lastIndexOf('/');
+                    String targetDirectory = separator > 0 ?
+                            joinPath(targetPath, relativePath.substring(0, separator)) : targetPath;
+                    return relocate(record.getFileId(), targetDirectory, keepSource);
+                });
+                
+                int successCount = 0;
+                for (int i = 0; i < outcomes.size(); i++) {
+                    if (outcomes.get(i).isSuccess()) {
+                        successCount++;
+                    } else {
+                        log.error("后台任务处理文件失败: {}", records.get(i).getFileId(), outcomes.get(i).getError());
+                    }
+                }
+                context.progress(successCount, outcomes.size() - successCount);
+            }
+        });
+    }
+    
+    /**
+     * 复制或移动文件到目标目录，目标文件按文件ID命名，文件信息由已知元数据构建，无需再次statObject
+     * <p>
+     * 复制时对象已登记去重索引则直接共享对象；移动时对象仅被本文件引用才在存储中移动，
+     * 并将去重登记连同引用计数迁移到新对象名，被其他文件共享时只修改逻辑路径
+     *
+     * @param fileId 源文件ID
+     * @param targetDirectory 目标目录
+     * @param keepSource true-复制（生成新文件ID），false-移动（保留文件ID）
+     * @return 目标文件信息
+     */
+    private FileInfo relocate(String fileId, String targetDirectory, boolean keepSource) {
+        StorageBackend backend = storageBackendFactory.getBackend();
+        String bucketName = backend.getDefaultBucketName();
+        FileInfo source = getFileInfo(fileId);
+        String sourceObjectName = resolveObject(fileId);
+        String targetFileId = keepSource ? UUID.randomUUID().toString() : fileId;
+        String targetPath = joinPath(targetDirectory, targetFileId);
+        
+        // 缓存中的对象可能被并发读取，复制一份再修改
+        FileInfo target = new FileInfo();
+        BeanUtils.copyProperties(source, target);
+        target.setFileId(targetFileId);
+        target.setFilePath(targetPath);
+        
+        String targetObjectName;
+        if (keepSource) {
+            targetObjectName = sourceObjectName;
+            if (!dedupIndex.retain(bucketName, sourceObjectName)) {
+                backend.copyObject(bucketName, sourceObjectName, targetPath);
+                targetObjectName = StringUtils.hasText(source.getMd5()) ?
+                        dedupIndex.register(bucketName, source.getMd5(), targetPath, source.getFileSize()) : targetPath;
+                if (!targetObjectName.equals(targetPath)) {
+                    removeObjectQuietly(backend, bucketName, targetPath);
+                }
+            }
+            dedupIndex.bindFile(targetFileId, targetObjectName);
+            target.setUploadTime(System.currentTimeMillis());
+            saveStoredFile(new StoredFile(target, targetObjectName));
+        } else {
+            targetObjectName = moveObject(backend, bucketName, sourceObjectName, targetPath);
+            dedupIndex.bindFile(fileId, targetObjectName);
+            boolean moved = !targetObjectName.equals(sourceObjectName);
+            try {
+                fileRecordService.updateFilePath(fileId, targetPath, targetObjectName);
+            } catch (Exception e) {
+                // 文件信息表仍记录源对象，保留源对象保证按文件信息表解析时仍可读取
+                log.error("更新文件路径失败，保留源对象: {}", fileId, e);
+                moved = false;
+            }
+            if (moved) {
+                removeObjectQuietly(backend, bucketName, sourceObjectName);
+                hotObjectCache.invalidate(sourceObjectName);
+            }
+            fileMetadataCache.invalidate(fileId, moved ? sourceObjectName : null);
+        }
+        target.setFileUrl(presignedUrl(targetObjectName, 3600L));
+        fileMetadataCache.putFileInfo(target);
+        return target;
+    }
+    
+    /**
+     * 在存储中移动仅被单个文件引用的对象，源对象由调用方删除
+     *
+     * @return 移动后文件引用的对象名，对象被共享或已在目标位置时返回源对象名
+     */
+    private String moveObject(StorageBackend backend, String bucketName, String sourceObjectName, String targetObjectName) {
+        if (targetObjectName.equals(sourceObjectName) || dedupIndex.isShared(bucketName, sourceObjectName)) {
+            return sourceObjectName;
+        }
+        backend.copyObject(bucketName, sourceObjectName, targetObjectName);
+        // 复制期间对象可能被新上传的相同内容引用，登记迁移与共享检查原子完成
+        if (dedupIndex.rename(bucketName, sourceObjectName, targetObjectName)) {
+            return targetObjectName;
+        }
+        removeObjectQuietly(backend, bucketName, targetObjectName);
+        return sourceObjectName;
+    }
+    
+    private String joinPath(String directory, String name) {
+        String dir = directory.endsWith("/") ? directory.substring(0, directory.length() - 1) : directory;
+        String file = name.startsWith("/") ? name.substring(1) : name;
+        return dir.isEmpty() ? file : dir + "/" + file;
+    }
+    
+    /**
+     * 写入文件信息；文件信息表记录文件与对象的对应关系，写入失败时撤销本次存储并上传失败
+     */
+    private FileInfo saveStoredFile(StoredFile storedFile) {
+        FileInfo fileInfo = storedFile.fileInfo();
+        try {
+            fileRecordService.saveFileInfo(fileInfo, storedFile.objectName());
+            return fileInfo;
+        } catch (Exception e) {
+            log.error("保存文件信息失败: {}", fileInfo.getFileId(), e);
+            rollbackStoredFile(fileInfo, storedFile.objectName());
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED);
+        }
+    }
+    
+    /**
+     * 撤销未能写入文件信息的文件：释放对象引用、解除绑定并清除缓存
+     */
+    private void rollbackStoredFile(FileInfo fileInfo, String objectName) {
+        discardObject(storageBackendFactory.getBackend(), fileInfo.getBucketName(), objectName);
+        dedupIndex.unbindFile(fileInfo.getFileId());
+        fileMetadataCache.invalidate(fileInfo.getFileId(), objectName);
+    }
+    
+    private void removeFileRecords(List<String> fileIds) {
+        try {
+            fileRecordService.removeByFileIds(fileIds);
+        } catch (Exception e) {
+            log.error("删除文件信息失败: {}", fileIds, e);
+        }
+    }
+    
+    /**
+     * @param filePath 调用方的逻辑文件路径
+     * @param objectName 实际存储的对象名，去重命中时为其他文件上传的对象
+     */
+    private FileInfo buildFileInfo(String fileId, FileUploadRequest request, String bucketName,
+                                   String filePath, String objectName, long fileSize, String md5) {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setFileId(fileId);
+        fileInfo.setFileName(request.getFileName());
+        fileInfo.setFilePath(filePath);
+        fileInfo.setFileUrl(presignedUrl(objectName, 3600L));
+        fileInfo.setFileSize(fileSize);
+        fileInfo.setContentType(request.getContentType());
+        fileInfo.setMd5(md5);
+        fileInfo.setBucketName(bucketName);
+        fileInfo.setUploadTime(System.currentTimeMillis());
+        fileInfo.setTags(request.getTags());
+        fileInfo.setDescription(request.getDescription());
+        fileInfo.setAccessPermission(1); // 默认私有
+        return fileInfo;
+    }
+    
+    private String presignedUrl(String objectName, Long expireTime) {
+        return fileMetadataCache.getPresignedUrl(objectName, expireTime, () -> signUrl(objectName, expireTime));
+    }
+    
+    private String signUrl(String objectName, Long expireTime) {
+        try {
+            StorageBackend backend = storageBackendFactory.getBackend();
+            return backend.getPresignedUrl(backend.getDefaultBucketName(), objectName, expireTime);
         } catch (Exception e) {
-            return "";
+            log.error("获取文件URL失败: {}", objectName, e);
+            return null;
         }
     }
+    
+    /**
+     * 释放一次对象引用，引用归零时删除对象
+     */
+    private void discardObject(StorageBackend backend, String bucketName, String objectName) {
+        if (dedupIndex.release(bucketName, objectName) <= 0) {
+            removeObjectQuietly(backend, bucketName, objectName);
+            dedupIndex.forget(bucketName, objectName);
+        }
+    }
+    
+    private void removeObjectQuietly(StorageBackend backend, String bucketName, String objectName) {
+        try {
+            backend.removeObject(bucketName, objectName);
+        } catch (Exception e) {
+            log.warn("删除重复对象失败: {}, {}", objectName, e.getMessage());
+        }
+    }
+    
+    /**
+     * 对象不存在和存储后端不可用时保留原错误码，其余读取失败统一为下载失败
+     */
+    private BusinessException downloadFailure(String fileId, BusinessException e) {
+        if (ResultCode.NOT_FOUND.getCode().equals(e.getCode())
+                || ResultCode.SERVICE_UNAVAILABLE.getCode().equals(e.getCode())) {
+            return e;
+        }
+        log.error("文件读取失败: {}", fileId, e);
+        return new BusinessException(ResultCode.FILE_DOWNLOAD_FAILED);
+    }
+    
+    private BatchResult buildBatchResult(List<BatchResult.BatchItemResult> items, long startTime) {
+        int successCount = 0;
+        for (BatchResult.BatchItemResult item : items) {
+            if (item.getSuccess()) {
+                successCount++;
+            }
+        }
+        
+        BatchResult result = new BatchResult();
+        result.setTotalCount(items.size());
+        result.setSuccessCount(successCount);
+        result.setFailCount(items.size() - successCount);
+        result.setDuration(System.currentTimeMillis() - startTime);
+        result.setItems(items);
+        return result;
+    }
+    
+    /**
+     * 根据Base64字符串长度计算解码后的字节数
+     */
+    private long decodedLength(String base64) {
+        int length = base64.length();
+        int padding = 0;
+        if (length > 0 && base64.charAt(length - 1) == '=') {
+            padding++;
+            if (length > 1 && base64.charAt(length - 2) == '=') {
+                padding++;
+            }
+        }
+        return (long) length / 4 * 3 - padding;
+    }
+    
+    /**
+     * 已写入对象存储、尚未写入文件信息表的文件
+     *
+     * @param objectName 实际存储的对象名
+     */
+    private record StoredFile(FileInfo fileInfo, String objectName) {
+    }
 }
\ No newline at end of file
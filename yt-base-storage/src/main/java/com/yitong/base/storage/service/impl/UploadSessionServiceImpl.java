@@ -0,0 +1,442 @@
+package com.yitong.base.storage.service.impl;
+
+import com.yitong.base.api.storage.dto.FileInfo;
+import com.yitong.base.api.storage.dto.FileUploadRequest;
+import com.yitong.base.api.storage.service.StorageService;
+import com.yitong.base.common.exception.BusinessException;
+import com.yitong.base.common.result.ResultCode;
+import com.yitong.base.storage.backend.StorageBackend;
+import com.yitong.base.storage.backend.StorageBackendFactory;
+import com.yitong.base.storage.cache.FileMetadataCache;
+import com.yitong.base.storage.dedup.DedupIndex;
+import com.yitong.base.storage.model.ObjectContent;
+import com.yitong.base.storage.model.UploadPart;
+import com.yitong.base.storage.model.UploadSession;
+import com.yitong.base.storage.service.FileRecordService;
+import com.yitong.base.storage.service.UploadSessionService;
+import com.yitong.base.storage.util.HashingInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import jakarta.annotation.PostConstruct;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片上传会话服务实现类
+ * <p>
+ * 会话信息保存在 storage:upload:{uploadId}，已上传分片保存在 storage:upload:{uploadId}:parts，
+ * 活跃会话按最后活动时间记录在有序集合中，超时未完成的会话由定时任务取消并清理后端分片。
+ */
+@Slf4j
+@Service
+public class UploadSessionServiceImpl implements UploadSessionService {
+    
+    private static final String SESSION_KEY_PREFIX = "storage:upload:";
+    
+    private static final String PARTS_KEY_SUFFIX = ":parts";
+    
+    private static final String ACTIVE_SESSIONS_KEY = "storage:upload:active";
+    
+    private static final int MAX_PART_NUMBER = 10000;
+    
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    
+    /**
+     * 会话未开始合并时记录分片，与complete设置completing标记互斥，合并读取分片列表后不会再有分片写入
+     * KEYS[1]=会话键，KEYS[2]=分片键，ARGV[1]=分片序号，ARGV[2]=分片信息，ARGV[3]=已完成状态
+     * 返回1-成功，0-会话正在合并或已完成，-1-会话不存在
+     */
+    private static final RedisScript<Long> RECORD_PART_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+            "if redis.call('HEXISTS', KEYS[1], 'completing') == 1 " +
+            "  or redis.call('HGET', KEYS[1], 'status') == ARGV[3] then return 0 end " +
+            "redis.call('HSET', KEYS[2], ARGV[1], ARGV[2]) " +
+            "return 1", Long.class);
+    
+    @Value("${storage.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+    
+    @Value("${storage.upload.max-part-size:33554432}")
+    private long maxPartSize;
+    
+    @Value("${storage.upload.max-concurrent-parts:16}")
+    private int maxConcurrentParts;
+    
+    @Value("${storage.upload.cleanup-batch-size:100}")
+    private int cleanupBatchSize;
+    
+    @Value("${storage.upload.dedup-max-size:268435456}")
+    private long dedupMaxSize;
+    
+    @Autowired
+    private StorageBackendFactory storageBackendFactory;
+    
+    @Autowired
+    private StorageService storageService;
+    
+    @Autowired
+    private DedupIndex dedupIndex;
+    
+    @Autowired
+    private FileMetadataCache fileMetadataCache;
+    
+    @Autowired
+    private FileRecordService fileRecordService;
+    
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+    
+    /**
+     * 限制本节点同时接收的分片数，部分后端需要将分片缓冲在内存中
+     */
+    private Semaphore partPermits;
+    
+    @PostConstruct
+    public void init() {
+        partPermits = new Semaphore(maxConcurrentParts);
+    }
+    
+    @Override
+    public UploadSession initiate(FileUploadRequest request) {
+        if (!StringUtils.hasText(request.getFileName())) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "文件名不能为空");
+        }
+        StorageBackend backend = storageBackendFactory.getBackend();
+        String uploadId = UUID.randomUUID().toString();
+        String fileId = UUID.randomUUID().toString();
+        String bucketName = StringUtils.hasText(request.getBucketName()) ?
+                request.getBucketName() : backend.getDefaultBucketName();
+        long now = System.currentTimeMillis();
+        
+        UploadSession session = new UploadSession();
+        session.setUploadId(uploadId);
+        session.setFileId(fileId);
+        session.setFileName(request.getFileName());
+        session.setBucketName(bucketName);
+        session.setCreateTime(now);
+        session.setParts(new ArrayList<>());
+        
+        String objectName = StringUtils.hasText(request.getFilePath()) ?
+                request.getFilePath() + "/" + fileId : fileId;
+        String contentType = StringUtils.hasText(request.getContentType()) ?
+                request.getContentType() : DEFAULT_CONTENT_TYPE;
+        String backendUploadId = backend.initiateMultipartUpload(bucketName, objectName, contentType);
+        
+        Map<String, String> fields = new HashMap<>();
+        fields.put("fileId", fileId);
+        fields.put("fileName", request.getFileName());
+        fields.put("contentType", contentType);
+        fields.put("bucketName", bucketName);
+        fields.put("objectName", objectName);
+        fields.put("backendUploadId", backendUploadId);
+        fields.put("status", String.valueOf(UploadSession.STATUS_UPLOADING));
+        fields.put("createTime", String.valueOf(now));
+        if (request.getTags() != null) {
+            fields.put("tags", request.getTags());
+        }
+        if (request.getDescription() != null) {
+            fields.put("description", request.getDescription());
+        }
+        String key = SESSION_KEY_PREFIX + uploadId;
+        redisTemplate.opsForHash().putAll(key, fields);
+        touch(uploadId);
+        
+        session.setObjectName(objectName);
+        session.setStatus(UploadSession.STATUS_UPLOADING);
+        log.info("创建分片上传会话: {}, 文件: {}, 对象: {}", uploadId, request.getFileName(), objectName);
+        return session;
+    }
+    
+    @Override
+    public UploadPart uploadPart(String uploadId, int partNumber, InputStream inputStream, long size) {
+        if (partNumber < 1 || partNumber > MAX_PART_NUMBER) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "分片序号必须在1-" + MAX_PART_NUMBER + "之间");
+        }
+        if (size <= 0 || size > maxPartSize) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "分片大小必须在1-" + maxPartSize + "字节之间");
+        }
+        Map<Object, Object> fields = loadSession(uploadId);
+        if (String.valueOf(UploadSession.STATUS_COMPLETED).equals(fields.get("status")) || fields.containsKey("completing")) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "上传会话已完成");
+        }
+        
+        if (!partPermits.tryAcquire()) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE.getCode(), "当前上传分片过多，请稍后重试");
+        }
+        try {
+            StorageBackend backend = storageBackendFactory.getBackend();
+            String etag = backend.uploadPart((String) fields.get("bucketName"), (String) fields.get("objectName"),
+                    (String) fields.get("backendUploadId"), partNumber, inputStream, size);
+            Long recorded = redisTemplate.execute(RECORD_PART_SCRIPT,
+                    List.of(SESSION_KEY_PREFIX + uploadId, SESSION_KEY_PREFIX + uploadId + PARTS_KEY_SUFFIX),
+                    String.valueOf(partNumber), size + "|" + etag, String.valueOf(UploadSession.STATUS_COMPLETED));
+            if (recorded == null || recorded < 0) {
+                throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "上传会话不存在或已过期");
+            }
+            if (recorded == 0) {
+                // 合并已读取分片列表，本分片不会包含在文件中
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "上传会话正在合并或已完成");
+            }
+            touch(uploadId);
+            return new UploadPart(partNumber, size, etag);
+        } finally {
+            partPermits.release();
+        }
+    }
+    
+    @Override
+    public UploadSession getSession(String uploadId) {
+        Map<Object, Object> fields = loadSession(uploadId);
+        
+        UploadSession session = new UploadSession();
+        session.setUploadId(uploadId);
+        session.setFileId((String) fields.get("fileId"));
+        session.setFileName((String) fields.get("fileName"));
+        session.setBucketName((String) fields.get("bucketName"));
+        session.setObjectName((String) fields.get("objectName"));
+        session.setStatus(Integer.valueOf((String) fields.get("status")));
+        session.setCreateTime(Long.valueOf((String) fields.get("createTime")));
+        session.setParts(new ArrayList<>(loadParts(uploadId).values()));
+        return session;
+    }
+    
+    @Override
+    public FileInfo complete(String uploadId) {
+        Map<Object, Object> fields = loadSession(uploadId);
+        String fileId = (String) fields.get("fileId");
+        if (String.valueOf(UploadSession.STATUS_COMPLETED).equals(fields.get("status"))) {
+            return storageService.getFileInfo(fileId);
+        }
+        
+        String key = SESSION_KEY_PREFIX + uploadId;
+        // 防止并发合并同一会话
+        if (!Boolean.TRUE.equals(redisTemplate.opsForHash().putIfAbsent(key, "completing", "1"))) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "上传会话正在合并");
+        }
+        
+        try {
+            SortedMap<Integer, UploadPart> parts = loadParts(uploadId);
+            if (parts.isEmpty()) {
+                throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "没有已上传的分片");
+            }
+            
+            SortedMap<Integer, String> partETags = new TreeMap<>();
+            long fileSize = 0;
+            for (UploadPart part : parts.values()) {
+                partETags.put(part.getPartNumber(), part.getEtag());
+                fileSize += part.getSize();
+            }
+            
+            StorageBackend backend = storageBackendFactory.getBackend();
+            String bucketName = (String) fields.get("bucketName");
+            String filePath = (String) fields.get("objectName");
+            backend.completeMultipartUpload(bucketName, filePath,
+                    (String) fields.get("backendUploadId"), partETags);
+            
+            FileInfo fileInfo = buildFileInfo(fileId, (String) fields.get("fileName"),
+                    (String) fields.get("contentType"), bucketName, filePath, fileSize,
+                    (String) fields.get("tags"), (String) fields.get("description"));
+            String objectName = deduplicate(backend, fileInfo);
+            finishFile(backend, fileInfo, objectName);
+            
+            // 已完成的会话保留一段时间，重复调用complete时直接返回文件信息
+            redisTemplate.opsForHash().put(key, "status", String.valueOf(UploadSession.STATUS_COMPLETED));
+            redisTemplate.expire(key, 1, TimeUnit.HOURS);
+            redisTemplate.delete(key + PARTS_KEY_SUFFIX);
+            redisTemplate.opsForZSet().remove(ACTIVE_SESSIONS_KEY, uploadId);
+            
+            log.info("分片上传完成: {}, 文件: {}, 分片数: {}, 大小: {}", uploadId, fileId, parts.size(), fileSize);
+            return fileInfo;
+            
+        } catch (RuntimeException e) {
+            redisTemplate.opsForHash().delete(key, "completing");
+            throw e;
+        }
+    }
+    
+    @Override
+    public Boolean abort(String uploadId) {
+        Map<Object, Object> fields = loadSession(uploadId);
+        if (String.valueOf(UploadSession.STATUS_COMPLETED).equals(fields.get("status"))) {
+            throw new BusinessException(ResultCode.PARAM_ERROR.getCode(), "上传会话已完成");
+        }
+        redisTemplate.opsForZSet().remove(ACTIVE_SESSIONS_KEY, uploadId);
+        abortSession(uploadId, fields);
+        log.info("取消分片上传: {}", uploadId);
+        return true;
+    }
+    
+    /**
+     * 清理超时未完成的上传会话；多个节点同时执行时，以从有序集合中移除成功的节点为准
+     */
+    @Scheduled(fixedDelayString = "${storage.upload.cleanup-interval-ms:600000}")
+    public void cleanupExpiredSessions() {
+        long deadline = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(sessionTtlHours);
+        Set<String> expired;
+        try {
+            expired = redisTemplate.opsForZSet().rangeByScore(ACTIVE_SESSIONS_KEY, 0, deadline, 0, cleanupBatchSize);
+        } catch (Exception e) {
+            log.warn("查询过期上传会话失败: {}", e.getMessage());
+            return;
+        }
+        if (expired == null || expired.isEmpty()) {
+            return;
+        }
+        
+        int cleaned = 0;
+        for (String uploadId : expired) {
+            Long removed = redisTemplate.opsForZSet().remove(ACTIVE_SESSIONS_KEY, uploadId);
+            if (removed == null || removed == 0) {
+                continue;
+            }
+            Map<Object, Object> fields = redisTemplate.opsForHash().entries(SESSION_KEY_PREFIX + uploadId);
+            if (fields.isEmpty()) {
+                continue;
+            }
+            try {
+                abortSession(uploadId, fields);
+                cleaned++;
+            } catch (Exception e) {
+                log.warn("清理过期上传会话失败: {}, {}", uploadId, e.getMessage());
+            }
+        }
+        log.info("清理过期上传会话: {}", cleaned);
+    }
+    
+    private void abortSession(String uploadId, Map<Object, Object> fields) {
+        try {
+            storageBackendFactory.getBackend().abortMultipartUpload((String) fields.get("bucketName"),
+                    (String) fields.get("objectName"), (String) fields.get("backendUploadId"));
+        } catch (BusinessException e) {
+            // 后端分片上传已不存在时只清理会话
+            if (!ResultCode.NOT_FOUND.getCode().equals(e.getCode())) {
+                throw e;
+            }
+        }
+        redisTemplate.delete(List.of(SESSION_KEY_PREFIX + uploadId, SESSION_KEY_PREFIX + uploadId + PARTS_KEY_SUFFIX));
+    }
+    
+    private Map<Object, Object> loadSession(String uploadId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(SESSION_KEY_PREFIX + uploadId);
+        if (fields.isEmpty()) {
+            throw new BusinessException(ResultCode.NOT_FOUND.getCode(), "上传会话不存在或已过期");
+        }
+        return fields;
+    }
+    
+    private SortedMap<Integer, UploadPart> loadParts(String uploadId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(SESSION_KEY_PREFIX + uploadId + PARTS_KEY_SUFFIX);
+        SortedMap<Integer, UploadPart> parts = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            int partNumber = Integer.parseInt((String) entry.getKey());
+            String value = (String) entry.getValue();
+            int separator = value.indexOf('|');
+            parts.put(partNumber, new UploadPart(partNumber, Long.valueOf(value.substring(0, separator)),
+                    value.substring(separator + 1)));
+        }
+        return parts;
+    }
+    
+    /**
+     * 刷新会话的最后活动时间和过期时间；Redis中的会话比清理期限多保留一天，保证清理时仍能读取后端上传ID
+     */
+    private void touch(String uploadId) {
+        long ttlHours = sessionTtlHours + 24;
+        redisTemplate.expire(SESSION_KEY_PREFIX + uploadId, ttlHours, TimeUnit.HOURS);
+        redisTemplate.expire(SESSION_KEY_PREFIX + uploadId + PARTS_KEY_SUFFIX, ttlHours, TimeUnit.HOURS);
+        redisTemplate.opsForZSet().add(ACTIVE_SESSIONS_KEY, uploadId, System.currentTimeMillis());
+    }
+    
+    /**
+     * 合并完成后由服务端读取对象计算MD5并登记去重索引，相同内容已存在时删除本次合并的对象；
+     * 分片并发上传无法在传输过程中得到整体MD5，超过大小上限的对象不做去重
+     *
+     * @return 文件实际引用的对象名
+     */
+    private String deduplicate(StorageBackend backend, FileInfo fileInfo) {
+        String bucketName = fileInfo.getBucketName();
+        String objectName = fileInfo.getFilePath();
+        if (!dedupIndex.isEnabled() || fileInfo.getFileSize() > dedupMaxSize) {
+            return objectName;
+        }
+        
+        String md5;
+        try (ObjectContent content = backend.getObject(bucketName, objectName, 0, null)) {
+            HashingInputStream hashingStream = new HashingInputStream(content.getInputStream());
+            hashingStream.drain();
+            md5 = hashingStream.getMd5Hex();
+        } catch (Exception e) {
+            log.warn("计算合并对象MD5失败，不做去重: {}, {}", objectName, e.getMessage());
+            return objectName;
+        }
+        fileInfo.setMd5(md5);
+        
+        String canonicalObject = dedupIndex.register(bucketName, md5, objectName, fileInfo.getFileSize());
+        if (!canonicalObject.equals(objectName)) {
+            try {
+                backend.removeObject(bucketName, objectName);
+            } catch (Exception e) {
+                log.warn("删除重复对象失败: {}, {}", objectName, e.getMessage());
+            }
+            log.info("合并对象内容已存在，引用已有对象: {} -> {}", fileInfo.getFileId(), canonicalObject);
+        }
+        return canonicalObject;
+    }
+    
+    /**
+     * 写入文件信息；文件信息表记录文件与对象的对应关系，写入失败时释放对象并上传失败
+     */
+    private void finishFile(StorageBackend backend, FileInfo fileInfo, String objectName) {
+        dedupIndex.bindFile(fileInfo.getFileId(), objectName);
+        try {
+            fileRecordService.saveFileInfo(fileInfo, objectName);
+        } catch (Exception e) {
+            log.error("保存文件信息失败: {}", fileInfo.getFileId(), e);
+            dedupIndex.unbindFile(fileInfo.getFileId());
+            if (dedupIndex.release(fileInfo.getBucketName(), objectName) <= 0) {
+                try {
+                    backend.removeObject(fileInfo.getBucketName(), objectName);
+                } catch (Exception ex) {
+                    log.warn("删除对象失败: {}, {}", objectName, ex.getMessage());
+                }
+                dedupIndex.forget(fileInfo.getBucketName(), objectName);
+            }
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED);
+        }
+        fileInfo.setFileUrl(storageService.getFileUrl(fileInfo.getFileId(), 3600L));
+        fileMetadataCache.putFileInfo(fileInfo);
+    }
+    
+    private FileInfo buildFileInfo(String fileId, String fileName, String contentType, String bucketName,
+                                   String objectName, long fileSize, String tags, String description) {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setFileId(fileId);
+        fileInfo.setFileName(fileName);
+        fileInfo.setFilePath(objectName);
+        fileInfo.setFileSize(fileSize);
+        fileInfo.setContentType(contentType);
+        fileInfo.setBucketName(bucketName);
+        fileInfo.setUploadTime(System.currentTimeMillis());
+        fileInfo.setTags(tags);
+        fileInfo.setDescription(description);
+        fileInfo.setAccessPermission(1); // 默认私有
+        return fileInfo;
+    }
+}
@@ -0,0 +1,67 @@
+package com.yitong.base.storage.util;
+
+import com.yitong.base.storage.model.ObjectContent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 本地文件范围读取工具
+ * 供本地磁盘存储后端与热点对象缓存共用
+ */
+public final class LocalFiles {
+    
+    private LocalFiles() {
+    }
+    
+    /**
+     * 按范围打开本地文件，调用方负责关闭
+     *
+     * @param path 文件路径
+     * @param offset 起始偏移量
+     * @param length 读取长度，为null时读取到文件末尾
+     * @return 对象内容
+     */
+    public static ObjectContent open(Path path, long offset, Long length) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long totalSize = channel.size();
+            channel.position(Math.min(offset, totalSize));
+            InputStream inputStream = Channels.newInputStream(channel);
+            if (length != null) {
+                inputStream = new BoundedInputStream(inputStream, length);
+            }
+            return new ObjectContent(inputStream, totalSize);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * 通过FileChannel.transferTo将文件指定范围写入目标通道
+     *
+     * @param channel 已打开的文件通道
+     * @param offset 起始偏移量
+     * @param length 写入长度
+     * @param target 目标通道
+     */
+    public static void transfer(FileChannel channel, long offset, long length, WritableByteChannel target)
+            throws IOException {
+        long position = offset;
+        long end = Math.min(offset + length, channel.size());
+        // transferTo单次可能只传输部分字节，循环直到写完
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+    }
+}